@@ -0,0 +1,133 @@
+package com.airlines.benchmark;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.InitDataBean;
+import com.airlines.model.Flight;
+import com.airlines.model.Price;
+import com.airlines.parsers.FlightParser;
+import com.airlines.parsers.PricesParser;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The bundled flights.csv and prices.csv, scaled by copying every row {@code scale} times under new flight
+ * numbers ({@code 1010}, {@code 1010-1}, {@code 1010-2}...), so each route gets {@code scale} times the departures.
+ */
+public final class BenchmarkSchedule implements AutoCloseable {
+
+    private final Path directory;
+    private final URL flightsResource;
+    private final URL pricesResource;
+
+    private BenchmarkSchedule(Path directory) throws IOException {
+        this.directory = directory;
+        this.flightsResource = directory.resolve("flights.csv").toUri().toURL();
+        this.pricesResource = directory.resolve("prices.csv").toUri().toURL();
+    }
+
+    public static BenchmarkSchedule create(int scale) throws IOException {
+        BenchmarkSchedule schedule = new BenchmarkSchedule(Files.createTempDirectory("airline-benchmark"));
+        schedule.writeScaled("flights.csv", scale);
+        schedule.writeScaled("prices.csv", scale);
+        return schedule;
+    }
+
+    public static FlightInventoryConfiguration getConfiguration(boolean parallelCsvParsing) {
+        return new FlightInventoryConfiguration() {
+            @Override
+            public boolean isParallelCsvParsing() {
+                return parallelCsvParsing;
+            }
+
+            @Override
+            public int getWaitingTimeBetweenFlights() {
+                return 360;
+            }
+
+            @Override
+            public int getMinimumAvailableSeats() {
+                return 1;
+            }
+
+            @Override
+            public int getMinimumDaysForRoundTrip() {
+                return 1;
+            }
+
+            @Override
+            public int getMaximumConnections() {
+                return 1;
+            }
+
+            @Override
+            public boolean isFlightGraphEnabled() {
+                return true;
+            }
+        };
+    }
+
+    public URL getFlightsResource() {
+        return flightsResource;
+    }
+
+    public URL getPricesResource() {
+        return pricesResource;
+    }
+
+    public List<Flight> parseRawFlights() throws IOException {
+        return new FlightParser(getConfiguration(true)).parseFlightSource(flightsResource);
+    }
+
+    public List<Price> parsePrices() throws IOException {
+        return new PricesParser(getConfiguration(true)).parseFlightSource(pricesResource);
+    }
+
+    public List<Flight> loadFlights() throws IOException {
+        return InitDataBean.mergePrices(parseRawFlights(), parsePrices());
+    }
+
+    private void writeScaled(String resource, int scale) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream(resource), StandardCharsets.UTF_8));
+             BufferedWriter writer = Files.newBufferedWriter(directory.resolve(resource))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.trim().split(",", 3);
+                for (int copy = 0; copy < scale; copy++) {
+                    writer.write(fields[0]);
+                    writer.write(',');
+                    writer.write(copy == 0 ? fields[1] : fields[1] + "-" + copy);
+                    writer.write(',');
+                    writer.write(fields[2]);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.airlines.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a fixed number of itinerary requests in flight against a running application and reports throughput and
+ * latency percentiles. Compare the execution models by pointing it at the blocking MVC endpoints, at the
+ * {@code /itinerary/reactive} endpoints, and at the blocking endpoints of an application started with
+ * {@code --virtualthreadsenabled=true}:
+ * <pre>
+ * java -cp target/test-classes com.airlines.benchmark.ItineraryLoadTest http://localhost:8080 \
+ *     /itinerary/reactive/priceWithConnections application/x-ndjson 5000 60 \
+ *     '{"date":"2022-01-05","fromAirport":"TLV","toAirport":"MAD"}'
+ * </pre>
+ */
+public final class ItineraryLoadTest {
+
+    private ItineraryLoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length != 6) {
+            System.err.println("Usage: ItineraryLoadTest <base url> <path> <accept> <connections> <seconds> <request body>");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0] + args[1]);
+        String accept = args[2];
+        int connections = Integer.parseInt(args[3]);
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(args[4]));
+        String body = args[5];
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .method("GET", HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+
+        Semaphore inFlight = new Semaphore(connections);
+        LatencyRecorder latencies = new LatencyRecorder();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        if (ex != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else {
+                            latencies.record(System.nanoTime() - sent);
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(connections);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.toSortedArray();
+        System.out.printf("%s %s, %d connections: %d requests, %d errors, %.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                uri, accept, connections, sorted.length, errors.get(), sorted.length / seconds,
+                getPercentileMillis(sorted, 0.50), getPercentileMillis(sorted, 0.99), getPercentileMillis(sorted, 1.0));
+    }
+
+    private static double getPercentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class LatencyRecorder {
+
+        private long[] nanos = new long[1 << 16];
+        private int size;
+
+        synchronized void record(long latencyNanos) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latencyNanos;
+        }
+
+        synchronized long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
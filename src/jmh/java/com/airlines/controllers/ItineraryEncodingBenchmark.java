@@ -0,0 +1,71 @@
+package com.airlines.controllers;
+
+import com.airlines.benchmark.BenchmarkSchedule;
+import com.airlines.dataHandlers.AirlineMetrics;
+import com.airlines.dataHandlers.FlightsAnalysis;
+import com.airlines.dataHandlers.ParallelSearch;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.CompactItineraries;
+import com.airlines.model.Itinerary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes the first 1,000 TLV-MAD round trips the way the itinerary endpoints do for each negotiated format.
+ * The encoded size of every format is printed once per trial; run with {@code -prof gc} for allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ItineraryEncodingBenchmark {
+
+    static final int ITINERARIES = 1000;
+
+    @Param({"JSON", "COMPACT_JSON", "CBOR", "SMILE"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private Itinerary[] itineraries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FlightGraphProvider flightGraphProvider = new FlightGraphProvider();
+        try (BenchmarkSchedule schedule = BenchmarkSchedule.create(1)) {
+            flightGraphProvider.load(schedule.loadFlights());
+        }
+        FlightsAnalysis flightsAnalysis = new FlightsAnalysis(null, BenchmarkSchedule.getConfiguration(true),
+                flightGraphProvider, new AirlineMetrics(new SimpleMeterRegistry(), flightGraphProvider), ParallelSearch.sequential());
+        itineraries = Arrays.copyOf(flightsAnalysis.getPriceAllRoundTrip("TLV", "MAD"), ITINERARIES);
+
+        switch (format) {
+            case "CBOR":
+                objectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+                break;
+            case "SMILE":
+                objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+                break;
+            default:
+                objectMapper = Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build();
+        }
+        System.out.printf("%n%s: %d bytes per %d itineraries%n", format, encode().length, ITINERARIES);
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(format.equals("COMPACT_JSON")
+                ? new CompactItineraries(itineraries)
+                : itineraries);
+    }
+}
@@ -0,0 +1,49 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.benchmark.BenchmarkSchedule;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.Itinerary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materializes every round trip of a route. BER-PAR has ~65k pairs on the bundled schedule and
+ * {@code scale * scale} times as many when scaled, so larger scales need to be asked for with {@code -p scale=}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AllRoundTripBenchmark {
+
+    @Param({"1"})
+    public int scale;
+
+    @Param({"BER-PAR", "TLV-MAD"})
+    public String route;
+
+    private FlightsAnalysis flightsAnalysis;
+    private String fromAirport;
+    private String toAirport;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FlightGraphProvider flightGraphProvider = new FlightGraphProvider();
+        try (BenchmarkSchedule schedule = BenchmarkSchedule.create(scale)) {
+            flightGraphProvider.load(schedule.loadFlights());
+        }
+        flightsAnalysis = new FlightsAnalysis(null, BenchmarkSchedule.getConfiguration(true), flightGraphProvider,
+                new AirlineMetrics(new SimpleMeterRegistry(), flightGraphProvider), ParallelSearch.sequential());
+        fromAirport = route.substring(0, 3);
+        toAirport = route.substring(4);
+    }
+
+    @Benchmark
+    public Itinerary[] getPriceAllRoundTrip() {
+        return flightsAnalysis.getPriceAllRoundTrip(fromAirport, toAirport);
+    }
+}
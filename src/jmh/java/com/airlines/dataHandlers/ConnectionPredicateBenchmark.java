@@ -0,0 +1,90 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.benchmark.BenchmarkSchedule;
+import com.airlines.model.Flight;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests every (departure, candidate) pair of the bundled schedule's TLV departures against every flight into MAD,
+ * once with the epoch-minute predicate and once with the {@link Date} arithmetic it replaced. Scores and
+ * {@code -prof gc} allocation are per pair. In a loop this small C2 scalar-replaces the {@code Date}s, so add
+ * {@code -jvmArgsAppend -XX:-DoEscapeAnalysis} to see what they cost where escape analysis gives up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(ConnectionPredicateBenchmark.PAIRS)
+public class ConnectionPredicateBenchmark {
+
+    static final int DEPARTURES = 100;
+    static final int CANDIDATES = 1000;
+    static final int PAIRS = DEPARTURES * CANDIDATES;
+
+    private static final String TO_AIRPORT = "MAD";
+    private static final int WAITING_TIME_BETWEEN_FLIGHTS = 360;
+
+    private Flight[] departures;
+    private Flight[] candidates;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Flight> flights;
+        try (BenchmarkSchedule schedule = BenchmarkSchedule.create(1)) {
+            flights = schedule.loadFlights();
+        }
+        departures = flights.stream()
+                .filter(flight -> flight.fromAirport.equals("TLV") && !flight.toAirport.equals(TO_AIRPORT))
+                .limit(DEPARTURES)
+                .toArray(Flight[]::new);
+        candidates = flights.stream()
+                .filter(flight -> flight.toAirport.equals(TO_AIRPORT))
+                .limit(CANDIDATES)
+                .toArray(Flight[]::new);
+        if (departures.length != DEPARTURES || candidates.length != CANDIDATES) {
+            throw new IllegalStateException(String.format("Schedule has %d departures and %d candidates",
+                    departures.length, candidates.length));
+        }
+    }
+
+    @Benchmark
+    public int epochMinutes() {
+        int connections = 0;
+        for (Flight departureFlight : departures) {
+            for (Flight connectionFlight : candidates) {
+                if (FlightsAnalysis.isConnectionFlight(TO_AIRPORT, departureFlight, connectionFlight,
+                        WAITING_TIME_BETWEEN_FLIGHTS)) {
+                    connections++;
+                }
+            }
+        }
+        return connections;
+    }
+
+    @Benchmark
+    public int dateArithmetic() {
+        int connections = 0;
+        for (Flight departureFlight : departures) {
+            for (Flight connectionFlight : candidates) {
+                Date startDateWithDuration = Date.from(departureFlight.dateTimeUTC.toInstant()
+                        .plus(Duration.ofMinutes(departureFlight.duration)));
+                Date endDateWithWaitFactor = Date.from(startDateWithDuration.toInstant()
+                        .plus(Duration.ofMinutes(WAITING_TIME_BETWEEN_FLIGHTS)));
+                if (connectionFlight.dateTimeUTC.compareTo(startDateWithDuration) >= 0
+                        && connectionFlight.dateTimeUTC.compareTo(endDateWithWaitFactor) <= 0
+                        && departureFlight.toAirport.equals(connectionFlight.fromAirport)
+                        && connectionFlight.toAirport.equals(TO_AIRPORT)) {
+                    connections++;
+                }
+            }
+        }
+        return connections;
+    }
+}
@@ -0,0 +1,56 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.benchmark.BenchmarkSchedule;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.Itinerary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Itinerary search over the in-memory flight graph. All-round-trip pairs grow with the square of the scale,
+ * so here only the first page is materialized; see {@link AllRoundTripBenchmark} for the full array.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FlightsAnalysisBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private FlightsAnalysis flightsAnalysis;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FlightGraphProvider flightGraphProvider = new FlightGraphProvider();
+        try (BenchmarkSchedule schedule = BenchmarkSchedule.create(scale)) {
+            flightGraphProvider.load(schedule.loadFlights());
+        }
+        flightsAnalysis = new FlightsAnalysis(null, BenchmarkSchedule.getConfiguration(true), flightGraphProvider,
+                new AirlineMetrics(new SimpleMeterRegistry(), flightGraphProvider), ParallelSearch.sequential());
+    }
+
+    @Benchmark
+    public Itinerary[] getPriceRoundTrip() {
+        return flightsAnalysis.getPriceRoundTrip("2022-03-10", "TLV", "2022-03-17", "MAD");
+    }
+
+    @Benchmark
+    public Itinerary[] getPriceWithConnections() {
+        return flightsAnalysis.getPriceWithConnections("2022-03-10", "TLV", "JFK");
+    }
+
+    @Benchmark
+    public List<Itinerary> getAllRoundTripFirstPage() {
+        return flightsAnalysis.getAllRoundTripItineraries("TLV", "MAD").stream()
+                .limit(1000)
+                .collect(Collectors.toList());
+    }
+}
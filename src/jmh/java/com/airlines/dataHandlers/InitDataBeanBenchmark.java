@@ -0,0 +1,48 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.benchmark.BenchmarkSchedule;
+import com.airlines.graph.FlightGraph;
+import com.airlines.model.Flight;
+import com.airlines.model.Price;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory stages of the startup load: merging prices into flights and building the flight graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class InitDataBeanBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private List<Flight> rawFlights;
+    private List<Price> prices;
+    private List<Flight> flights;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (BenchmarkSchedule schedule = BenchmarkSchedule.create(scale)) {
+            rawFlights = schedule.parseRawFlights();
+            prices = schedule.parsePrices();
+        }
+        flights = InitDataBean.mergePrices(rawFlights, prices);
+    }
+
+    @Benchmark
+    public List<Flight> mergePrices() {
+        return InitDataBean.mergePrices(rawFlights, prices);
+    }
+
+    @Benchmark
+    public FlightGraph buildFlightGraph() {
+        return FlightGraph.build(flights);
+    }
+}
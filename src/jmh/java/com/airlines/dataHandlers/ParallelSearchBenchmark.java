@@ -0,0 +1,64 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.benchmark.BenchmarkSchedule;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.Itinerary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materializes every round trip of a route sequentially and split across {@code threads} fork-join threads, to
+ * find the number of pairs above which the parallel mode pays off, i.e. where {@code parallelsearchthreshold}
+ * belongs on a given machine. BER-PAR has ~65k pairs and TLV-MAD ~255k on the bundled schedule, and
+ * {@code scale * scale} times as many when scaled. On a single core the parallel mode only measures its overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParallelSearchBenchmark {
+
+    @Param({"1", "4"})
+    public int scale;
+
+    @Param({"BER-PAR", "TLV-MAD"})
+    public String route;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"4"})
+    public int threads;
+
+    private FlightsAnalysis flightsAnalysis;
+    private ParallelSearch parallelSearch;
+    private String fromAirport;
+    private String toAirport;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FlightGraphProvider flightGraphProvider = new FlightGraphProvider();
+        try (BenchmarkSchedule schedule = BenchmarkSchedule.create(scale)) {
+            flightGraphProvider.load(schedule.loadFlights());
+        }
+        parallelSearch = new ParallelSearch(parallel, 0, threads);
+        flightsAnalysis = new FlightsAnalysis(null, BenchmarkSchedule.getConfiguration(true), flightGraphProvider,
+                new AirlineMetrics(new SimpleMeterRegistry(), flightGraphProvider), parallelSearch);
+        fromAirport = route.substring(0, 3);
+        toAirport = route.substring(4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelSearch.destroy();
+    }
+
+    @Benchmark
+    public Itinerary[] getPriceAllRoundTrip() {
+        return flightsAnalysis.getPriceAllRoundTrip(fromAirport, toAirport);
+    }
+}
@@ -0,0 +1,50 @@
+package com.airlines.parsers;
+
+import com.airlines.benchmark.BenchmarkSchedule;
+import com.airlines.model.Flight;
+import com.airlines.model.Price;
+import org.openjdk.jmh.annotations.*;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParserBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    @Param({"false", "true"})
+    public boolean parallelCsvParsing;
+
+    private BenchmarkSchedule schedule;
+    private FlightParser flightParser;
+    private PricesParser pricesParser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        schedule = BenchmarkSchedule.create(scale);
+        flightParser = new FlightParser(BenchmarkSchedule.getConfiguration(parallelCsvParsing));
+        pricesParser = new PricesParser(BenchmarkSchedule.getConfiguration(parallelCsvParsing));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        schedule.close();
+    }
+
+    @Benchmark
+    public List<Flight> parseFlightSource() throws IOException {
+        return flightParser.parseFlightSource(schedule.getFlightsResource());
+    }
+
+    @Benchmark
+    public List<Price> parsePriceSource() throws IOException {
+        return pricesParser.parseFlightSource(schedule.getPricesResource());
+    }
+}
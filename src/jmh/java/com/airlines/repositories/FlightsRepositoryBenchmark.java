@@ -0,0 +1,68 @@
+package com.airlines.repositories;
+
+import com.airlines.AirlineApplication;
+import com.airlines.model.Flight;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One route query over the bundled schedule, through the projected repository finder and through the same
+ * query loading managed, dirty-checked entities into a fresh persistence context. Run with {@code -prof gc}
+ * to compare the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FlightsRepositoryBenchmark {
+
+    private static final String[] AIRPORTS = {"TLV", "MAD"};
+    private static final int MINIMUM_AVAILABLE_SEATS = 1;
+
+    private ConfigurableApplicationContext context;
+    private FlightsRepository flightsRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AirlineApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        flightsRepository = context.getBean(FlightsRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Flight> projectedFinder() {
+        return flightsRepository.findByFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqualOrderByDate(
+                AIRPORTS, AIRPORTS, MINIMUM_AVAILABLE_SEATS);
+    }
+
+    @Benchmark
+    public List<Flight> managedQuery() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager
+                    .createQuery("select f from Flight f where f.fromAirport in :airports and f.toAirport in :airports " +
+                            "and f.availableSeats >= :availableSeats order by f.date", Flight.class)
+                    .setParameter("airports", List.of(AIRPORTS))
+                    .setParameter("availableSeats", MINIMUM_AVAILABLE_SEATS)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
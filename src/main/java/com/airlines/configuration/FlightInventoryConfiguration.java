@@ -12,6 +12,15 @@ public class FlightInventoryConfiguration {
     @Value( "${priceresourcepath}" )
     private String priceResourcePath;
 
+    @Value( "${parallelcsvparsing}" )
+    private boolean parallelCsvParsing;
+
+    @Value( "${bulkloadenabled}" )
+    private boolean bulkLoadEnabled;
+
+    @Value( "${bulkloadbatchsize}" )
+    private int bulkLoadBatchSize;
+
     @Value( "${waitingtimebetweenflights}" )
     private int waitingTimeBetweenFlights;
 
@@ -21,6 +30,48 @@ public class FlightInventoryConfiguration {
     @Value( "${minimumdaysforroundtrip}" )
     private int minimumDaysForRoundTrip;
 
+    @Value( "${maximumconnections}" )
+    private int maximumConnections;
+
+    @Value( "${flightgraphenabled}" )
+    private boolean flightGraphEnabled;
+
+    @Value( "${itinerarycacheenabled}" )
+    private boolean itineraryCacheEnabled;
+
+    @Value( "${itinerarycachemaximumweight}" )
+    private long itineraryCacheMaximumWeight;
+
+    @Value( "${holdexpirymillis}" )
+    private long holdExpiryMillis;
+
+    @Value( "${farecalendarmaximumstaydays}" )
+    private int fareCalendarMaximumStayDays;
+
+    @Value( "${virtualthreadsenabled}" )
+    private boolean virtualThreadsEnabled;
+
+    @Value( "${searchmaximumcandidatepairs}" )
+    private long searchMaximumCandidatePairs;
+
+    @Value( "${searchmaximumitineraries}" )
+    private long searchMaximumItineraries;
+
+    @Value( "${searchdeadlinemillis}" )
+    private long searchDeadlineMillis;
+
+    @Value( "${parallelsearchenabled}" )
+    private boolean parallelSearchEnabled;
+
+    @Value( "${parallelsearchthreshold}" )
+    private long parallelSearchThreshold;
+
+    @Value( "${parallelsearchparallelism}" )
+    private int parallelSearchParallelism;
+
+    @Value( "${searchcoalescingenabled}" )
+    private boolean searchCoalescingEnabled;
+
     public String getFlightResourcePath(){
         return flightResourcePath;
     }
@@ -29,6 +80,18 @@ public class FlightInventoryConfiguration {
         return priceResourcePath;
     }
 
+    public boolean isParallelCsvParsing(){
+        return parallelCsvParsing;
+    }
+
+    public boolean isBulkLoadEnabled(){
+        return bulkLoadEnabled;
+    }
+
+    public int getBulkLoadBatchSize(){
+        return bulkLoadBatchSize;
+    }
+
     public int getWaitingTimeBetweenFlights(){
         return waitingTimeBetweenFlights;
     }
@@ -41,4 +104,59 @@ public class FlightInventoryConfiguration {
         return minimumDaysForRoundTrip;
     }
 
+    public int getMaximumConnections(){
+        return maximumConnections;
+    }
+
+    public boolean isFlightGraphEnabled(){
+        return flightGraphEnabled;
+    }
+
+    public boolean isItineraryCacheEnabled(){
+        return itineraryCacheEnabled;
+    }
+
+    public long getItineraryCacheMaximumWeight(){
+        return itineraryCacheMaximumWeight;
+    }
+
+    public long getHoldExpiryMillis(){
+        return holdExpiryMillis;
+    }
+
+    public int getFareCalendarMaximumStayDays(){
+        return fareCalendarMaximumStayDays;
+    }
+
+    public boolean isVirtualThreadsEnabled(){
+        return virtualThreadsEnabled;
+    }
+
+    public long getSearchMaximumCandidatePairs(){
+        return searchMaximumCandidatePairs;
+    }
+
+    public long getSearchMaximumItineraries(){
+        return searchMaximumItineraries;
+    }
+
+    public long getSearchDeadlineMillis(){
+        return searchDeadlineMillis;
+    }
+
+    public boolean isParallelSearchEnabled(){
+        return parallelSearchEnabled;
+    }
+
+    public long getParallelSearchThreshold(){
+        return parallelSearchThreshold;
+    }
+
+    public int getParallelSearchParallelism(){
+        return parallelSearchParallelism;
+    }
+
+    public boolean isSearchCoalescingEnabled(){
+        return searchCoalescingEnabled;
+    }
 }
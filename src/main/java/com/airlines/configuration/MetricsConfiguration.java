@@ -0,0 +1,79 @@
+package com.airlines.configuration;
+
+import com.airlines.dataHandlers.AirlineMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Times the serialization of every response body written by the JSON, CBOR and Smile converters, tagged with the
+ * class of the body and the subtype of the media type written, so the compact and the binary formats can be
+ * compared with plain JSON.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   AirlineMetrics airlineMetrics) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    recordSerialization(airlineMetrics, object, outputMessage, start);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(AirlineMetrics airlineMetrics) {
+        return new MappingJackson2CborHttpMessageConverter() {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    recordSerialization(airlineMetrics, object, outputMessage, start);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(AirlineMetrics airlineMetrics) {
+        return new MappingJackson2SmileHttpMessageConverter() {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    recordSerialization(airlineMetrics, object, outputMessage, start);
+                }
+            }
+        };
+    }
+
+    private static void recordSerialization(AirlineMetrics airlineMetrics, Object object,
+                                            HttpOutputMessage outputMessage, long start) {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        airlineMetrics.recordSerialization(object.getClass().getSimpleName(),
+                contentType != null ? contentType.getSubtype() : "unknown", System.nanoTime() - start);
+    }
+}
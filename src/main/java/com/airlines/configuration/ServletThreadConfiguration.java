@@ -0,0 +1,48 @@
+package com.airlines.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request processing on one virtual thread per request when {@code virtualthreadsenabled} is set
+ * and the runtime has virtual threads (Java 21). Older runtimes keep Tomcat's platform thread pool.
+ */
+@Configuration
+public class ServletThreadConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServletThreadConfiguration.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            FlightInventoryConfiguration flightInventoryConfiguration) {
+        return protocolHandler -> {
+            if (!flightInventoryConfiguration.isVirtualThreadsEnabled()) {
+                return;
+            }
+            Optional<ExecutorService> executor = newVirtualThreadPerTaskExecutor();
+            if (executor.isPresent()) {
+                protocolHandler.setExecutor(executor.get());
+                logger.info("Tomcat requests run on virtual threads");
+            } else {
+                logger.warn("Virtual threads need Java 21, running on Java {}; Tomcat keeps its platform thread pool",
+                        Runtime.version().feature());
+            }
+        };
+    }
+
+    static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null));
+        } catch (ReflectiveOperationException ex) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,35 +1,71 @@
 package com.airlines.controllers;
 
+import com.airlines.dataHandlers.AirlineMetrics;
 import com.airlines.model.*;
 import com.airlines.services.FlightItineraryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import javax.validation.Valid;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Validated
 @RestController
 @RequestMapping("/itinerary")
 public class AirlineController {
 
+    static final int MAXIMUM_PAGE_SIZE = 1000;
+
+    static final int MAXIMUM_BATCH_SIZE = 1000;
+
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Set, to the limit that stopped the search, on responses holding the partial results of a search that ran out
+     * of its {@link SearchBudget}.
+     */
+    static final String SEARCH_PARTIAL_HEADER = "Search-Partial";
+
     @Autowired
     private FlightItineraryService flightItineraryService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AirlineMetrics airlineMetrics;
+
     @GetMapping("/priceRoundTrip")
-    public ResponseEntity<Itinerary[]> priceRoundTrip(@Valid @RequestBody RoundTripRequest roundTripRequest) {
+    public ResponseEntity<Itinerary[]> priceRoundTrip(@Valid @RequestBody RoundTripRequest roundTripRequest,
+            @RequestParam(required = false) ItinerarySort sort) {
+        SearchBudget budget = flightItineraryService.newSearchBudget();
         try {
             return Optional
-                    .ofNullable(flightItineraryService.getPriceRoundTrip(
-                            roundTripRequest.departureDate, roundTripRequest.fromAirport,
-                            roundTripRequest.returnDate, roundTripRequest.toAirport))
-                    .map(flightItinerary -> ResponseEntity.ok().body(flightItinerary))
+                    .ofNullable(sort == null
+                            ? flightItineraryService.getPriceRoundTrip(
+                                    roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                                    roundTripRequest.returnDate, roundTripRequest.toAirport, budget)
+                            : flightItineraryService.getPriceRoundTrip(
+                                    roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                                    roundTripRequest.returnDate, roundTripRequest.toAirport, sort, Integer.MAX_VALUE, budget))
+                    .map(flightItinerary -> ok(budget).body(flightItinerary))
                     .orElseGet(() -> ResponseEntity.internalServerError().build());
         } catch (Exception ex) {
             throw new ResponseStatusException(
@@ -37,16 +73,57 @@ public class AirlineController {
         }
     }
 
+    @GetMapping(value = "/priceRoundTrip", produces = CompactItineraries.MEDIA_TYPE)
+    public ResponseEntity<CompactItineraries> priceRoundTripCompact(
+            @Valid @RequestBody RoundTripRequest roundTripRequest,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getCompactItineraries(priceRoundTrip(roundTripRequest, sort));
+    }
+
+    @GetMapping(value = "/priceRoundTrip", params = "limit",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<ItineraryPage> priceRoundTripPage(@Valid @RequestBody RoundTripRequest roundTripRequest,
+            @RequestParam int limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraryPage(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceRoundTrip(
+                        roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                        roundTripRequest.returnDate, roundTripRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceRoundTrip(
+                        roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                        roundTripRequest.returnDate, roundTripRequest.toAirport, sort, offset, count, budget));
+    }
+
+    @GetMapping(value = "/priceRoundTrip", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> priceRoundTripStream(@Valid @RequestBody RoundTripRequest roundTripRequest,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraryStream(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceRoundTrip(
+                        roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                        roundTripRequest.returnDate, roundTripRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceRoundTrip(
+                        roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                        roundTripRequest.returnDate, roundTripRequest.toAirport, sort, offset, count, budget));
+    }
+
     @GetMapping("/priceWithConnections")
     public ResponseEntity<Itinerary[]> priceWithConnections(@Valid
-            @RequestBody WithConnectionsRequest withConnectionsRequest) {
+            @RequestBody WithConnectionsRequest withConnectionsRequest,
+            @RequestParam(required = false) ItinerarySort sort) {
+        SearchBudget budget = flightItineraryService.newSearchBudget();
         try {
             return Optional
-                    .ofNullable(flightItineraryService.getPriceWithConnections(
-                            withConnectionsRequest.date,
-                            withConnectionsRequest.fromAirport,
-                            withConnectionsRequest.toAirport))
-                    .map(flightItinerary -> ResponseEntity.ok().body(flightItinerary))
+                    .ofNullable(sort == null
+                            ? flightItineraryService.getPriceWithConnections(
+                                    withConnectionsRequest.date,
+                                    withConnectionsRequest.fromAirport,
+                                    withConnectionsRequest.toAirport, budget)
+                            : flightItineraryService.getPriceWithConnections(
+                                    withConnectionsRequest.date,
+                                    withConnectionsRequest.fromAirport,
+                                    withConnectionsRequest.toAirport, sort, Integer.MAX_VALUE, budget))
+                    .map(flightItinerary -> ok(budget).body(flightItinerary))
                     .orElseGet(() -> ResponseEntity.internalServerError().build());
         }catch (Exception ex){
             throw new ResponseStatusException(
@@ -54,15 +131,61 @@ public class AirlineController {
         }
     }
 
+    @GetMapping(value = "/priceWithConnections", produces = CompactItineraries.MEDIA_TYPE)
+    public ResponseEntity<CompactItineraries> priceWithConnectionsCompact(@Valid
+            @RequestBody WithConnectionsRequest withConnectionsRequest,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getCompactItineraries(priceWithConnections(withConnectionsRequest, sort));
+    }
+
+    @GetMapping(value = "/priceWithConnections", params = "limit",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<ItineraryPage> priceWithConnectionsPage(@Valid
+            @RequestBody WithConnectionsRequest withConnectionsRequest,
+            @RequestParam int limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraryPage(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceWithConnections(
+                        withConnectionsRequest.date,
+                        withConnectionsRequest.fromAirport,
+                        withConnectionsRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceWithConnections(
+                        withConnectionsRequest.date,
+                        withConnectionsRequest.fromAirport,
+                        withConnectionsRequest.toAirport, sort, offset, count, budget));
+    }
+
+    @GetMapping(value = "/priceWithConnections", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> priceWithConnectionsStream(@Valid
+            @RequestBody WithConnectionsRequest withConnectionsRequest,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraryStream(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceWithConnections(
+                        withConnectionsRequest.date,
+                        withConnectionsRequest.fromAirport,
+                        withConnectionsRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceWithConnections(
+                        withConnectionsRequest.date,
+                        withConnectionsRequest.fromAirport,
+                        withConnectionsRequest.toAirport, sort, offset, count, budget));
+    }
+
     @GetMapping("/priceAllRoundTrip")
     public ResponseEntity<Itinerary[]> priceAllRoundTrip(@Valid
-            @RequestBody AllRoundTripRequest allRoundTripRequest) {
+            @RequestBody AllRoundTripRequest allRoundTripRequest,
+            @RequestParam(required = false) ItinerarySort sort) {
+        SearchBudget budget = flightItineraryService.newSearchBudget();
         try {
             return Optional
-                    .ofNullable(flightItineraryService.getPriceAllRoundTrip(
-                            allRoundTripRequest.fromAirport,
-                            allRoundTripRequest.toAirport))
-                    .map(flightItinerary -> ResponseEntity.ok().body(flightItinerary))
+                    .ofNullable(sort == null
+                            ? flightItineraryService.getPriceAllRoundTrip(
+                                    allRoundTripRequest.fromAirport,
+                                    allRoundTripRequest.toAirport, budget)
+                            : flightItineraryService.getPriceAllRoundTrip(
+                                    allRoundTripRequest.fromAirport,
+                                    allRoundTripRequest.toAirport, sort, Integer.MAX_VALUE, budget))
+                    .map(flightItinerary -> ok(budget).body(flightItinerary))
                     .orElseGet(() -> ResponseEntity.internalServerError().build());
         }catch (Exception ex){
             throw new ResponseStatusException(
@@ -70,4 +193,171 @@ public class AirlineController {
         }
     }
 
+    @GetMapping(value = "/priceAllRoundTrip", produces = CompactItineraries.MEDIA_TYPE)
+    public ResponseEntity<CompactItineraries> priceAllRoundTripCompact(@Valid
+            @RequestBody AllRoundTripRequest allRoundTripRequest,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getCompactItineraries(priceAllRoundTrip(allRoundTripRequest, sort));
+    }
+
+    @GetMapping(value = "/priceAllRoundTrip", params = "limit",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<ItineraryPage> priceAllRoundTripPage(@Valid
+            @RequestBody AllRoundTripRequest allRoundTripRequest,
+            @RequestParam int limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraryPage(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceAllRoundTrip(
+                        allRoundTripRequest.fromAirport,
+                        allRoundTripRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceAllRoundTrip(
+                        allRoundTripRequest.fromAirport,
+                        allRoundTripRequest.toAirport, sort, offset, count, budget));
+    }
+
+    @GetMapping(value = "/priceAllRoundTrip", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> priceAllRoundTripStream(@Valid
+            @RequestBody AllRoundTripRequest allRoundTripRequest,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraryStream(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceAllRoundTrip(
+                        allRoundTripRequest.fromAirport,
+                        allRoundTripRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceAllRoundTrip(
+                        allRoundTripRequest.fromAirport,
+                        allRoundTripRequest.toAirport, sort, offset, count, budget));
+    }
+
+    /**
+     * Binds the batch request through its fields, so validation errors of the searches it maps can be reported.
+     */
+    @InitBinder("batchItineraryRequest")
+    public void initBatchItineraryRequestBinder(WebDataBinder binder) {
+        binder.initDirectFieldAccess();
+    }
+
+    @GetMapping("/priceBatch")
+    public ResponseEntity<BatchItineraries> priceBatch(@Valid @RequestBody BatchItineraryRequest batchItineraryRequest) {
+        if (batchItineraryRequest.size() == 0 || batchItineraryRequest.size() > MAXIMUM_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format(
+                    "Batch size must be between 1 and %d: %d", MAXIMUM_BATCH_SIZE, batchItineraryRequest.size()));
+        }
+        SearchBudget budget = flightItineraryService.newSearchBudget();
+        BatchItineraries batchItineraries;
+        try {
+            batchItineraries = flightItineraryService.getPriceBatch(batchItineraryRequest, budget);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+        return ok(budget).body(batchItineraries);
+    }
+
+    @GetMapping("/fareCalendar")
+    public ResponseEntity<FareCalendar> fareCalendar(@Valid @RequestBody AllRoundTripRequest allRoundTripRequest) {
+        return ResponseEntity.ok().body(flightItineraryService.getFareCalendar(
+                allRoundTripRequest.fromAirport, allRoundTripRequest.toAirport));
+    }
+
+    @GetMapping("/cacheStats")
+    public ResponseEntity<ItineraryCacheStats> cacheStats() {
+        return ResponseEntity.ok().body(flightItineraryService.getCacheStats());
+    }
+
+    private ResponseEntity<CompactItineraries> getCompactItineraries(ResponseEntity<Itinerary[]> itineraries) {
+        return ResponseEntity.status(itineraries.getStatusCode())
+                .headers(itineraries.getHeaders())
+                .body(itineraries.hasBody() ? new CompactItineraries(itineraries.getBody()) : null);
+    }
+
+    private ResponseEntity<ItineraryPage> getItineraryPage(int limit, String cursor,
+                                                           ItinerarySearch itinerariesFromOffset) {
+        long offset = getOffset(cursor);
+        validateLimit(limit);
+        SearchBudget budget = flightItineraryService.newSearchBudget();
+        try (Stream<Itinerary> itineraries = itinerariesFromOffset.search(offset, limit + 1, budget)) {
+            List<Itinerary> page = itineraries.limit(limit + 1L).collect(Collectors.toList());
+            String nextCursor = page.size() > limit ? ItineraryCursor.encode(offset + limit) : null;
+            ItineraryPage itineraryPage = new ItineraryPage(page.stream().limit(limit).toArray(Itinerary[]::new), nextCursor);
+            itineraryPage.partial = budget.isTruncated();
+            return ok(budget).body(itineraryPage);
+        } catch (Exception ex) {
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Writes the itineraries as NDJSON while they are searched, ending with a {@link SearchPartial} line when the
+     * search runs out of its budget after the response headers were sent.
+     */
+    private ResponseEntity<StreamingResponseBody> getItineraryStream(Integer limit, String cursor,
+                                                                     ItinerarySearch itinerariesFromOffset) {
+        long offset = getOffset(cursor);
+        if (limit != null) {
+            validateLimit(limit);
+        }
+        SearchBudget budget = flightItineraryService.newSearchBudget();
+        Stream<Itinerary> itineraries;
+        try {
+            itineraries = itinerariesFromOffset.search(offset, limit != null ? limit : Integer.MAX_VALUE, budget);
+        } catch (Exception ex) {
+            throw new ResponseStatusException(
+                    HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), ex);
+        }
+        Stream<Itinerary> limitedItineraries = limit != null ? itineraries.limit(limit) : itineraries;
+
+        StreamingResponseBody responseBody = outputStream -> {
+            try (Stream<Itinerary> stream = limitedItineraries;
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                Iterator<Itinerary> iterator = stream.iterator();
+                long serializationNanos = 0;
+                while (iterator.hasNext()) {
+                    Itinerary itinerary = iterator.next();
+                    long start = System.nanoTime();
+                    generator.writeObject(itinerary);
+                    generator.writeRaw('\n');
+                    serializationNanos += System.nanoTime() - start;
+                }
+                if (budget.isTruncated()) {
+                    generator.writeObject(new SearchPartial(budget.getExceededLimit()));
+                    generator.writeRaw('\n');
+                }
+                airlineMetrics.recordSerialization(Itinerary.class.getSimpleName(),
+                        MediaType.APPLICATION_NDJSON.getSubtype(), serializationNanos);
+            }
+        };
+        return ok(budget).contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
+    static ResponseEntity.BodyBuilder ok(SearchBudget budget) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (budget.isTruncated()) {
+            response.header(SEARCH_PARTIAL_HEADER, budget.getExceededLimit().name());
+        }
+        return response;
+    }
+
+    static long getOffset(String cursor) {
+        try {
+            return ItineraryCursor.decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
+    static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAXIMUM_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    String.format("Limit must be between 1 and %d: %d", MAXIMUM_PAGE_SIZE, limit));
+        }
+    }
+
+    /**
+     * Itineraries from {@code offset}; {@code count} bounds how many are read, so sorted searches rank only
+     * the first {@code offset + count}, and the search stops early once it runs out of {@code budget}.
+     */
+    interface ItinerarySearch {
+        Stream<Itinerary> search(long offset, int count, SearchBudget budget);
+    }
 }
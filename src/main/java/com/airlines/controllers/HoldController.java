@@ -0,0 +1,59 @@
+package com.airlines.controllers;
+
+import com.airlines.model.Hold;
+import com.airlines.model.HoldRequest;
+import com.airlines.services.HoldService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import javax.validation.Valid;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+@Validated
+@RestController
+@RequestMapping("/hold")
+public class HoldController {
+
+    @Autowired
+    private HoldService holdService;
+
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        binder.initDirectFieldAccess();
+    }
+
+    @PostMapping
+    public ResponseEntity<Hold> hold(@Valid @RequestBody HoldRequest holdRequest) {
+        return getHold(() -> holdService.hold(holdRequest));
+    }
+
+    @PostMapping("/{holdId}/confirm")
+    public ResponseEntity<Hold> confirm(@PathVariable String holdId) {
+        return getHold(() -> holdService.confirm(holdId));
+    }
+
+    @PostMapping("/{holdId}/release")
+    public ResponseEntity<Hold> release(@PathVariable String holdId) {
+        return getHold(() -> holdService.release(holdId));
+    }
+
+    private ResponseEntity<Hold> getHold(Supplier<Hold> holdAction) {
+        try {
+            return ResponseEntity.ok().body(holdAction.get());
+        } catch (NoSuchElementException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage(), ex);
+        }
+    }
+}
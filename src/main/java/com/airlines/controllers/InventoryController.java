@@ -0,0 +1,62 @@
+package com.airlines.controllers;
+
+import com.airlines.model.InventoryUpdateRequest;
+import com.airlines.model.InventoryUpdateResult;
+import com.airlines.services.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Validated
+@RestController
+@RequestMapping("/inventory")
+public class InventoryController {
+
+    static final int MAXIMUM_BATCH_SIZE = 1000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @PostMapping("/update")
+    public ResponseEntity<InventoryUpdateResult> update(@Valid @RequestBody InventoryUpdateRequest inventoryUpdateRequest) {
+        try {
+            return ResponseEntity.ok().body(inventoryService.update(inventoryUpdateRequest));
+        } catch (NoSuchElementException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage(), ex);
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage(), ex);
+        }
+    }
+
+    @PostMapping("/updateBatch")
+    public ResponseEntity<List<InventoryUpdateResult>> updateBatch(
+            @RequestBody List<@Valid InventoryUpdateRequest> inventoryUpdateRequests) {
+        if (inventoryUpdateRequests.isEmpty() || inventoryUpdateRequests.size() > MAXIMUM_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.format(
+                    "Batch size must be between 1 and %d: %d", MAXIMUM_BATCH_SIZE, inventoryUpdateRequests.size()));
+        }
+        return ResponseEntity.ok().body(inventoryService.updateAll(inventoryUpdateRequests));
+    }
+
+    /**
+     * Answers a batch with a request that is not valid, rejected by method validation rather than by the request
+     * body binding, as a bad request.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public void constraintViolation(ConstraintViolationException ex, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+    }
+}
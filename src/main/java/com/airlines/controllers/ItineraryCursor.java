@@ -0,0 +1,35 @@
+package com.airlines.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class ItineraryCursor {
+
+    private static final String PREFIX = "offset:";
+
+    private ItineraryCursor() {
+    }
+
+    static String encode(long offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(PREFIX)) {
+                long offset = Long.parseLong(decoded.substring(PREFIX.length()));
+                if (offset >= 0) {
+                    return offset;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            // reported below as an invalid cursor
+        }
+        throw new IllegalArgumentException(String.format("Cursor is not valid: %s", cursor));
+    }
+}
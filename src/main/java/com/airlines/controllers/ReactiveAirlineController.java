@@ -0,0 +1,98 @@
+package com.airlines.controllers;
+
+import com.airlines.model.*;
+import com.airlines.services.FlightItineraryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import javax.validation.Valid;
+
+/**
+ * The itinerary searches of {@link AirlineController} as {@link Flux} streams of NDJSON or server-sent events.
+ * The search runs on a bounded elastic worker and Spring MVC writes the itineraries asynchronously as they
+ * are emitted, so the servlet thread is released as soon as the request is validated. The response is only
+ * committed once the search has succeeded, so a failed search still answers with an error status. A stream
+ * that runs out of its budget while it is written ends with a {@link SearchPartial} element.
+ */
+@Validated
+@RestController
+@RequestMapping("/itinerary/reactive")
+public class ReactiveAirlineController {
+
+    @Autowired
+    private FlightItineraryService flightItineraryService;
+
+    @GetMapping(value = "/priceRoundTrip", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Object>>> priceRoundTrip(@Valid @RequestBody RoundTripRequest roundTripRequest,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraries(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceRoundTrip(
+                        roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                        roundTripRequest.returnDate, roundTripRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceRoundTrip(
+                        roundTripRequest.departureDate, roundTripRequest.fromAirport,
+                        roundTripRequest.returnDate, roundTripRequest.toAirport, sort, offset, count, budget));
+    }
+
+    @GetMapping(value = "/priceWithConnections", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Object>>> priceWithConnections(@Valid
+            @RequestBody WithConnectionsRequest withConnectionsRequest,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraries(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceWithConnections(
+                        withConnectionsRequest.date,
+                        withConnectionsRequest.fromAirport,
+                        withConnectionsRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceWithConnections(
+                        withConnectionsRequest.date,
+                        withConnectionsRequest.fromAirport,
+                        withConnectionsRequest.toAirport, sort, offset, count, budget));
+    }
+
+    @GetMapping(value = "/priceAllRoundTrip", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<ResponseEntity<Flux<Object>>> priceAllRoundTrip(@Valid
+            @RequestBody AllRoundTripRequest allRoundTripRequest,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) ItinerarySort sort) {
+        return getItineraries(limit, cursor, (offset, count, budget) -> sort == null
+                ? flightItineraryService.streamPriceAllRoundTrip(
+                        allRoundTripRequest.fromAirport,
+                        allRoundTripRequest.toAirport, offset, budget)
+                : flightItineraryService.streamPriceAllRoundTrip(
+                        allRoundTripRequest.fromAirport,
+                        allRoundTripRequest.toAirport, sort, offset, count, budget));
+    }
+
+    private Mono<ResponseEntity<Flux<Object>>> getItineraries(Integer limit, String cursor,
+            AirlineController.ItinerarySearch itinerariesFromOffset) {
+        long offset = AirlineController.getOffset(cursor);
+        if (limit != null) {
+            AirlineController.validateLimit(limit);
+        }
+        SearchBudget budget = flightItineraryService.newSearchBudget();
+        return Mono.fromCallable(() -> itinerariesFromOffset.search(offset, limit != null ? limit : Integer.MAX_VALUE, budget))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(itineraries -> {
+                    Flux<Object> flux = Flux.fromStream(itineraries);
+                    return AirlineController.ok(budget).body((limit != null ? flux.take(limit) : flux)
+                            .concatWith(Mono.fromSupplier(() -> budget.isTruncated()
+                                    ? new SearchPartial(budget.getExceededLimit())
+                                    : null)));
+                })
+                .onErrorMap(ex -> !(ex instanceof ResponseStatusException),
+                        ex -> new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), ex));
+    }
+}
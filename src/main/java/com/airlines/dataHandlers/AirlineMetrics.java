@@ -0,0 +1,160 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.graph.FlightGraph;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.Itinerary;
+import com.airlines.model.SearchBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters of the itinerary search stages and of the CSV ingestion stages.
+ * <p>
+ * Search meters are tagged with the search type and the city pair, so a stage that is slow, or a search
+ * that examines far more candidate pairs than it returns, can be traced to its route. Only city pairs with a flight
+ * between them in the loaded schedule get their own tag; searches for any other pair share the {@value #OTHER_ROUTE}
+ * route, so the routes tagged are bounded by the routes flown and requests cannot create meters of their own. Stage
+ * timers publish a few fixed histogram buckets rather than percentile histograms, which would multiply by every route.
+ */
+@Component
+public class AirlineMetrics {
+
+    public static final String SEARCH_PREFIX = "itinerary.search";
+    public static final String SEARCH_STAGE = SEARCH_PREFIX + ".stage";
+    public static final String SEARCH_CANDIDATE_PAIRS = SEARCH_PREFIX + ".candidate.pairs";
+    public static final String SEARCH_ITINERARIES = SEARCH_PREFIX + ".itineraries";
+    public static final String SEARCH_TRUNCATED = SEARCH_PREFIX + ".truncated";
+    public static final String SEARCH_REQUESTS = SEARCH_PREFIX + ".requests";
+    public static final String SERIALIZATION = "itinerary.serialization";
+    public static final String INGESTION_STAGE = "ingestion.stage";
+    public static final String INGESTION_ROWS = "ingestion.rows";
+    public static final String INGESTION_THROUGHPUT = "ingestion.throughput";
+
+    static final String OTHER_ROUTE = "other";
+    static final String REPOSITORY = "repository";
+    static final String CANDIDATES = "candidates";
+    static final String PAIRS = "pairs";
+
+    private static final Duration[] STAGE_BUCKETS = {Duration.ofMillis(1), Duration.ofMillis(10),
+            Duration.ofMillis(100), Duration.ofSeconds(1), Duration.ofSeconds(10)};
+
+    private final MeterRegistry meterRegistry;
+    private final FlightGraphProvider flightGraphProvider;
+    private final Map<String, AtomicLong> ingestionThroughput = new ConcurrentHashMap<>();
+
+    public AirlineMetrics(MeterRegistry meterRegistry, FlightGraphProvider flightGraphProvider) {
+        this.meterRegistry = meterRegistry;
+        this.flightGraphProvider = flightGraphProvider;
+    }
+
+    public Search search(String type, String fromAirport, String toAirport) {
+        return new Search(Tags.of("type", type, "route", getRoute(fromAirport, toAirport)));
+    }
+
+    /**
+     * Counts a search request of {@code type}, and whether it shared the result of an identical search in flight.
+     */
+    public void recordSearchRequest(String type, boolean coalesced) {
+        meterRegistry.counter(SEARCH_REQUESTS, "type", type, "coalesced", String.valueOf(coalesced)).increment();
+    }
+
+    /**
+     * Records how long writing a response body of class {@code body} in {@code format} took.
+     */
+    public void recordSerialization(String body, String format, long elapsedNanos) {
+        meterRegistry.timer(SERIALIZATION, "body", body, "format", format).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records how long an ingestion stage took for {@code rows} rows, and its rows per second as a gauge.
+     */
+    public void recordIngestion(String stage, long rows, long elapsedNanos) {
+        Tags tags = Tags.of("stage", stage);
+        meterRegistry.timer(INGESTION_STAGE, tags).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter(INGESTION_ROWS, tags).increment(rows);
+        ingestionThroughput.computeIfAbsent(stage,
+                        key -> meterRegistry.gauge(INGESTION_THROUGHPUT, tags, new AtomicLong()))
+                .set(elapsedNanos == 0 ? rows : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+    }
+
+    private String getRoute(String fromAirport, String toAirport) {
+        FlightGraph flightGraph = flightGraphProvider.getFlightGraph();
+        return flightGraph.hasRoute(fromAirport, toAirport) || flightGraph.hasRoute(toAirport, fromAirport)
+                ? fromAirport + "-" + toAirport
+                : OTHER_ROUTE;
+    }
+
+    /**
+     * The meters of one search type and city pair.
+     */
+    public final class Search {
+
+        private final Tags tags;
+
+        private Search(Tags tags) {
+            this.tags = tags;
+        }
+
+        public <T> T time(String stage, Supplier<T> supplier) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                return supplier.get();
+            } finally {
+                sample.stop(getStageTimer(stage));
+            }
+        }
+
+        public void time(String stage, Runnable runnable) {
+            time(stage, () -> {
+                runnable.run();
+                return null;
+            });
+        }
+
+        public void addCandidatePairs(long candidatePairs) {
+            meterRegistry.counter(SEARCH_CANDIDATE_PAIRS, tags).increment(candidatePairs);
+        }
+
+        public void addItineraries(long itineraries) {
+            meterRegistry.counter(SEARCH_ITINERARIES, tags).increment(itineraries);
+        }
+
+        /**
+         * Counts the search as truncated, tagged with the limit that stopped it, if {@code budget} ran out.
+         */
+        public void recordTruncation(SearchBudget budget) {
+            if (budget.isTruncated()) {
+                meterRegistry.counter(SEARCH_TRUNCATED, tags.and("limit", budget.getExceededLimit().name())).increment();
+            }
+        }
+
+        /**
+         * Counts every itinerary handed to {@code itineraries}.
+         */
+        public Consumer<Itinerary> counting(Consumer<Itinerary> itineraries) {
+            Counter counter = meterRegistry.counter(SEARCH_ITINERARIES, tags);
+            return itinerary -> {
+                counter.increment();
+                itineraries.accept(itinerary);
+            };
+        }
+
+        private Timer getStageTimer(String stage) {
+            return Timer.builder(SEARCH_STAGE)
+                    .tags(tags)
+                    .tag("stage", stage)
+                    .serviceLevelObjectives(STAGE_BUCKETS)
+                    .register(meterRegistry);
+        }
+    }
+}
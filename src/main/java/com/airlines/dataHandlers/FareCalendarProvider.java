@@ -0,0 +1,116 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.FareCalendar;
+import com.airlines.model.FareCalendarEntry;
+import com.airlines.model.Flight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fare calendars of every city pair served in both directions, built in the background.
+ * <p>
+ * Loading the flights marks every city pair as changed and the scheduled rebuild builds their calendars;
+ * a city pair requested before its calendar was built is built on the spot. A change to the seats or
+ * price of a flight marks the two city pairs it belongs to, and only those are rebuilt on the next run.
+ * Every calendar is kept as the {@link FareCalendar} it is served as, built once with its city pair, so serving
+ * it does not walk the fare matrix again; the calendars served are shared and must not be modified.
+ */
+@Component
+public class FareCalendarProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(FareCalendarProvider.class);
+
+    @Autowired
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+
+    private volatile Map<String, List<Flight>> flightsByRoute = Map.of();
+    private final Map<String, FareCalendar> calendars = new ConcurrentHashMap<>();
+    private final Set<String> changedRoutes = ConcurrentHashMap.newKeySet();
+
+    public FareCalendarProvider(FlightInventoryConfiguration flightInventoryConfiguration) {
+        this.flightInventoryConfiguration = flightInventoryConfiguration;
+    }
+
+    public void load(List<Flight> flights) {
+        Map<String, List<Flight>> loadedFlightsByRoute = new HashMap<>();
+        for (Flight flight : flights) {
+            loadedFlightsByRoute.computeIfAbsent(getRoute(flight.fromAirport, flight.toAirport), route -> new ArrayList<>())
+                    .add(flight);
+        }
+        flightsByRoute = loadedFlightsByRoute;
+        calendars.clear();
+        changedRoutes.clear();
+        for (Flight flight : flights) {
+            if (isServedBothWays(flight.fromAirport, flight.toAirport)) {
+                changedRoutes.add(getRoute(flight.fromAirport, flight.toAirport));
+            }
+        }
+    }
+
+    public FareCalendar getCalendar(String fromAirport, String toAirport) {
+        if (!isServedBothWays(fromAirport, toAirport)) {
+            return new FareCalendar(fromAirport, toAirport, new FareCalendarEntry[0]);
+        }
+        String route = getRoute(fromAirport, toAirport);
+        FareCalendar calendar = calendars.get(route);
+        if (calendar == null) {
+            calendar = build(fromAirport, toAirport);
+            FareCalendar builtMeanwhile = calendars.putIfAbsent(route, calendar);
+            return builtMeanwhile != null ? builtMeanwhile : calendar;
+        }
+        return calendar;
+    }
+
+    public void onFlightChanged(Flight flight) {
+        if (isServedBothWays(flight.fromAirport, flight.toAirport)) {
+            changedRoutes.add(getRoute(flight.fromAirport, flight.toAirport));
+            changedRoutes.add(getRoute(flight.toAirport, flight.fromAirport));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${farecalendarrebuildmillis}")
+    public synchronized int rebuildChanged() {
+        long start = System.nanoTime();
+        int rebuilt = 0;
+        Iterator<String> iterator = changedRoutes.iterator();
+        while (iterator.hasNext()) {
+            String route = iterator.next();
+            iterator.remove();
+            String[] airports = route.split("\\|");
+            calendars.put(route, build(airports[0], airports[1]));
+            rebuilt++;
+        }
+        if (rebuilt > 0) {
+            logger.info("Rebuilt {} fare calendars in {} ms", rebuilt,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return rebuilt;
+    }
+
+    private FareCalendar build(String fromAirport, String toAirport) {
+        Map<String, List<Flight>> routes = flightsByRoute;
+        return RouteFareCalendar.build(
+                routes.getOrDefault(getRoute(fromAirport, toAirport), List.of()),
+                routes.getOrDefault(getRoute(toAirport, fromAirport), List.of()),
+                flightInventoryConfiguration.getMinimumDaysForRoundTrip(),
+                flightInventoryConfiguration.getFareCalendarMaximumStayDays(),
+                flightInventoryConfiguration.getMinimumAvailableSeats())
+                .toFareCalendar(fromAirport, toAirport);
+    }
+
+    private boolean isServedBothWays(String fromAirport, String toAirport) {
+        Map<String, List<Flight>> routes = flightsByRoute;
+        return routes.containsKey(getRoute(fromAirport, toAirport)) && routes.containsKey(getRoute(toAirport, fromAirport));
+    }
+
+    private static String getRoute(String fromAirport, String toAirport) {
+        return fromAirport + "|" + toAirport;
+    }
+}
@@ -1,14 +1,22 @@
 package com.airlines.dataHandlers;
 
 import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.graph.ConnectionSearch;
+import com.airlines.graph.FlightGraph;
+import com.airlines.graph.FlightGraphProvider;
 import com.airlines.model.Flight;
 import com.airlines.model.Itinerary;
+import com.airlines.model.ItinerarySort;
+import com.airlines.model.SearchBudget;
 import com.airlines.repositories.FlightsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @Component
 public class FlightsAnalysis {
@@ -19,38 +27,261 @@ public class FlightsAnalysis {
     @Autowired
     private FlightInventoryConfiguration flightInventoryConfiguration;
 
-    public FlightsAnalysis(FlightsRepository flightsRepository, FlightInventoryConfiguration flightInventoryConfiguration) {
+    @Autowired
+    private FlightGraphProvider flightGraphProvider;
+
+    @Autowired
+    private AirlineMetrics airlineMetrics;
+
+    @Autowired
+    private ParallelSearch parallelSearch;
+
+    public FlightsAnalysis(FlightsRepository flightsRepository, FlightInventoryConfiguration flightInventoryConfiguration,
+                           FlightGraphProvider flightGraphProvider, AirlineMetrics airlineMetrics,
+                           ParallelSearch parallelSearch) {
         this.flightsRepository = flightsRepository;
         this.flightInventoryConfiguration = flightInventoryConfiguration;
+        this.flightGraphProvider = flightGraphProvider;
+        this.airlineMetrics = airlineMetrics;
+        this.parallelSearch = parallelSearch;
+    }
+
+    /**
+     * A budget with the configured per-request search limits, its deadline starting now.
+     */
+    public SearchBudget newSearchBudget() {
+        return new SearchBudget(flightInventoryConfiguration.getSearchMaximumCandidatePairs(),
+                flightInventoryConfiguration.getSearchMaximumItineraries(),
+                flightInventoryConfiguration.getSearchDeadlineMillis());
+    }
+
+    /**
+     * A fresh memo of the flights departing from each date and airport, for one batch of searches.
+     */
+    public OriginFlights newOriginFlights() {
+        int minimumAvailableSeats = flightInventoryConfiguration.getMinimumAvailableSeats();
+        if (flightInventoryConfiguration.isFlightGraphEnabled()) {
+            FlightGraph flightGraph = flightGraphProvider.getFlightGraph();
+            return new OriginFlights((date, fromAirport) ->
+                    flightGraph.getDepartures(date, fromAirport, minimumAvailableSeats));
+        }
+        return new OriginFlights((date, fromAirport) -> flightsRepository
+                .findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual(date, fromAirport, minimumAvailableSeats));
     }
 
     public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport) {
+        return getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, SearchBudget.unlimited());
+    }
 
-        List<Flight> departureAndReturnFlights =
-                getDepartureAndReturnFlights(departureDate, fromAirport, returnDate, toAirport);
+    public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                         SearchBudget budget) {
+        List<Itinerary> itineraries = new ArrayList<>();
+        searchRoundTrip(departureDate, fromAirport, returnDate, toAirport, budget, itineraries::add);
+        return itineraries.toArray(new Itinerary[itineraries.size()]);
+    }
 
-        if (departureAndReturnFlights.size() > 0) {
+    public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                         ItinerarySort sort, int limit) {
+        return getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, sort, limit, SearchBudget.unlimited());
+    }
 
-            List<Itinerary> itineraries =
-                    getDepartureAndReturnFlights(departureAndReturnFlights, departureDate, fromAirport, returnDate, toAirport);
+    /**
+     * The round trip itineraries of a batch search, its departure and return flights taken from {@code originFlights}.
+     */
+    public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                         SearchBudget budget, OriginFlights originFlights) {
+        AirlineMetrics.Search search = airlineMetrics.search("roundTrip", fromAirport, toAirport);
+        List<Flight> departureFlights = search.time(getFlightSourceStage(),
+                () -> getRouteFlights(originFlights.get(departureDate, fromAirport), fromAirport, toAirport));
+        List<Flight> returnFlights = search.time(getFlightSourceStage(),
+                () -> getRouteFlights(originFlights.get(returnDate, toAirport), toAirport, fromAirport));
 
-            return itineraries.toArray(new Itinerary[itineraries.size()]);
-        } else {
-            return new Itinerary[]{};
-        }
+        List<Itinerary> itineraries = new ArrayList<>();
+        searchRoundTrip(departureFlights, returnFlights, search, budget, itineraries::add);
+        search.recordTruncation(budget);
+        return itineraries.toArray(new Itinerary[itineraries.size()]);
     }
 
-    private List<Itinerary> getDepartureAndReturnFlights(List<Flight> departureAndReturnFlights, String departureDate, String fromAirport, String returnDate, String toAirport) {
+    /**
+     * The first {@code limit} round trip itineraries in {@code sort} order, ranked while they are generated.
+     */
+    public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                         ItinerarySort sort, int limit, SearchBudget budget) {
+        TopItineraries topItineraries = new TopItineraries(sort.comparator(), limit);
+        searchRoundTrip(departureDate, fromAirport, returnDate, toAirport, budget, topItineraries);
+        return topItineraries.toArray();
+    }
 
+    /**
+     * The round trip itineraries from {@code offset}, generated lazily while they are read: every departure flight
+     * pairs with every return flight, so any position is reached without generating the pairs before it. The stream
+     * ends once {@code budget} runs out.
+     */
+    public Stream<Itinerary> streamPriceRoundTrip(String departureDate, String fromAirport, String returnDate,
+                                                  String toAirport, long offset, SearchBudget budget) {
+        AirlineMetrics.Search search = airlineMetrics.search("roundTrip", fromAirport, toAirport);
+        List<Flight> departureAndReturnFlights = search.time(getFlightSourceStage(),
+                () -> getDepartureAndReturnFlights(departureDate, fromAirport, returnDate, toAirport));
         List<Flight> departureFlights = getDepartureFlights(departureAndReturnFlights, departureDate, fromAirport, toAirport);
-        List<Flight>  returnFlights = getDepartureFlights(departureAndReturnFlights, returnDate, toAirport, fromAirport);
+        List<Flight> returnFlights = getDepartureFlights(departureAndReturnFlights, returnDate, toAirport, fromAirport);
+
+        long pairs = (long) departureFlights.size() * returnFlights.size();
+        return readWithinBudget(LongStream.range(Math.max(0, Math.min(offset, pairs)), pairs)
+                .mapToObj(pair -> new Itinerary(departureFlights.get((int) (pair / returnFlights.size())),
+                        returnFlights.get((int) (pair % returnFlights.size())))), search, budget);
+    }
+
+    /**
+     * The round trips of {@code roundTripItineraries} from {@code offset}, generated lazily while they are read
+     * until {@code budget} runs out.
+     */
+    public Stream<Itinerary> streamPriceAllRoundTrip(String fromAirport, String toAirport,
+                                                     RoundTripItineraries roundTripItineraries, long offset,
+                                                     SearchBudget budget) {
+        return readWithinBudget(roundTripItineraries.stream(offset),
+                airlineMetrics.search("allRoundTrip", fromAirport, toAirport), budget);
+    }
+
+    /**
+     * The itineraries with connections from {@code offset}, enumerated lazily while they are read. Unlike the
+     * round trips, the itineraries before {@code offset} are enumerated to be skipped, but none of them is kept and
+     * the candidates after the last itinerary read are never examined. The stream ends once {@code budget} runs out.
+     */
+    public Stream<Itinerary> streamPriceWithConnections(String date, String fromAirport, String toAirport, long offset,
+                                                        SearchBudget budget) {
+        AirlineMetrics.Search search = airlineMetrics.search("connections", fromAirport, toAirport);
+        if (flightInventoryConfiguration.isFlightGraphEnabled()) {
+            return streamConnections(getConnectionSearch(flightGraphProvider.getFlightGraph()),
+                    date, fromAirport, toAirport, search, budget).skip(offset);
+        }
 
-        if(departureFlights.size() > 0 && returnFlights.size() > 0) {
-           return departureFlights.stream().flatMap(departureFlight ->
-                    returnFlights.stream().map(returnFlight ->
-                            new Itinerary(departureFlight, returnFlight))).collect(Collectors.toList());
+        List<Flight> flightsFromOrigin = search.time(AirlineMetrics.REPOSITORY,
+                () -> newOriginFlights().get(date, fromAirport));
+        if (flightsFromOrigin.isEmpty()) {
+            return Stream.empty();
         }
-        return new ArrayList<>();
+        if (flightInventoryConfiguration.getMaximumConnections() > 1) {
+            FlightGraph candidateGraph = getCandidateGraph(flightsFromOrigin, toAirport, search);
+            return streamConnections(getConnectionSearch(candidateGraph),
+                    date, fromAirport, toAirport, search, budget).skip(offset);
+        }
+
+        List<Flight> connectionFlights = getConnectionFlights(flightsFromOrigin, toAirport, search);
+        int waitingTimeBetweenFlights = flightInventoryConfiguration.getWaitingTimeBetweenFlights();
+        return searchWithinBudget(Stream.concat(
+                        flightsFromOrigin.stream()
+                                .map(flight -> flight.toAirport.equals(toAirport) ? new Itinerary(flight) : null),
+                        flightsFromOrigin.stream()
+                                .flatMap(departureFlight -> connectionFlights.stream()
+                                        .map(connectionFlight -> isConnectionFlight(toAirport, departureFlight,
+                                                connectionFlight, waitingTimeBetweenFlights)
+                                                ? new Itinerary(departureFlight, connectionFlight)
+                                                : null))),
+                search, budget).skip(offset);
+    }
+
+    /**
+     * The itineraries of {@code connectionSearch}, which charges them to {@code budget} itself; they are counted
+     * when the stream is closed.
+     */
+    private static Stream<Itinerary> streamConnections(ConnectionSearch connectionSearch, String date,
+                                                       String fromAirport, String toAirport,
+                                                       AirlineMetrics.Search search, SearchBudget budget) {
+        long[] readItineraries = {0};
+        return connectionSearch.stream(date, fromAirport, toAirport, budget)
+                .peek(itinerary -> readItineraries[0]++)
+                .onClose(() -> {
+                    search.addCandidatePairs(connectionSearch.getExaminedConnections());
+                    search.addItineraries(readItineraries[0]);
+                    search.recordTruncation(budget);
+                });
+    }
+
+    /**
+     * Ends {@code itineraries} once {@code budget} runs out, each one read being examined and emitted against it;
+     * the itineraries read are counted when the stream is closed.
+     */
+    private static Stream<Itinerary> readWithinBudget(Stream<Itinerary> itineraries, AirlineMetrics.Search search,
+                                                      SearchBudget budget) {
+        long[] readItineraries = {0};
+        return itineraries
+                .takeWhile(itinerary -> budget.tryExamine(1) && budget.tryEmit())
+                .peek(itinerary -> readItineraries[0]++)
+                .onClose(() -> {
+                    search.addCandidatePairs(readItineraries[0]);
+                    search.addItineraries(readItineraries[0]);
+                    search.recordTruncation(budget);
+                });
+    }
+
+    /**
+     * Ends {@code candidates} once {@code budget} runs out, each one read being examined against it and each
+     * itinerary among them, the candidates not mapped to {@code null}, emitted against it; the candidates and
+     * itineraries read are counted when the stream is closed.
+     */
+    private static Stream<Itinerary> searchWithinBudget(Stream<Itinerary> candidates, AirlineMetrics.Search search,
+                                                        SearchBudget budget) {
+        long[] readCandidates = {0};
+        long[] readItineraries = {0};
+        return candidates
+                .takeWhile(itinerary -> budget.tryExamine(1))
+                .peek(itinerary -> readCandidates[0]++)
+                .filter(Objects::nonNull)
+                .takeWhile(itinerary -> budget.tryEmit())
+                .peek(itinerary -> readItineraries[0]++)
+                .onClose(() -> {
+                    search.addCandidatePairs(readCandidates[0]);
+                    search.addItineraries(readItineraries[0]);
+                    search.recordTruncation(budget);
+                });
+    }
+
+    private void searchRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                 SearchBudget budget, Consumer<Itinerary> itineraries) {
+
+        AirlineMetrics.Search search = airlineMetrics.search("roundTrip", fromAirport, toAirport);
+        List<Flight> departureAndReturnFlights = search.time(getFlightSourceStage(),
+                () -> getDepartureAndReturnFlights(departureDate, fromAirport, returnDate, toAirport));
+
+        if (departureAndReturnFlights.size() > 0) {
+
+            List<Flight> departureFlights = getDepartureFlights(departureAndReturnFlights, departureDate, fromAirport, toAirport);
+            List<Flight> returnFlights = getDepartureFlights(departureAndReturnFlights, returnDate, toAirport, fromAirport);
+
+            searchRoundTrip(departureFlights, returnFlights, search, budget, itineraries);
+        }
+        search.recordTruncation(budget);
+    }
+
+    private void searchRoundTrip(List<Flight> departureFlights, List<Flight> returnFlights,
+                                 AirlineMetrics.Search search, SearchBudget budget, Consumer<Itinerary> itineraries) {
+        long candidatePairs = (long) departureFlights.size() * returnFlights.size();
+        search.addCandidatePairs(candidatePairs);
+        search.time(AirlineMetrics.PAIRS, () -> parallelSearch.search(departureFlights.size(), candidatePairs, budget,
+                (from, to, chunkBudget, chunkItineraries) -> {
+                    for (Flight departureFlight : departureFlights.subList((int) from, (int) to)) {
+                        if (!chunkBudget.tryExamine(returnFlights.size())) {
+                            return;
+                        }
+                        for (Flight returnFlight : returnFlights) {
+                            if (!chunkBudget.tryEmit()) {
+                                return;
+                            }
+                            chunkItineraries.accept(new Itinerary(departureFlight, returnFlight));
+                        }
+                    }
+                }, getRanking(itineraries), search.counting(itineraries)));
+    }
+
+    /**
+     * The ranking {@code itineraries} keeps the top of, or {@code null} if it keeps every itinerary.
+     */
+    private static TopItineraries getRanking(Consumer<Itinerary> itineraries) {
+        return itineraries instanceof TopItineraries ? (TopItineraries) itineraries : null;
+    }
+
+    private String getFlightSourceStage() {
+        return flightInventoryConfiguration.isFlightGraphEnabled() ? AirlineMetrics.CANDIDATES : AirlineMetrics.REPOSITORY;
     }
 
     private List<Flight> getDepartureFlights(List<Flight> departureAndReturnFlights,
@@ -66,6 +297,14 @@ public class FlightsAnalysis {
 
     private List<Flight> getDepartureAndReturnFlights(String departureDate, String fromAirport, String returnDate, String toAirport) {
 
+        if (flightInventoryConfiguration.isFlightGraphEnabled()) {
+            FlightGraph flightGraph = flightGraphProvider.getFlightGraph();
+            int minimumAvailableSeats = flightInventoryConfiguration.getMinimumAvailableSeats();
+            List<Flight> flights = flightGraph.getDepartures(departureDate, fromAirport, toAirport, minimumAvailableSeats);
+            flights.addAll(flightGraph.getDepartures(returnDate, toAirport, fromAirport, minimumAvailableSeats));
+            return flights;
+        }
+
         String[] dates = new String[]{departureDate, returnDate};
         String[] destinations = new String[]{fromAirport, toAirport};
 
@@ -75,188 +314,307 @@ public class FlightsAnalysis {
 
 
     public Itinerary[] getPriceWithConnections(String date, String fromAirport, String toAirport) {
+        return getPriceWithConnections(date, fromAirport, toAirport, SearchBudget.unlimited());
+    }
 
+    public Itinerary[] getPriceWithConnections(String date, String fromAirport, String toAirport, SearchBudget budget) {
+        return getPriceWithConnections(date, fromAirport, toAirport, budget, newOriginFlights());
+    }
+
+    /**
+     * The itineraries with connections of a batch search, its flights from the origin taken from {@code originFlights}.
+     */
+    public Itinerary[] getPriceWithConnections(String date, String fromAirport, String toAirport, SearchBudget budget,
+                                               OriginFlights originFlights) {
         List<Itinerary> itineraries = new ArrayList<>();
+        searchWithConnections(date, fromAirport, toAirport, budget, originFlights, itineraries::add);
+        return itineraries.toArray(new Itinerary[itineraries.size()]);
+    }
+
+    public Itinerary[] getPriceWithConnections(String date, String fromAirport, String toAirport,
+                                               ItinerarySort sort, int limit) {
+        return getPriceWithConnections(date, fromAirport, toAirport, sort, limit, SearchBudget.unlimited());
+    }
+
+    /**
+     * The first {@code limit} itineraries with connections in {@code sort} order, ranked while they are generated.
+     */
+    public Itinerary[] getPriceWithConnections(String date, String fromAirport, String toAirport,
+                                               ItinerarySort sort, int limit, SearchBudget budget) {
+        TopItineraries topItineraries = new TopItineraries(sort.comparator(), limit);
+        searchWithConnections(date, fromAirport, toAirport, budget, newOriginFlights(), topItineraries);
+        return topItineraries.toArray();
+    }
+
+    private void searchWithConnections(String date, String fromAirport, String toAirport, SearchBudget budget,
+                                       OriginFlights originFlights, Consumer<Itinerary> itineraries) {
+        AirlineMetrics.Search search = airlineMetrics.search("connections", fromAirport, toAirport);
+        searchWithConnections(date, fromAirport, toAirport, search, budget, originFlights, itineraries);
+        search.recordTruncation(budget);
+    }
 
-        List<Flight> flightsFromOrigin = flightsRepository.findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual(date, fromAirport, flightInventoryConfiguration.getMinimumAvailableSeats());
+    private void searchWithConnections(String date, String fromAirport, String toAirport,
+                                       AirlineMetrics.Search search, SearchBudget budget,
+                                       OriginFlights originFlights, Consumer<Itinerary> itineraries) {
+
+        if (flightInventoryConfiguration.isFlightGraphEnabled()) {
+            searchConnections(getConnectionSearch(flightGraphProvider.getFlightGraph()),
+                    date, fromAirport, toAirport, search, budget, itineraries);
+            return;
+        }
+
+        List<Flight> flightsFromOrigin = search.time(AirlineMetrics.REPOSITORY, () -> originFlights.get(date, fromAirport));
 
         if(flightsFromOrigin.size() > 0 ) {
 
-            itineraries.addAll(getDirectFlights(flightsFromOrigin, toAirport));
-            itineraries.addAll(getConnectionFlights(flightsFromOrigin, toAirport));
+            if (flightInventoryConfiguration.getMaximumConnections() > 1) {
+                searchMultiConnectionFlights(flightsFromOrigin, date, fromAirport, toAirport, search, budget, itineraries);
+            } else {
+                searchDirectFlights(flightsFromOrigin, toAirport, search, budget, itineraries);
+                searchConnectionFlights(flightsFromOrigin, toAirport, search, budget, itineraries);
+            }
 
         }
+    }
 
-        return itineraries.toArray(new Itinerary[itineraries.size()]);
+    private void searchConnections(ConnectionSearch connectionSearch, String date, String fromAirport, String toAirport,
+                                   AirlineMetrics.Search search, SearchBudget budget, Consumer<Itinerary> itineraries) {
+        search.time(AirlineMetrics.PAIRS, () -> connectionSearch.search(date, fromAirport, toAirport,
+                search.counting(itineraries), budget));
+        search.addCandidatePairs(connectionSearch.getExaminedConnections());
     }
 
-    private List<Itinerary> getDirectFlights(List<Flight> flightsFromOrigin, String toAirport) {
-        return flightsFromOrigin.stream()
-                .filter(flight -> flight.toAirport.equals(toAirport))
-                .map(Itinerary::new)
-                .collect(Collectors.toList());
+    private ConnectionSearch getConnectionSearch(FlightGraph flightGraph) {
+        return new ConnectionSearch(flightGraph,
+                flightInventoryConfiguration.getMaximumConnections(),
+                flightInventoryConfiguration.getWaitingTimeBetweenFlights(),
+                flightInventoryConfiguration.getMinimumAvailableSeats());
+    }
+
+    private void searchMultiConnectionFlights(List<Flight> flightsFromOrigin, String date, String fromAirport, String toAirport,
+                                              AirlineMetrics.Search search, SearchBudget budget,
+                                              Consumer<Itinerary> itineraries) {
+        FlightGraph candidateGraph = getCandidateGraph(flightsFromOrigin, toAirport, search);
+        searchConnections(getConnectionSearch(candidateGraph), date, fromAirport, toAirport, search, budget, itineraries);
     }
 
-    private List<Itinerary> getConnectionFlights(List<Flight> flightsFromOrigin, String toAirport) {
+    /**
+     * The graph of the flights that may be legs of an itinerary from {@code flightsFromOrigin} to {@code toAirport},
+     * fetched one connection at a time.
+     */
+    private FlightGraph getCandidateGraph(List<Flight> flightsFromOrigin, String toAirport, AirlineMetrics.Search search) {
+        Map<String, Flight> candidateFlights = new LinkedHashMap<>();
+        flightsFromOrigin.forEach(flight -> candidateFlights.put(flight.flightNumber + "|" + flight.date, flight));
+
+        List<Flight> legFlights = flightsFromOrigin;
+        for (int connection = 0; connection < flightInventoryConfiguration.getMaximumConnections() && legFlights.size() > 0; connection++) {
+
+            Date earlyDate = getEarlyDateTimeFlightBound(legFlights, toAirport);
+            Date lateDate = getLateDateTimeFlightBound(legFlights, toAirport);
+            if (earlyDate == null || lateDate == null) {
+                break;
+            }
+
+            legFlights = search.time(AirlineMetrics.REPOSITORY, () -> flightsRepository
+                            .findByDateTimeUTCBetweenAndAvailableSeatsGreaterThanEqual(
+                                    earlyDate, lateDate, flightInventoryConfiguration.getMinimumAvailableSeats()))
+                    .stream()
+                    .filter(flight -> candidateFlights.putIfAbsent(flight.flightNumber + "|" + flight.date, flight) == null)
+                    .collect(Collectors.toList());
+        }
 
-        Date earlyDate = getEarlyDateTimeFlightBound(flightsFromOrigin, toAirport);
-        Date lateDate = getLateDateTimeFlightBound(flightsFromOrigin, toAirport);
+        return search.time(AirlineMetrics.CANDIDATES,
+                () -> FlightGraph.build(new ArrayList<>(candidateFlights.values())));
+    }
 
-        if(earlyDate != null && lateDate != null) {
-
-            List<Flight> connectionFlights = flightsRepository
-                    .findByDateTimeUTCBetweenAndToAirportAndAvailableSeatsGreaterThanEqual(
-                            earlyDate, lateDate, toAirport,
-                            flightInventoryConfiguration.getMinimumAvailableSeats());
-
-            return flightsFromOrigin.stream()
-                    .flatMap(departureFlight -> connectionFlights.stream()
-                            .map(returnFlight ->
-                                    (isConnectionFlight(toAirport, departureFlight, returnFlight)) ?
-                                            new Itinerary(departureFlight, returnFlight)
-                                            : null))
-                    .filter(Objects::nonNull).collect(Collectors.toList());
-        }else{
-            return new ArrayList<>();
+    private void searchDirectFlights(List<Flight> flightsFromOrigin, String toAirport,
+                                     AirlineMetrics.Search search, SearchBudget budget,
+                                     Consumer<Itinerary> itineraries) {
+        search.addCandidatePairs(flightsFromOrigin.size());
+        if (!budget.tryExamine(flightsFromOrigin.size())) {
+            return;
+        }
+        Consumer<Itinerary> countedItineraries = search.counting(itineraries);
+        for (Flight flight : flightsFromOrigin) {
+            if (flight.toAirport.equals(toAirport)) {
+                if (!budget.tryEmit()) {
+                    return;
+                }
+                countedItineraries.accept(new Itinerary(flight));
+            }
         }
     }
 
-    private Date getEndDateWithWaitFactor(Date startDateWithDuration) {
-        return Date.from(startDateWithDuration.toInstant()
-                .plus(Duration.ofMinutes(flightInventoryConfiguration.getWaitingTimeBetweenFlights())));
+    private void searchConnectionFlights(List<Flight> flightsFromOrigin, String toAirport,
+                                         AirlineMetrics.Search search, SearchBudget budget,
+                                         Consumer<Itinerary> itineraries) {
+
+        List<Flight> connectionFlights = getConnectionFlights(flightsFromOrigin, toAirport, search);
+
+        if (connectionFlights.size() > 0) {
+
+            int waitingTimeBetweenFlights = flightInventoryConfiguration.getWaitingTimeBetweenFlights();
+            long candidatePairs = (long) flightsFromOrigin.size() * connectionFlights.size();
+            search.addCandidatePairs(candidatePairs);
+            search.time(AirlineMetrics.PAIRS, () -> parallelSearch.search(flightsFromOrigin.size(), candidatePairs, budget,
+                    (from, to, chunkBudget, chunkItineraries) -> {
+                        for (Flight departureFlight : flightsFromOrigin.subList((int) from, (int) to)) {
+                            if (!chunkBudget.tryExamine(connectionFlights.size())) {
+                                return;
+                            }
+                            for (Flight connectionFlight : connectionFlights) {
+                                if (isConnectionFlight(toAirport, departureFlight, connectionFlight, waitingTimeBetweenFlights)) {
+                                    if (!chunkBudget.tryEmit()) {
+                                        return;
+                                    }
+                                    chunkItineraries.accept(new Itinerary(departureFlight, connectionFlight));
+                                }
+                            }
+                        }
+                    }, getRanking(itineraries), search.counting(itineraries)));
+        }
     }
 
-    private Date getStartDateWithDuration(Flight departureFlight) {
-        return Date.from(departureFlight.dateTimeUTC.toInstant()
-                .plus(Duration.ofMinutes(departureFlight.duration)));
+    /**
+     * The flights to {@code toAirport} that may connect with {@code flightsFromOrigin}.
+     */
+    private List<Flight> getConnectionFlights(List<Flight> flightsFromOrigin, String toAirport,
+                                              AirlineMetrics.Search search) {
+        Date earlyDate = getEarlyDateTimeFlightBound(flightsFromOrigin, toAirport);
+        Date lateDate = getLateDateTimeFlightBound(flightsFromOrigin, toAirport);
+        if (earlyDate == null || lateDate == null) {
+            return Collections.emptyList();
+        }
+        return search.time(AirlineMetrics.REPOSITORY, () -> flightsRepository
+                .findByDateTimeUTCBetweenAndToAirportAndAvailableSeatsGreaterThanEqual(
+                        earlyDate, lateDate, toAirport,
+                        flightInventoryConfiguration.getMinimumAvailableSeats()));
     }
 
-    private boolean isConnectionFlight(String toAirport, Flight departureFlight, Flight returnFlight) {
-        Date startDateWithDuration = getStartDateWithDuration(departureFlight);
-        Date endDateWithWaitFactor = getEndDateWithWaitFactor(startDateWithDuration);
-        return returnFlight.dateTimeUTC.compareTo(startDateWithDuration) >= 0
-                && returnFlight.dateTimeUTC.compareTo(endDateWithWaitFactor) <= 0
-                && departureFlight.toAirport.equals(returnFlight.fromAirport)
-                && returnFlight.toAirport.equals(toAirport);
+    /**
+     * Whether {@code connectionFlight} continues {@code departureFlight} to {@code toAirport}, leaving no earlier
+     * than its arrival and at most {@code waitingTimeBetweenFlights} minutes after it.
+     */
+    static boolean isConnectionFlight(String toAirport, Flight departureFlight, Flight connectionFlight,
+                                      int waitingTimeBetweenFlights) {
+        return connectionFlight.getDepartureEpochMinute() >= departureFlight.getArrivalEpochMinute()
+                && connectionFlight.getDepartureEpochMinute() <= departureFlight.getArrivalEpochMinute() + waitingTimeBetweenFlights
+                && departureFlight.toAirport.equals(connectionFlight.fromAirport)
+                && connectionFlight.toAirport.equals(toAirport);
     }
 
     private Date getLateDateTimeFlightBound(List<Flight> flightsFromOrigin, String toAirport) {
-        OptionalLong lateDateAsLong = flightsFromOrigin.stream()
-                .filter(flight -> !flight.toAirport.equals(toAirport))
-                .mapToLong(connectionFlight -> Date.from(connectionFlight.dateTimeUTC.toInstant()
-                        .plus(Duration.ofMinutes(connectionFlight.duration))).getTime())
-                .max();
-        if (lateDateAsLong.isPresent()) {
-            Date lateDate = new Date(lateDateAsLong.getAsLong());
-            return Date.from(lateDate.toInstant()
-                    .plus(Duration.ofMinutes(flightInventoryConfiguration.getWaitingTimeBetweenFlights())));
-        } else {
-            return null;
+        long lateMinute = Long.MIN_VALUE;
+        for (Flight flight : flightsFromOrigin) {
+            if (!flight.toAirport.equals(toAirport)) {
+                lateMinute = Math.max(lateMinute, flight.getArrivalEpochMinute());
+            }
         }
+        return lateMinute == Long.MIN_VALUE
+                ? null
+                : getDate(lateMinute + flightInventoryConfiguration.getWaitingTimeBetweenFlights());
     }
 
     private Date getEarlyDateTimeFlightBound(List<Flight> flightsFromOrigin, String toAirport) {
-        OptionalLong earlyDateAsLong = flightsFromOrigin.stream()
-                .filter(flight -> !flight.toAirport.equals(toAirport))
-                .mapToLong(connectionFlight -> Date.from(connectionFlight.dateTimeUTC.toInstant()
-                        .plus(Duration.ofMinutes(connectionFlight.duration))).getTime())
-                .min();
-        if (earlyDateAsLong.isPresent()) {
-            return new Date(earlyDateAsLong.getAsLong());
-        } else {
-            return null;
+        long earlyMinute = Long.MAX_VALUE;
+        for (Flight flight : flightsFromOrigin) {
+            if (!flight.toAirport.equals(toAirport)) {
+                earlyMinute = Math.min(earlyMinute, flight.getArrivalEpochMinute());
+            }
         }
+        return earlyMinute == Long.MAX_VALUE ? null : getDate(earlyMinute);
     }
 
+    private static Date getDate(long epochMinute) {
+        return new Date(epochMinute * 60_000L);
+    }
 
-    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport) {
-
-        List<Flight> flights = getFlightByDestinations(fromAirport, toAirport);
-
-        if (flights.size() > 0) {
-
-            List<Flight> returnFlights = getReturnFlights(flights, fromAirport, toAirport);
-            List<Flight> departureFlights = getDepartureFlights(flights, returnFlights, fromAirport, toAirport);
 
-            return departureFlights.stream()
-                    .flatMap(departureFlight -> returnFlights.stream()
-                            .map(returnFlight ->
-                                    (isRoundFlight(departureFlight, returnFlight)) ?
-                                            new Itinerary(departureFlight, returnFlight)
-                                            : null))
-                    .filter(Objects::nonNull).toArray(Itinerary[]::new);
-        } else {
-            return new Itinerary[]{};
-        }
+    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport) {
+        return getPriceAllRoundTrip(fromAirport, toAirport, SearchBudget.unlimited());
     }
 
-    private boolean isRoundFlight(Flight departureFlight, Flight returnFlight) {
+    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport, SearchBudget budget) {
+        List<Itinerary> itineraries = new ArrayList<>();
+        searchAllRoundTrip(fromAirport, toAirport, budget, itineraries::add);
+        return itineraries.toArray(new Itinerary[itineraries.size()]);
+    }
 
-        Date startValidReturnDate = getValidReturnDateWithDurationAndMinimumDays(departureFlight);
-        return returnFlight.dateTimeUTC.compareTo(startValidReturnDate) >= 0
-                && departureFlight.toAirport.equals(returnFlight.fromAirport)
-                && returnFlight.toAirport.equals(departureFlight.fromAirport);
+    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport, ItinerarySort sort, int limit) {
+        return getPriceAllRoundTrip(fromAirport, toAirport, sort, limit, SearchBudget.unlimited());
     }
 
-    private Date getValidReturnDateWithDurationAndMinimumDays(Flight departureFlight) {
-        return Date.from(departureFlight.dateTimeUTC.toInstant()
-                .plus(Duration.ofMinutes(departureFlight.duration))
-                .plus(Duration.ofDays(flightInventoryConfiguration.getMinimumDaysForRoundTrip())));
+    /**
+     * The first {@code limit} round trip itineraries of a city pair in {@code sort} order, ranked while they are generated.
+     */
+    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport, ItinerarySort sort, int limit,
+                                            SearchBudget budget) {
+        TopItineraries topItineraries = new TopItineraries(sort.comparator(), limit);
+        searchAllRoundTrip(fromAirport, toAirport, budget, topItineraries);
+        return topItineraries.toArray();
     }
 
-    private List<Flight> getFlightByDestinations(String fromAirport, String toAirport) {
-        String[] destinations = new String[]{fromAirport, toAirport};
-        return flightsRepository.findByFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqualOrderByDate(destinations, destinations, flightInventoryConfiguration.getMinimumAvailableSeats());
+    /**
+     * Hands every round trip pair to {@code itineraries}, each examined and emitted against {@code budget}, until
+     * it runs out. Only valid pairs are visited, so the pairs examined are counted as they are visited and the
+     * itineraries as they are handed on.
+     */
+    private void searchAllRoundTrip(String fromAirport, String toAirport, SearchBudget budget,
+                                    Consumer<Itinerary> itineraries) {
+        AirlineMetrics.Search search = airlineMetrics.search("allRoundTrip", fromAirport, toAirport);
+        RoundTripItineraries roundTripItineraries = getAllRoundTripItineraries(fromAirport, toAirport, search);
+        long pairs = roundTripItineraries.size();
+        LongAdder examinedPairs = new LongAdder();
+        search.time(AirlineMetrics.PAIRS, () -> parallelSearch.search(pairs, pairs, budget,
+                (from, to, chunkBudget, chunkItineraries) -> roundTripItineraries
+                        .stream(from)
+                        .limit(to - from)
+                        .takeWhile(itinerary -> chunkBudget.tryExamine(1) && chunkBudget.tryEmit())
+                        .peek(itinerary -> examinedPairs.increment())
+                        .forEach(chunkItineraries),
+                getRanking(itineraries), search.counting(itineraries)));
+        search.addCandidatePairs(examinedPairs.sum());
+        search.recordTruncation(budget);
     }
 
-    private List<Flight> getReturnFlights(List<Flight> flights, String fromAirport, String toAirport) {
-        Optional<Flight> earliestDepartureFlight =
-                flights.stream()
-                        .filter(flight ->
-                                flight.fromAirport.equals(fromAirport)
-                                        && flight.toAirport.equals(toAirport)).findFirst();
+    public RoundTripItineraries getAllRoundTripItineraries(String fromAirport, String toAirport) {
+        return getAllRoundTripItineraries(fromAirport, toAirport,
+                airlineMetrics.search("allRoundTrip", fromAirport, toAirport));
+    }
 
-        if (earliestDepartureFlight.isEmpty()) {
-            return new ArrayList<>();
+    private RoundTripItineraries getAllRoundTripItineraries(String fromAirport, String toAirport,
+                                                            AirlineMetrics.Search search) {
+        List<Flight> departureFlights;
+        List<Flight> returnFlights;
+
+        if (flightInventoryConfiguration.isFlightGraphEnabled()) {
+            FlightGraph flightGraph = flightGraphProvider.getFlightGraph();
+            int minimumAvailableSeats = flightInventoryConfiguration.getMinimumAvailableSeats();
+            departureFlights = search.time(AirlineMetrics.CANDIDATES,
+                    () -> flightGraph.getRouteFlights(fromAirport, toAirport, minimumAvailableSeats));
+            returnFlights = search.time(AirlineMetrics.CANDIDATES,
+                    () -> flightGraph.getRouteFlights(toAirport, fromAirport, minimumAvailableSeats));
+        } else {
+            List<Flight> flights = search.time(AirlineMetrics.REPOSITORY, () -> getFlightByDestinations(fromAirport, toAirport));
+            departureFlights = getRouteFlights(flights, fromAirport, toAirport);
+            returnFlights = getRouteFlights(flights, toAirport, fromAirport);
         }
 
-        Date returnFlightStartDate =
-                Date.from(earliestDepartureFlight.get().dateTimeUTC.toInstant()
-                        .plus(Duration.ofDays(flightInventoryConfiguration.getMinimumDaysForRoundTrip())));
-
-        return flights.stream()
-                .filter(flight ->
-                        isValidReturnFlight(flight, fromAirport, toAirport, returnFlightStartDate))
-                .collect(Collectors.toList());
+        return search.time(AirlineMetrics.CANDIDATES, () -> new RoundTripItineraries(
+                departureFlights, returnFlights, flightInventoryConfiguration.getMinimumDaysForRoundTrip()));
     }
 
-    private boolean isValidReturnFlight(Flight flight, String fromAirport, String toAirport, Date returnFlightStartDate) {
-        return flight.fromAirport.equals(toAirport)
-                && flight.toAirport.equals(fromAirport)
-                && Date.from(flight.dateTimeUTC.toInstant()).after(returnFlightStartDate);
+    private List<Flight> getFlightByDestinations(String fromAirport, String toAirport) {
+        String[] destinations = new String[]{fromAirport, toAirport};
+        return flightsRepository.findByFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqualOrderByDate(destinations, destinations, flightInventoryConfiguration.getMinimumAvailableSeats());
     }
 
-    private List<Flight> getDepartureFlights(List<Flight> flights, List<Flight> returnFlights, String fromAirport, String toAirport) {
-
-        Optional<Flight> latestReturnFlight =
-                returnFlights.stream()
-                        .reduce((first, second) -> second);
-
-        if (latestReturnFlight.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        Date departureFlightEndDate =
-                Date.from(latestReturnFlight.get().dateTimeUTC.toInstant()
-                        .minus(Duration.ofDays(flightInventoryConfiguration.getMinimumDaysForRoundTrip())));
-
+    private List<Flight> getRouteFlights(List<Flight> flights, String fromAirport, String toAirport) {
         return flights.stream()
                 .filter(flight ->
                         flight.fromAirport.equals(fromAirport)
-                                && flight.toAirport.equals(toAirport)
-                                && Date.from(flight.dateTimeUTC.toInstant()).before(departureFlightEndDate))
+                                && flight.toAirport.equals(toAirport))
                 .collect(Collectors.toList());
     }
 
-
 }
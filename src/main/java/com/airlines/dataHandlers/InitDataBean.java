@@ -1,18 +1,32 @@
 package com.airlines.dataHandlers;
 
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.graph.FlightGraphProvider;
 import com.airlines.model.*;
 import com.airlines.parsers.*;
+import com.airlines.repositories.FlightsBulkLoader;
 import com.airlines.repositories.FlightsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 public class InitDataBean  implements ApplicationRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(InitDataBean.class);
+
     @Autowired
     private FlightParser flightParser;
 
@@ -22,28 +36,104 @@ public class InitDataBean  implements ApplicationRunner {
     @Autowired
     private FlightsRepository flightsRepository;
 
+    @Autowired
+    private FlightsBulkLoader flightsBulkLoader;
+
+    @Autowired
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+
+    @Autowired
+    private FlightGraphProvider flightGraphProvider;
+
+    @Autowired
+    private InventoryStore inventoryStore;
+
+    @Autowired
+    private FareCalendarProvider fareCalendarProvider;
+
+    @Autowired
+    private AirlineMetrics airlineMetrics;
+
     @Override
     public void run(ApplicationArguments args) throws Exception {
         LoadDataFromCSV();
     }
 
     private void LoadDataFromCSV() throws Exception {
-        List<Flight> rawFlights = flightParser.parseFlightSource();
-        List<Price> prices = pricesParser.parseFlightSource();
+        long loadStart = System.nanoTime();
+
+        List<Flight> rawFlights;
+        List<Price> prices;
+        ExecutorService parserExecutor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Flight>> rawFlightsFuture = parserExecutor.submit(() -> {
+                long start = System.nanoTime();
+                List<Flight> parsedFlights = flightParser.parseFlightSource();
+                logStage("Parsed flights", "parseFlights", parsedFlights.size(), start);
+                return parsedFlights;
+            });
+            Future<List<Price>> pricesFuture = parserExecutor.submit(() -> {
+                long start = System.nanoTime();
+                List<Price> parsedPrices = pricesParser.parseFlightSource();
+                logStage("Parsed prices", "parsePrices", parsedPrices.size(), start);
+                return parsedPrices;
+            });
+            rawFlights = rawFlightsFuture.get();
+            prices = pricesFuture.get();
+        } finally {
+            parserExecutor.shutdown();
+        }
+
+        long mergeStart = System.nanoTime();
+        List<Flight> flights = mergePrices(rawFlights, prices);
+        logStage("Merged prices into flights", "mergePrices", flights.size(), mergeStart);
+
+        long saveStart = System.nanoTime();
+        if (flightInventoryConfiguration.isBulkLoadEnabled()) {
+            int inserted = flightsBulkLoader.insertAll(flights, flightInventoryConfiguration.getBulkLoadBatchSize());
+            logStage("Bulk inserted flights to the repository", "save", inserted, saveStart);
+        } else {
+            flightsRepository.saveAll(flights);
+            logStage("Saved flights to the repository", "save", flights.size(), saveStart);
+        }
+
+        long graphStart = System.nanoTime();
+        flightGraphProvider.load(flights);
+        logStage("Built flight graph", "flightGraph", flights.size(), graphStart);
+
+        long inventoryStart = System.nanoTime();
+        inventoryStore.load(flights);
+        logStage("Loaded inventory store", "inventoryStore", flights.size(), inventoryStart);
 
-        List<Flight> flights = rawFlights.stream()
+        fareCalendarProvider.load(flights);
+
+        logStage("Data uploaded from the csv file to the repository", "total", flights.size(), loadStart);
+    }
+
+    public static List<Flight> mergePrices(List<Flight> rawFlights, List<Price> prices) {
+        Map<FlightCompositeKey, Price> pricesByFlight = prices.stream()
+                .collect(Collectors.toMap(
+                        price -> new FlightCompositeKey(price.flightNumber, price.date),
+                        Function.identity(),
+                        (first, second) -> first));
+
+        return rawFlights.stream()
                 .map(flight -> {
-                    Price matchingPrice = prices.stream()
-                            .filter(price ->
-                                    flight.flightNumber.equals(price.flightNumber)
-                                            && flight.date.equals(price.date))
-                            .findFirst().get();
+                    Price matchingPrice = pricesByFlight.get(new FlightCompositeKey(flight.flightNumber, flight.date));
+                    if (matchingPrice == null) {
+                        throw new NoSuchElementException(String.format(
+                                "No price found for flight %s on %s", flight.flightNumber, flight.date));
+                    }
                     flight.availableSeats = matchingPrice.availableSeats;
                     flight.price = matchingPrice.price;
                     return flight;
                 }).collect(Collectors.toList());
+    }
 
-        flightsRepository.saveAll(flights);
-        System.out.println("Data uploaded from the csv file to the repository");
+    private void logStage(String stage, String metricStage, int rows, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        airlineMetrics.recordIngestion(metricStage, rows, elapsedNanos);
+        logger.info("{}: {} rows in {} ms ({} rows/s)", stage, rows, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                elapsedNanos == 0 ? rows : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
     }
 }
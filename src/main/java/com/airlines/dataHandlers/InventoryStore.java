@@ -0,0 +1,155 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import com.airlines.model.FlightCompositeKey;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seats and price of every loaded flight, updated without locks.
+ * <p>
+ * Each flight keeps its seats and its price in cents packed into one {@link AtomicLong}, so a delta to
+ * either is a single compare-and-set and an update can never leave seats or price below zero. After every
+ * change the values are copied to the {@link Flight} the flight graph searches, and the flight is marked
+ * dirty until {@link #drainDirtyFlights()} hands it to the write-behind.
+ */
+@Component
+public class InventoryStore {
+
+    private volatile Map<FlightCompositeKey, Entry> entries = Map.of();
+    private final Set<Entry> dirtyEntries = ConcurrentHashMap.newKeySet();
+
+    public void load(List<Flight> flights) {
+        Map<FlightCompositeKey, Entry> loadedEntries = new HashMap<>(flights.size() * 4 / 3 + 1);
+        for (Flight flight : flights) {
+            loadedEntries.putIfAbsent(new FlightCompositeKey(flight.flightNumber, flight.date), new Entry(flight));
+        }
+        entries = loadedEntries;
+        dirtyEntries.clear();
+    }
+
+    /**
+     * Applies a seats and price delta to a flight.
+     *
+     * @throws NoSuchElementException if the flight is not loaded
+     * @throws IllegalStateException  if the update would take seats or price below zero
+     */
+    public Update apply(String flightNumber, String date, int seatsDelta, double priceDelta) {
+        Entry entry = entries.get(new FlightCompositeKey(flightNumber, date));
+        if (entry == null) {
+            throw new NoSuchElementException(String.format("No flight %s on %s", flightNumber, date));
+        }
+        long priceCentsDelta = Math.round(priceDelta * 100);
+
+        long previousState;
+        long nextState;
+        do {
+            previousState = entry.state.get();
+            long seats = getSeats(previousState) + (long) seatsDelta;
+            long priceCents = getPriceCents(previousState) + priceCentsDelta;
+            if (seats < 0) {
+                throw new IllegalStateException(String.format("Flight %s on %s has %d available seats, %d requested",
+                        flightNumber, date, getSeats(previousState), -seatsDelta));
+            }
+            if (priceCents < 0 || seats > Integer.MAX_VALUE || priceCents > Integer.MAX_VALUE) {
+                throw new IllegalStateException(String.format("Flight %s on %s cannot be priced at %.2f with %d seats",
+                        flightNumber, date, priceCents / 100.0, seats));
+            }
+            nextState = getState((int) seats, (int) priceCents);
+        } while (!entry.state.compareAndSet(previousState, nextState));
+
+        entry.publish();
+        dirtyEntries.add(entry);
+        return new Update(entry.flight, getSeats(previousState), getSeats(nextState), getPriceCents(nextState) / 100.0);
+    }
+
+    /**
+     * Removes every flight changed since the last call and returns detached copies of their current values.
+     */
+    public List<Flight> drainDirtyFlights() {
+        List<Flight> dirtyFlights = new ArrayList<>();
+        Iterator<Entry> iterator = dirtyEntries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            long state = entry.state.get();
+            Flight flight = new Flight();
+            flight.flightNumber = entry.flight.flightNumber;
+            flight.date = entry.flight.date;
+            flight.fromAirport = entry.flight.fromAirport;
+            flight.toAirport = entry.flight.toAirport;
+            flight.availableSeats = getSeats(state);
+            flight.price = getPriceCents(state) / 100.0;
+            dirtyFlights.add(flight);
+        }
+        return dirtyFlights;
+    }
+
+    /**
+     * Marks flights as changed again, for example after writing them behind failed.
+     */
+    public void markDirty(List<Flight> flights) {
+        for (Flight flight : flights) {
+            Entry entry = entries.get(new FlightCompositeKey(flight.flightNumber, flight.date));
+            if (entry != null) {
+                dirtyEntries.add(entry);
+            }
+        }
+    }
+
+    public int getDirtyCount() {
+        return dirtyEntries.size();
+    }
+
+    private static long getState(int seats, int priceCents) {
+        return ((long) seats << 32) | (priceCents & 0xFFFFFFFFL);
+    }
+
+    private static int getSeats(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int getPriceCents(long state) {
+        return (int) state;
+    }
+
+    public static final class Update {
+
+        public final Flight flight;
+        public final int previousSeats;
+        public final int availableSeats;
+        public final double price;
+
+        Update(Flight flight, int previousSeats, int availableSeats, double price) {
+            this.flight = flight;
+            this.previousSeats = previousSeats;
+            this.availableSeats = availableSeats;
+            this.price = price;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Flight flight;
+        private final AtomicLong state;
+
+        Entry(Flight flight) {
+            this.flight = flight;
+            this.state = new AtomicLong(getState(flight.availableSeats, (int) Math.round(flight.price * 100)));
+        }
+
+        /**
+         * Copies the current values to the flight, repeating while a concurrent update may have written older ones.
+         */
+        void publish() {
+            long published;
+            do {
+                published = state.get();
+                flight.availableSeats = getSeats(published);
+                flight.price = getPriceCents(published) / 100.0;
+            } while (state.get() != published);
+        }
+    }
+}
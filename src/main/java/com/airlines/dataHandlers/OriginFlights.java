@@ -0,0 +1,33 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Flights departing from an airport on a date, fetched once per date and airport and shared by every search of a
+ * batch that departs from there.
+ * <p>
+ * Not thread-safe: a batch runs its searches one after another, and the lists handed out are shared, so they are
+ * only read.
+ */
+public final class OriginFlights {
+
+    private final BiFunction<String, String, List<Flight>> source;
+    private final Map<String, List<Flight>> flightsByDateAndOrigin = new HashMap<>();
+
+    OriginFlights(BiFunction<String, String, List<Flight>> source) {
+        this.source = source;
+    }
+
+    public List<Flight> get(String date, String fromAirport) {
+        return flightsByDateAndOrigin.computeIfAbsent(date + "|" + fromAirport,
+                key -> source.apply(date, fromAirport));
+    }
+
+    public int size() {
+        return flightsByDateAndOrigin.size();
+    }
+}
@@ -0,0 +1,184 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.Itinerary;
+import com.airlines.model.SearchBudget;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the candidate loops of large searches on a dedicated {@link ForkJoinPool}, apart from the common pool
+ * shared by parallel streams and the web tier.
+ * <p>
+ * A search is split only when it has at least {@code parallelsearchthreshold} candidate pairs and its budget
+ * covers all of them; below that, forking costs more than it saves. The candidates are cut into consecutive
+ * chunks, every chunk collects its itineraries on a pool thread, and the chunks are handed on in candidate
+ * order on the calling thread, so the itineraries come out in the same order as a sequential search.
+ * <p>
+ * Every chunk runs against a budget of its own, allowing the itineraries the search has left and stopping at its
+ * deadline, so no chunk holds more itineraries than the search may return or runs far past the deadline; a
+ * ranked search keeps only the top itineraries of every chunk. A chunk that would start after the deadline is
+ * skipped, and the itineraries end at the first chunk skipped or stopped by its budget.
+ */
+@Component
+public class ParallelSearch implements DisposableBean {
+
+    static final int CHUNKS_PER_THREAD = 4;
+
+    private final long threshold;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public ParallelSearch(FlightInventoryConfiguration flightInventoryConfiguration) {
+        this(flightInventoryConfiguration.isParallelSearchEnabled(),
+                flightInventoryConfiguration.getParallelSearchThreshold(),
+                flightInventoryConfiguration.getParallelSearchParallelism());
+    }
+
+    /**
+     * @param parallelism threads of the pool, or 0 for one per available processor
+     */
+    public ParallelSearch(boolean enabled, long threshold, int parallelism) {
+        this.threshold = threshold;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = enabled && this.parallelism > 1
+                ? new ForkJoinPool(this.parallelism, ParallelSearch::newWorkerThread, null, false)
+                : null;
+    }
+
+    public static ParallelSearch sequential() {
+        return new ParallelSearch(false, Long.MAX_VALUE, 1);
+    }
+
+    public void search(long candidates, long candidatePairs, SearchBudget budget, CandidateSearch candidateSearch,
+                       Consumer<Itinerary> itineraries) {
+        search(candidates, candidatePairs, budget, candidateSearch, null, itineraries);
+    }
+
+    /**
+     * Hands the itineraries of candidates {@code [0, candidates)} to {@code itineraries}, splitting them across
+     * the pool when the {@code candidatePairs} they examine reach the threshold.
+     *
+     * @param ranking the ranking {@code itineraries} ends in, so every chunk keeps only its top itineraries, or
+     *                {@code null} to hand on every itinerary
+     */
+    public void search(long candidates, long candidatePairs, SearchBudget budget, CandidateSearch candidateSearch,
+                       TopItineraries ranking, Consumer<Itinerary> itineraries) {
+        if (pool == null || candidatePairs < threshold || candidates < 2 || !budget.covers(candidatePairs)) {
+            candidateSearch.search(0, candidates, budget, itineraries);
+            return;
+        }
+        if (!budget.tryExamine(candidatePairs)) {
+            return;
+        }
+        for (Chunk chunk : searchChunks(candidates, budget, candidateSearch, ranking)) {
+            if (chunk == null) {
+                budget.exceed(SearchBudget.Limit.DEADLINE);
+                return;
+            }
+            if (!chunk.handOn(budget, itineraries)) {
+                return;
+            }
+        }
+    }
+
+    private List<Chunk> searchChunks(long candidates, SearchBudget budget, CandidateSearch candidateSearch,
+                                     TopItineraries ranking) {
+        int chunks = (int) Math.min(candidates, (long) parallelism * CHUNKS_PER_THREAD);
+        return pool.submit(() -> IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> {
+                    if (budget.isPastDeadline()) {
+                        return null;
+                    }
+                    Chunk chunkSearch = new Chunk(budget.newChunkBudget(), ranking);
+                    candidateSearch.search(candidates * chunk / chunks, candidates * (chunk + 1) / chunks,
+                            chunkSearch.budget, chunkSearch);
+                    return chunkSearch;
+                })
+                .collect(Collectors.toList())).join();
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("itinerary-search-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * The itineraries one chunk found within its budget: all of them, or the top ones of the ranking.
+     */
+    private static final class Chunk implements Consumer<Itinerary> {
+
+        private final SearchBudget budget;
+        private final TopItineraries topItineraries;
+        private final List<Itinerary> itineraries = new ArrayList<>();
+        private long emitted;
+
+        Chunk(SearchBudget budget, TopItineraries ranking) {
+            this.budget = budget;
+            this.topItineraries = ranking != null ? ranking.emptyCopy() : null;
+        }
+
+        @Override
+        public void accept(Itinerary itinerary) {
+            emitted++;
+            if (topItineraries != null) {
+                topItineraries.accept(itinerary);
+            } else {
+                itineraries.add(itinerary);
+            }
+        }
+
+        /**
+         * Hands the itineraries on, charging them to {@code searchBudget}; whether the next chunk may follow.
+         */
+        boolean handOn(SearchBudget searchBudget, Consumer<Itinerary> searchItineraries) {
+            if (topItineraries != null) {
+                if (!searchBudget.tryEmit(emitted)) {
+                    return false;
+                }
+                for (Itinerary itinerary : topItineraries.toArray()) {
+                    searchItineraries.accept(itinerary);
+                }
+            } else {
+                for (Itinerary itinerary : itineraries) {
+                    if (!searchBudget.tryEmit()) {
+                        return false;
+                    }
+                    searchItineraries.accept(itinerary);
+                }
+            }
+            if (budget.isTruncated()) {
+                searchBudget.exceed(budget.getExceededLimit());
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Hands the itineraries of candidates {@code [from, to)} to {@code itineraries}, in candidate order, until
+     * {@code budget} runs out. Candidates of a parallel search get a chunk budget without a candidate pairs limit,
+     * as their pairs were charged up front, and their itineraries are charged again when handed on.
+     */
+    public interface CandidateSearch {
+        void search(long from, long to, SearchBudget budget, Consumer<Itinerary> itineraries);
+    }
+}
@@ -0,0 +1,125 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Every valid (departure, return) pairing of a city pair, produced lazily by a sort-merge join.
+ * <p>
+ * Departure flights are sorted by the earliest minute a return may leave, return flights by their
+ * departure minute, so the valid returns of each departure are a suffix of the return flights and a
+ * single forward pointer finds where every suffix starts. Only valid pairs are ever visited, and any
+ * position of the result can be reached without generating the pairs before it.
+ */
+public class RoundTripItineraries {
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final Flight[] departureFlights;
+    private final Flight[] returnFlights;
+    private final int[] firstValidReturns;
+    private final long[] pairOffsets;
+
+    public RoundTripItineraries(List<Flight> departureFlights, List<Flight> returnFlights, int minimumDaysForRoundTrip) {
+        int departuresCount = departureFlights.size();
+        int returnsCount = returnFlights.size();
+
+        long[] earliestReturnMinutes = new long[departuresCount];
+        Integer[] departureOrder = new Integer[departuresCount];
+        for (int i = 0; i < departuresCount; i++) {
+            Flight departureFlight = departureFlights.get(i);
+            earliestReturnMinutes[i] = departureFlight.getArrivalEpochMinute() + minimumDaysForRoundTrip * MINUTES_PER_DAY;
+            departureOrder[i] = i;
+        }
+        Arrays.sort(departureOrder, Comparator.comparingLong(i -> earliestReturnMinutes[i]));
+
+        this.returnFlights = returnFlights.toArray(new Flight[0]);
+        Arrays.sort(this.returnFlights, Comparator.comparingLong(Flight::getDepartureEpochMinute));
+        long[] returnMinutes = new long[returnsCount];
+        for (int i = 0; i < returnsCount; i++) {
+            returnMinutes[i] = this.returnFlights[i].getDepartureEpochMinute();
+        }
+
+        this.departureFlights = new Flight[departuresCount];
+        this.firstValidReturns = new int[departuresCount];
+        this.pairOffsets = new long[departuresCount + 1];
+
+        int firstValidReturn = 0;
+        for (int i = 0; i < departuresCount; i++) {
+            int departure = departureOrder[i];
+            while (firstValidReturn < returnsCount && returnMinutes[firstValidReturn] < earliestReturnMinutes[departure]) {
+                firstValidReturn++;
+            }
+            this.departureFlights[i] = departureFlights.get(departure);
+            this.firstValidReturns[i] = firstValidReturn;
+            this.pairOffsets[i + 1] = pairOffsets[i] + (returnsCount - firstValidReturn);
+        }
+    }
+
+    public long size() {
+        return pairOffsets[pairOffsets.length - 1];
+    }
+
+    public Stream<Flight> flights() {
+        return Stream.concat(Arrays.stream(departureFlights), Arrays.stream(returnFlights));
+    }
+
+    public Stream<Itinerary> stream() {
+        return stream(0);
+    }
+
+    public Stream<Itinerary> stream(long offset) {
+        return StreamSupport.stream(new PairSpliterator(Math.max(0, Math.min(offset, size()))), false);
+    }
+
+    private int getDepartureAt(long position) {
+        int index = Arrays.binarySearch(pairOffsets, position);
+        if (index < 0) {
+            return -index - 2;
+        }
+        while (index + 1 < pairOffsets.length && pairOffsets[index + 1] == position) {
+            index++;
+        }
+        return index;
+    }
+
+    private class PairSpliterator extends Spliterators.AbstractSpliterator<Itinerary> {
+
+        private long position;
+        private int departure;
+        private int returnFlight;
+
+        PairSpliterator(long offset) {
+            super(size() - offset, ORDERED | SIZED | NONNULL | IMMUTABLE);
+            position = offset;
+            if (offset < size()) {
+                departure = getDepartureAt(offset);
+                returnFlight = firstValidReturns[departure] + (int) (offset - pairOffsets[departure]);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Itinerary> action) {
+            if (position >= size()) {
+                return false;
+            }
+            while (returnFlight >= returnFlights.length) {
+                departure++;
+                returnFlight = firstValidReturns[departure];
+            }
+            action.accept(new Itinerary(departureFlights[departure], returnFlights[returnFlight]));
+            returnFlight++;
+            position++;
+            return true;
+        }
+
+        @Override
+        public long estimateSize() {
+            return size() - position;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.FareCalendar;
+import com.airlines.model.FareCalendarEntry;
+import com.airlines.model.Flight;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Cheapest round trip of a city pair for every departure date and return date.
+ * <p>
+ * The fares are kept in one primitive matrix with a row per departure date and a column per length of stay,
+ * up to {@code maximumStayDays}: the cheapest total price in cents, or {@link #NO_FARE}, plus the positions
+ * of the two flights giving it. To build it, the return flights of each date are sorted by departure minute
+ * with the cheapest flight of every suffix precomputed, so the cheapest valid return of a departure flight
+ * on a given date is one binary search away.
+ */
+public final class RouteFareCalendar {
+
+    static final int NO_FARE = -1;
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    public static final RouteFareCalendar EMPTY = new RouteFareCalendar(0, 0, 0,
+            new int[0], new int[0], new int[0], new Flight[0], new Flight[0]);
+
+    private final long firstDepartureDay;
+    private final int departureDays;
+    private final int stayColumns;
+    private final int[] cheapestCents;
+    private final int[] cheapestDepartures;
+    private final int[] cheapestReturns;
+    private final Flight[] departureFlights;
+    private final Flight[] returnFlights;
+
+    private RouteFareCalendar(long firstDepartureDay, int departureDays, int stayColumns, int[] cheapestCents,
+                              int[] cheapestDepartures, int[] cheapestReturns,
+                              Flight[] departureFlights, Flight[] returnFlights) {
+        this.firstDepartureDay = firstDepartureDay;
+        this.departureDays = departureDays;
+        this.stayColumns = stayColumns;
+        this.cheapestCents = cheapestCents;
+        this.cheapestDepartures = cheapestDepartures;
+        this.cheapestReturns = cheapestReturns;
+        this.departureFlights = departureFlights;
+        this.returnFlights = returnFlights;
+    }
+
+    public static RouteFareCalendar build(List<Flight> departures, List<Flight> returns,
+                                          int minimumDaysForRoundTrip, int maximumStayDays, int minimumAvailableSeats) {
+        Flight[] departureFlights = departures.stream()
+                .filter(flight -> flight.availableSeats >= minimumAvailableSeats)
+                .toArray(Flight[]::new);
+        Flight[] returnFlights = returns.stream()
+                .filter(flight -> flight.availableSeats >= minimumAvailableSeats)
+                .sorted(Comparator.comparingLong(Flight::getDepartureEpochMinute))
+                .toArray(Flight[]::new);
+        if (departureFlights.length == 0 || returnFlights.length == 0 || maximumStayDays < 0) {
+            return EMPTY;
+        }
+
+        ReturnsByDay returnsByDay = new ReturnsByDay(returnFlights);
+
+        long firstDepartureDay = Long.MAX_VALUE;
+        long lastDepartureDay = Long.MIN_VALUE;
+        long[] departureDaysByFlight = new long[departureFlights.length];
+        for (int i = 0; i < departureFlights.length; i++) {
+            departureDaysByFlight[i] = getDay(departureFlights[i]);
+            firstDepartureDay = Math.min(firstDepartureDay, departureDaysByFlight[i]);
+            lastDepartureDay = Math.max(lastDepartureDay, departureDaysByFlight[i]);
+        }
+
+        int departureDays = Math.toIntExact(lastDepartureDay - firstDepartureDay + 1);
+        int stayColumns = maximumStayDays + 1;
+        int[] cheapestCents = new int[Math.multiplyExact(departureDays, stayColumns)];
+        int[] cheapestDepartures = new int[cheapestCents.length];
+        int[] cheapestReturns = new int[cheapestCents.length];
+        Arrays.fill(cheapestCents, NO_FARE);
+
+        for (int departure = 0; departure < departureFlights.length; departure++) {
+            Flight departureFlight = departureFlights[departure];
+            long departureDay = departureDaysByFlight[departure];
+            long earliestReturnMinute = departureFlight.getArrivalEpochMinute() + minimumDaysForRoundTrip * MINUTES_PER_DAY;
+            int departureCents = getCents(departureFlight.price);
+            int row = (int) (departureDay - firstDepartureDay) * stayColumns;
+
+            for (int stay = 0; stay <= maximumStayDays; stay++) {
+                int returnFlight = returnsByDay.getCheapestFrom(departureDay + stay, earliestReturnMinute);
+                if (returnFlight < 0) {
+                    continue;
+                }
+                int cents = departureCents + getCents(returnFlights[returnFlight].price);
+                int cell = row + stay;
+                if (cheapestCents[cell] == NO_FARE || cents < cheapestCents[cell]) {
+                    cheapestCents[cell] = cents;
+                    cheapestDepartures[cell] = departure;
+                    cheapestReturns[cell] = returnFlight;
+                }
+            }
+        }
+
+        return new RouteFareCalendar(firstDepartureDay, departureDays, stayColumns,
+                cheapestCents, cheapestDepartures, cheapestReturns, departureFlights, returnFlights);
+    }
+
+    public int getFareCount() {
+        int fares = 0;
+        for (int cents : cheapestCents) {
+            if (cents != NO_FARE) {
+                fares++;
+            }
+        }
+        return fares;
+    }
+
+    public FareCalendar toFareCalendar(String fromAirport, String toAirport) {
+        List<FareCalendarEntry> fares = new ArrayList<>();
+        for (int departureDay = 0; departureDay < departureDays; departureDay++) {
+            for (int stay = 0; stay < stayColumns; stay++) {
+                int cell = departureDay * stayColumns + stay;
+                if (cheapestCents[cell] != NO_FARE) {
+                    fares.add(new FareCalendarEntry(
+                            LocalDate.ofEpochDay(firstDepartureDay + departureDay).toString(),
+                            LocalDate.ofEpochDay(firstDepartureDay + departureDay + stay).toString(),
+                            cheapestCents[cell] / 100.0,
+                            departureFlights[cheapestDepartures[cell]].flightNumber,
+                            returnFlights[cheapestReturns[cell]].flightNumber));
+                }
+            }
+        }
+        return new FareCalendar(fromAirport, toAirport, fares.toArray(new FareCalendarEntry[0]));
+    }
+
+    private static int getCents(double price) {
+        return (int) Math.round(price * 100);
+    }
+
+    private static long getDay(Flight flight) {
+        return LocalDate.parse(flight.date).toEpochDay();
+    }
+
+    /**
+     * Return flights grouped by local date, each group in departure order with the cheapest flight of every suffix.
+     */
+    private static final class ReturnsByDay {
+
+        private final long firstDay;
+        private final int[] dayStarts;
+        private final int[] order;
+        private final long[] minutes;
+        private final int[] cheapestOfSuffix;
+
+        ReturnsByDay(Flight[] returnFlights) {
+            long[] days = new long[returnFlights.length];
+            long minimumDay = Long.MAX_VALUE;
+            long maximumDay = Long.MIN_VALUE;
+            for (int i = 0; i < returnFlights.length; i++) {
+                days[i] = getDay(returnFlights[i]);
+                minimumDay = Math.min(minimumDay, days[i]);
+                maximumDay = Math.max(maximumDay, days[i]);
+            }
+            firstDay = minimumDay;
+            int dayCount = Math.toIntExact(maximumDay - minimumDay + 1);
+
+            dayStarts = new int[dayCount + 1];
+            for (long day : days) {
+                dayStarts[(int) (day - firstDay) + 1]++;
+            }
+            for (int day = 0; day < dayCount; day++) {
+                dayStarts[day + 1] += dayStarts[day];
+            }
+
+            order = new int[returnFlights.length];
+            minutes = new long[returnFlights.length];
+            int[] next = Arrays.copyOf(dayStarts, dayCount);
+            for (int i = 0; i < returnFlights.length; i++) {
+                int position = next[(int) (days[i] - firstDay)]++;
+                order[position] = i;
+                minutes[position] = returnFlights[i].getDepartureEpochMinute();
+            }
+
+            cheapestOfSuffix = new int[returnFlights.length];
+            for (int day = 0; day < dayCount; day++) {
+                int cheapest = -1;
+                for (int position = dayStarts[day + 1] - 1; position >= dayStarts[day]; position--) {
+                    int flight = order[position];
+                    if (cheapest < 0 || returnFlights[flight].price <= returnFlights[cheapest].price) {
+                        cheapest = flight;
+                    }
+                    cheapestOfSuffix[position] = cheapest;
+                }
+            }
+        }
+
+        int getCheapestFrom(long day, long earliestMinute) {
+            long dayOffset = day - firstDay;
+            if (dayOffset < 0 || dayOffset >= dayStarts.length - 1) {
+                return -1;
+            }
+            int start = dayStarts[(int) dayOffset];
+            int end = dayStarts[(int) dayOffset + 1];
+            int low = start;
+            int high = end;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (minutes[middle] < earliestMinute) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low < end ? cheapestOfSuffix[low] : -1;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Itinerary;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the first {@code limit} itineraries of an order while they are generated.
+ * <p>
+ * The kept itineraries sit in a heap with the worst of them on top, so an itinerary that does not beat
+ * it is discarded with one comparison and at most {@code limit} itineraries are ever held, however many
+ * are offered.
+ */
+public class TopItineraries implements Consumer<Itinerary> {
+
+    private static final int MAXIMUM_INITIAL_CAPACITY = 1024;
+
+    private final Comparator<Itinerary> comparator;
+    private final int limit;
+    private final PriorityQueue<Itinerary> heap;
+
+    public TopItineraries(Comparator<Itinerary> comparator, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException(String.format("Limit must be positive: %d", limit));
+        }
+        this.comparator = comparator;
+        this.limit = limit;
+        this.heap = new PriorityQueue<>(Math.min(limit, MAXIMUM_INITIAL_CAPACITY), comparator.reversed());
+    }
+
+    /**
+     * An empty instance keeping the same number of itineraries in the same order.
+     */
+    public TopItineraries emptyCopy() {
+        return new TopItineraries(comparator, limit);
+    }
+
+    @Override
+    public void accept(Itinerary itinerary) {
+        if (heap.size() < limit) {
+            heap.add(itinerary);
+        } else if (comparator.compare(itinerary, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(itinerary);
+        }
+    }
+
+    public Itinerary[] toArray() {
+        Itinerary[] itineraries = heap.toArray(new Itinerary[0]);
+        Arrays.sort(itineraries, comparator);
+        return itineraries;
+    }
+}
@@ -0,0 +1,309 @@
+package com.airlines.graph;
+
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.model.SearchBudget;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Time-expanded search for itineraries with up to {@code maximumConnections} connections.
+ * <p>
+ * A forward pass collects the flights reachable from the origin within the allowed number of legs,
+ * a backward pass in decreasing departure order computes the fewest legs each of them needs to reach
+ * the destination, and the itineraries are then enumerated following only flights that can still
+ * reach the destination. Every connection window is scanned a bounded number of times, so the work
+ * grows with the number of flights scanned plus the number of itineraries returned.
+ */
+public class ConnectionSearch {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_UTC_OFFSET_MINUTES = 14 * 60;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final FlightGraph flightGraph;
+    private final int maximumLegs;
+    private final int waitingTimeBetweenFlights;
+    private final int minimumAvailableSeats;
+
+    private int baseIndex;
+    private int[] legsFromOrigin = new int[0];
+    private int[] legsToDestination = new int[0];
+    private long examinedConnections;
+    private SearchBudget budget = SearchBudget.unlimited();
+
+    public ConnectionSearch(FlightGraph flightGraph, int maximumConnections,
+                            int waitingTimeBetweenFlights, int minimumAvailableSeats) {
+        this.flightGraph = flightGraph;
+        this.maximumLegs = Math.max(maximumConnections, 0) + 1;
+        this.waitingTimeBetweenFlights = waitingTimeBetweenFlights;
+        this.minimumAvailableSeats = minimumAvailableSeats;
+    }
+
+    public List<Itinerary> search(String date, String fromAirport, String toAirport) {
+        List<Itinerary> itineraries = new ArrayList<>();
+        search(date, fromAirport, toAirport, itineraries::add);
+        return itineraries;
+    }
+
+    public void search(String date, String fromAirport, String toAirport, Consumer<Itinerary> itineraries) {
+        search(date, fromAirport, toAirport, itineraries, SearchBudget.unlimited());
+    }
+
+    /**
+     * Hands every itinerary to {@code itineraries} as it is found, without collecting them, charging every
+     * origin flight and connection candidate examined and every itinerary found to {@code budget} and
+     * stopping once it runs out.
+     */
+    public void search(String date, String fromAirport, String toAirport, Consumer<Itinerary> itineraries,
+                       SearchBudget budget) {
+        stream(date, fromAirport, toAirport, budget).forEach(itineraries);
+    }
+
+    /**
+     * The itineraries in the order {@link #search} finds them, enumerated lazily while the stream is read, so the
+     * candidates after the last itinerary read are never examined; the stream ends once {@code budget} runs out.
+     * The reachability passes run before the stream is returned, and the search must not run again until the
+     * stream is read.
+     */
+    public Stream<Itinerary> stream(String date, String fromAirport, String toAirport, SearchBudget budget) {
+        this.budget = budget;
+        int origin = flightGraph.getAirportId(fromAirport);
+        int destination = flightGraph.getAirportId(toAirport);
+        int dateId = flightGraph.getDateId(date);
+        if (origin < 0 || destination < 0 || dateId < 0 || origin == destination) {
+            return Stream.empty();
+        }
+
+        int[] originFlights = getOriginFlights(origin, dateId, LocalDate.parse(date).toEpochDay() * MINUTES_PER_DAY);
+        if (originFlights.length == 0) {
+            return Stream.empty();
+        }
+
+        int[] reachableFlights = scanReachableFlights(originFlights, destination);
+        computeLegsToDestination(reachableFlights, destination);
+        return StreamSupport.stream(new Itineraries(originFlights, origin, destination), false);
+    }
+
+    /**
+     * The origin flights and connection candidates examined while enumerating itineraries, over every search so far.
+     */
+    public long getExaminedConnections() {
+        return examinedConnections;
+    }
+
+    private int[] getOriginFlights(int origin, int dateId, long dayStart) {
+        int start = flightGraph.lowerBound(origin, dayStart - MAX_UTC_OFFSET_MINUTES);
+        int end = flightGraph.lowerBound(origin, dayStart + MINUTES_PER_DAY + MAX_UTC_OFFSET_MINUTES);
+
+        int[] originFlights = new int[end - start];
+        int count = 0;
+        for (int position = start; position < end; position++) {
+            int flightIndex = flightGraph.departureAt(origin, position);
+            if (flightGraph.date(flightIndex) == dateId && isBookable(flightIndex)) {
+                originFlights[count++] = flightIndex;
+            }
+        }
+        return Arrays.copyOf(originFlights, count);
+    }
+
+    private int[] scanReachableFlights(int[] originFlights, int destination) {
+        baseIndex = originFlights[0];
+        legsFromOrigin = new int[64];
+        Arrays.fill(legsFromOrigin, UNREACHABLE);
+
+        int[] reachable = new int[originFlights.length * 2];
+        int reachableCount = 0;
+        for (int originFlight : originFlights) {
+            setLegsFromOrigin(originFlight, 1);
+            reachable[reachableCount++] = originFlight;
+        }
+
+        int frontierStart = 0;
+        for (int legs = 1; legs < maximumLegs; legs++) {
+            int frontierEnd = reachableCount;
+            for (int i = frontierStart; i < frontierEnd; i++) {
+                int flightIndex = reachable[i];
+                int connectionAirport = flightGraph.toAirport(flightIndex);
+                if (connectionAirport == destination) {
+                    continue;
+                }
+                int end = getConnectionWindowEnd(flightIndex);
+                for (int position = getConnectionWindowStart(flightIndex); position < end; position++) {
+                    int connection = flightGraph.departureAt(connectionAirport, position);
+                    if (connection >= baseIndex && legsFromOrigin(connection) == UNREACHABLE && isBookable(connection)) {
+                        setLegsFromOrigin(connection, legs + 1);
+                        if (reachableCount == reachable.length) {
+                            reachable = Arrays.copyOf(reachable, reachable.length * 2);
+                        }
+                        reachable[reachableCount++] = connection;
+                    }
+                }
+            }
+            frontierStart = frontierEnd;
+        }
+
+        int[] reachableFlights = Arrays.copyOf(reachable, reachableCount);
+        Arrays.sort(reachableFlights);
+        return reachableFlights;
+    }
+
+    private void computeLegsToDestination(int[] reachableFlights, int destination) {
+        legsToDestination = new int[legsFromOrigin.length];
+        Arrays.fill(legsToDestination, UNREACHABLE);
+
+        for (int i = reachableFlights.length - 1; i >= 0; i--) {
+            int flightIndex = reachableFlights[i];
+            int connectionAirport = flightGraph.toAirport(flightIndex);
+            if (connectionAirport == destination) {
+                legsToDestination[flightIndex - baseIndex] = 1;
+                continue;
+            }
+            if (legsFromOrigin(flightIndex) >= maximumLegs) {
+                continue;
+            }
+            int fewestLegs = UNREACHABLE;
+            int end = getConnectionWindowEnd(flightIndex);
+            for (int position = getConnectionWindowStart(flightIndex); position < end && fewestLegs > 1; position++) {
+                fewestLegs = Math.min(fewestLegs, legsToDestination(flightGraph.departureAt(connectionAirport, position)));
+            }
+            if (fewestLegs != UNREACHABLE) {
+                legsToDestination[flightIndex - baseIndex] = fewestLegs + 1;
+            }
+        }
+    }
+
+    /**
+     * Depth-first enumeration of the itineraries over an explicit path, one itinerary at a time: the connection
+     * window of every leg of the path is scanned from where the previous itinerary left it.
+     */
+    private final class Itineraries extends Spliterators.AbstractSpliterator<Itinerary> {
+
+        private final int[] originFlights;
+        private final int origin;
+        private final int destination;
+        private final int[] path = new int[maximumLegs];
+        private final int[] nextPositions = new int[maximumLegs];
+        private final int[] endPositions = new int[maximumLegs];
+        private int nextOriginFlight;
+        private int legs;
+
+        Itineraries(int[] originFlights, int origin, int destination) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.originFlights = originFlights;
+            this.origin = origin;
+            this.destination = destination;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Itinerary> action) {
+            while (true) {
+                int flightIndex;
+                if (legs == 0) {
+                    if (nextOriginFlight == originFlights.length) {
+                        return false;
+                    }
+                    flightIndex = originFlights[nextOriginFlight++];
+                    examinedConnections++;
+                    if (!budget.tryExamine(1)) {
+                        return stop();
+                    }
+                    if (legsToDestination(flightIndex) > maximumLegs) {
+                        continue;
+                    }
+                } else {
+                    if (nextPositions[legs] == endPositions[legs]) {
+                        legs--;
+                        continue;
+                    }
+                    int connectionAirport = flightGraph.toAirport(path[legs - 1]);
+                    flightIndex = flightGraph.departureAt(connectionAirport, nextPositions[legs]++);
+                    examinedConnections++;
+                    if (!budget.tryExamine(1)) {
+                        return stop();
+                    }
+                    int remainingLegs = legsToDestination(flightIndex);
+                    if (remainingLegs == UNREACHABLE
+                            || legs + remainingLegs > maximumLegs
+                            || isVisited(path, legs, origin, flightGraph.toAirport(flightIndex))) {
+                        continue;
+                    }
+                }
+
+                path[legs] = flightIndex;
+                if (flightGraph.toAirport(flightIndex) == destination) {
+                    if (!budget.tryEmit()) {
+                        return stop();
+                    }
+                    List<Flight> flights = new ArrayList<>(legs + 1);
+                    for (int leg = 0; leg <= legs; leg++) {
+                        flights.add(flightGraph.flight(path[leg]));
+                    }
+                    action.accept(new Itinerary(flights));
+                    return true;
+                }
+                legs++;
+                nextPositions[legs] = getConnectionWindowStart(flightIndex);
+                endPositions[legs] = getConnectionWindowEnd(flightIndex);
+            }
+        }
+
+        private boolean stop() {
+            nextOriginFlight = originFlights.length;
+            legs = 0;
+            return false;
+        }
+    }
+
+    private boolean isVisited(int[] path, int legs, int origin, int airport) {
+        if (airport == origin) {
+            return true;
+        }
+        for (int leg = 0; leg < legs; leg++) {
+            if (flightGraph.toAirport(path[leg]) == airport) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getConnectionWindowStart(int flightIndex) {
+        return flightGraph.lowerBound(flightGraph.toAirport(flightIndex), flightGraph.arrivalMinute(flightIndex));
+    }
+
+    private int getConnectionWindowEnd(int flightIndex) {
+        return flightGraph.upperBound(flightGraph.toAirport(flightIndex),
+                flightGraph.arrivalMinute(flightIndex) + waitingTimeBetweenFlights);
+    }
+
+    private boolean isBookable(int flightIndex) {
+        return flightGraph.availableSeats(flightIndex) >= minimumAvailableSeats;
+    }
+
+    private int legsFromOrigin(int flightIndex) {
+        int offset = flightIndex - baseIndex;
+        return offset >= 0 && offset < legsFromOrigin.length ? legsFromOrigin[offset] : UNREACHABLE;
+    }
+
+    private void setLegsFromOrigin(int flightIndex, int legs) {
+        int offset = flightIndex - baseIndex;
+        if (offset >= legsFromOrigin.length) {
+            int previousLength = legsFromOrigin.length;
+            legsFromOrigin = Arrays.copyOf(legsFromOrigin, Math.max(previousLength * 2, offset + 1));
+            Arrays.fill(legsFromOrigin, previousLength, legsFromOrigin.length, UNREACHABLE);
+        }
+        legsFromOrigin[offset] = legs;
+    }
+
+    private int legsToDestination(int flightIndex) {
+        int offset = flightIndex - baseIndex;
+        return offset >= 0 && offset < legsToDestination.length ? legsToDestination[offset] : UNREACHABLE;
+    }
+}
@@ -0,0 +1,267 @@
+package com.airlines.graph;
+
+import com.airlines.model.Flight;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Immutable, read-optimized view of the flight inventory.
+ * Flights are ordered by departure epoch-minute and indexed by origin airport,
+ * with airports, dates and flight numbers interned to small ints.
+ */
+public final class FlightGraph {
+
+    public static final FlightGraph EMPTY = build(Collections.emptyList());
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_UTC_OFFSET_MINUTES = 14 * 60;
+    private static final int ANY_AIRPORT = -1;
+
+    private final Flight[] flights;
+    private final long[] departureMinutes;
+    private final long[] arrivalMinutes;
+    private final int[] fromAirportIds;
+    private final int[] toAirportIds;
+    private final int[] dateIds;
+    private final int[] flightNumberIds;
+
+    private final Map<String, Integer> airportIds;
+    private final Map<String, Integer> dates;
+    private final Map<String, Integer> flightNumbers;
+    private final Set<Long> routes;
+
+    private final int[][] departuresByAirport;
+    private final long[][] departureMinutesByAirport;
+
+    private FlightGraph(List<Flight> inventory) {
+        flights = inventory.toArray(new Flight[0]);
+        Arrays.sort(flights, Comparator.comparingLong(Flight::getDepartureEpochMinute));
+
+        int size = flights.length;
+        departureMinutes = new long[size];
+        arrivalMinutes = new long[size];
+        fromAirportIds = new int[size];
+        toAirportIds = new int[size];
+        dateIds = new int[size];
+        flightNumberIds = new int[size];
+
+        airportIds = new HashMap<>();
+        dates = new HashMap<>();
+        flightNumbers = new HashMap<>();
+        routes = new HashSet<>();
+
+        for (int i = 0; i < size; i++) {
+            Flight flight = flights[i];
+            departureMinutes[i] = flight.getDepartureEpochMinute();
+            arrivalMinutes[i] = flight.getArrivalEpochMinute();
+            fromAirportIds[i] = intern(airportIds, flight.fromAirport);
+            toAirportIds[i] = intern(airportIds, flight.toAirport);
+            dateIds[i] = intern(dates, flight.date);
+            flightNumberIds[i] = intern(flightNumbers, flight.flightNumber);
+            routes.add(getRouteKey(fromAirportIds[i], toAirportIds[i]));
+        }
+
+        int[] outDegrees = new int[airportIds.size()];
+        for (int i = 0; i < size; i++) {
+            outDegrees[fromAirportIds[i]]++;
+        }
+
+        departuresByAirport = new int[outDegrees.length][];
+        departureMinutesByAirport = new long[outDegrees.length][];
+        for (int airport = 0; airport < outDegrees.length; airport++) {
+            departuresByAirport[airport] = new int[outDegrees[airport]];
+            departureMinutesByAirport[airport] = new long[outDegrees[airport]];
+        }
+
+        int[] positions = new int[outDegrees.length];
+        for (int i = 0; i < size; i++) {
+            int airport = fromAirportIds[i];
+            departuresByAirport[airport][positions[airport]] = i;
+            departureMinutesByAirport[airport][positions[airport]] = departureMinutes[i];
+            positions[airport]++;
+        }
+    }
+
+    public static FlightGraph build(List<Flight> flights) {
+        return new FlightGraph(flights);
+    }
+
+    private static long getRouteKey(int fromAirport, int toAirport) {
+        return (long) fromAirport << 32 | toAirport;
+    }
+
+    private static int intern(Map<String, Integer> ids, String value) {
+        return ids.computeIfAbsent(value, key -> ids.size());
+    }
+
+    public int size() {
+        return flights.length;
+    }
+
+    public int airportCount() {
+        return departuresByAirport.length;
+    }
+
+    public int getAirportId(String airport) {
+        return airportIds.getOrDefault(airport, -1);
+    }
+
+    /**
+     * Whether any flight flies from {@code fromAirport} to {@code toAirport}.
+     */
+    public boolean hasRoute(String fromAirport, String toAirport) {
+        int from = getAirportId(fromAirport);
+        int to = getAirportId(toAirport);
+        return from >= 0 && to >= 0 && routes.contains(getRouteKey(from, to));
+    }
+
+    public int getDateId(String date) {
+        return dates.getOrDefault(date, -1);
+    }
+
+    public int getFlightNumberId(String flightNumber) {
+        return flightNumbers.getOrDefault(flightNumber, -1);
+    }
+
+    public Flight flight(int flightIndex) {
+        return flights[flightIndex];
+    }
+
+    public long departureMinute(int flightIndex) {
+        return departureMinutes[flightIndex];
+    }
+
+    public long arrivalMinute(int flightIndex) {
+        return arrivalMinutes[flightIndex];
+    }
+
+    public int fromAirport(int flightIndex) {
+        return fromAirportIds[flightIndex];
+    }
+
+    public int toAirport(int flightIndex) {
+        return toAirportIds[flightIndex];
+    }
+
+    public int date(int flightIndex) {
+        return dateIds[flightIndex];
+    }
+
+    public int flightNumber(int flightIndex) {
+        return flightNumberIds[flightIndex];
+    }
+
+    public int availableSeats(int flightIndex) {
+        return flights[flightIndex].availableSeats;
+    }
+
+    public int departureCount(int airport) {
+        return departuresByAirport[airport].length;
+    }
+
+    public int departureAt(int airport, int position) {
+        return departuresByAirport[airport][position];
+    }
+
+    /**
+     * Position of the first departure from {@code airport} at or after {@code minute}.
+     */
+    public int lowerBound(int airport, long minute) {
+        return lowerBound(departureMinutesByAirport[airport], minute);
+    }
+
+    /**
+     * Position of the first departure from {@code airport} strictly after {@code minute}.
+     */
+    public int upperBound(int airport, long minute) {
+        return lowerBound(departureMinutesByAirport[airport], minute + 1);
+    }
+
+    private static int lowerBound(long[] minutes, long minute) {
+        int low = 0;
+        int high = minutes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (minutes[middle] < minute) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public List<Flight> getDepartures(String date, String fromAirport, String toAirport, int minimumAvailableSeats) {
+        int to = getAirportId(toAirport);
+        if (to < 0) {
+            return new ArrayList<>();
+        }
+        return getDepartures(date, fromAirport, to, minimumAvailableSeats);
+    }
+
+    /**
+     * Every flight departing from {@code fromAirport} on {@code date}, whatever its destination.
+     */
+    public List<Flight> getDepartures(String date, String fromAirport, int minimumAvailableSeats) {
+        return getDepartures(date, fromAirport, ANY_AIRPORT, minimumAvailableSeats);
+    }
+
+    private List<Flight> getDepartures(String date, String fromAirport, int to, int minimumAvailableSeats) {
+        int from = getAirportId(fromAirport);
+        int dateId = getDateId(date);
+        if (from < 0 || dateId < 0) {
+            return new ArrayList<>();
+        }
+
+        long dayStart = LocalDate.parse(date).toEpochDay() * MINUTES_PER_DAY;
+        int start = lowerBound(from, dayStart - MAX_UTC_OFFSET_MINUTES);
+        int end = lowerBound(from, dayStart + MINUTES_PER_DAY + MAX_UTC_OFFSET_MINUTES);
+
+        List<Flight> departures = new ArrayList<>();
+        for (int position = start; position < end; position++) {
+            int flightIndex = departuresByAirport[from][position];
+            if (dateIds[flightIndex] == dateId
+                    && (to == ANY_AIRPORT || toAirportIds[flightIndex] == to)
+                    && availableSeats(flightIndex) >= minimumAvailableSeats) {
+                departures.add(flights[flightIndex]);
+            }
+        }
+        return departures;
+    }
+
+    public List<Flight> getDeparturesBetween(long startMinute, long endMinute, String toAirport, int minimumAvailableSeats) {
+        int to = getAirportId(toAirport);
+        if (to < 0) {
+            return new ArrayList<>();
+        }
+
+        int start = lowerBound(departureMinutes, startMinute);
+        int end = lowerBound(departureMinutes, endMinute + 1);
+
+        List<Flight> departures = new ArrayList<>();
+        for (int flightIndex = start; flightIndex < end; flightIndex++) {
+            if (toAirportIds[flightIndex] == to
+                    && availableSeats(flightIndex) >= minimumAvailableSeats) {
+                departures.add(flights[flightIndex]);
+            }
+        }
+        return departures;
+    }
+
+    public List<Flight> getRouteFlights(String fromAirport, String toAirport, int minimumAvailableSeats) {
+        int from = getAirportId(fromAirport);
+        int to = getAirportId(toAirport);
+        if (from < 0 || to < 0) {
+            return new ArrayList<>();
+        }
+
+        List<Flight> routeFlights = new ArrayList<>();
+        for (int flightIndex : departuresByAirport[from]) {
+            if (toAirportIds[flightIndex] == to
+                    && availableSeats(flightIndex) >= minimumAvailableSeats) {
+                routeFlights.add(flights[flightIndex]);
+            }
+        }
+        return routeFlights;
+    }
+}
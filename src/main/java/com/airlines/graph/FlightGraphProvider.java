@@ -0,0 +1,19 @@
+package com.airlines.graph;
+
+import com.airlines.model.Flight;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+@Component
+public class FlightGraphProvider {
+
+    private volatile FlightGraph flightGraph = FlightGraph.EMPTY;
+
+    public FlightGraph getFlightGraph() {
+        return flightGraph;
+    }
+
+    public void load(List<Flight> flights) {
+        flightGraph = FlightGraph.build(flights);
+    }
+}
@@ -0,0 +1,13 @@
+package com.airlines.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BatchItineraries {
+    public Map<String, Itinerary[]> roundTrips = new LinkedHashMap<>();
+    public Map<String, Itinerary[]> withConnections = new LinkedHashMap<>();
+    public List<String> partialRoundTrips = new ArrayList<>();
+    public List<String> partialWithConnections = new ArrayList<>();
+}
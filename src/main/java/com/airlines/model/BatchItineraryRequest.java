@@ -0,0 +1,19 @@
+package com.airlines.model;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BatchItineraryRequest {
+
+    @NotNull
+    public Map<String, @Valid RoundTripRequest> roundTrips = new LinkedHashMap<>();
+
+    @NotNull
+    public Map<String, @Valid WithConnectionsRequest> withConnections = new LinkedHashMap<>();
+
+    public int size() {
+        return roundTrips.size() + withConnections.size();
+    }
+}
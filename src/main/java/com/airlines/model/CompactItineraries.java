@@ -0,0 +1,47 @@
+package com.airlines.model;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Itineraries with every flight written once: each itinerary holds the positions of its flights in
+ * {@link #flights}. Flights are shared by identity, which is how the flight graph and the cache hand them out.
+ */
+public class CompactItineraries {
+
+    public static final String MEDIA_TYPE = "application/vnd.airlines.compact+json";
+
+    public Flight[] flights;
+    public CompactItinerary[] itineraries;
+
+    public CompactItineraries() {
+    }
+
+    public CompactItineraries(Itinerary[] itineraries) {
+        Map<Flight, Integer> flightIndexes = new IdentityHashMap<>();
+        List<Flight> flightTable = new ArrayList<>();
+        this.itineraries = new CompactItinerary[itineraries.length];
+        for (int i = 0; i < itineraries.length; i++) {
+            Itinerary itinerary = itineraries[i];
+            if (itinerary == null) {
+                continue;
+            }
+            int[] indexes = new int[itinerary.flightsItinerary.length];
+            for (int leg = 0; leg < indexes.length; leg++) {
+                Flight flight = itinerary.flightsItinerary[leg];
+                Integer index = flightIndexes.get(flight);
+                if (index == null) {
+                    index = flightTable.size();
+                    flightIndexes.put(flight, index);
+                    flightTable.add(flight);
+                }
+                indexes[leg] = index;
+            }
+            this.itineraries[i] = new CompactItinerary(indexes,
+                    ItinerarySort.getTotalPrice(itinerary), ItinerarySort.getTotalDurationMinutes(itinerary));
+        }
+        this.flights = flightTable.toArray(new Flight[0]);
+    }
+}
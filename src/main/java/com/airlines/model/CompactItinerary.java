@@ -0,0 +1,16 @@
+package com.airlines.model;
+
+public class CompactItinerary {
+    public int[] flights;
+    public double totalPrice;
+    public long totalDurationMinutes;
+
+    public CompactItinerary() {
+    }
+
+    public CompactItinerary(int[] flights, double totalPrice, long totalDurationMinutes) {
+        this.flights = flights;
+        this.totalPrice = totalPrice;
+        this.totalDurationMinutes = totalDurationMinutes;
+    }
+}
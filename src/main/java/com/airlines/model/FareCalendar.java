@@ -0,0 +1,16 @@
+package com.airlines.model;
+
+public class FareCalendar {
+    public String fromAirport;
+    public String toAirport;
+    public FareCalendarEntry[] fares;
+
+    public FareCalendar() {
+    }
+
+    public FareCalendar(String fromAirport, String toAirport, FareCalendarEntry[] fares) {
+        this.fromAirport = fromAirport;
+        this.toAirport = toAirport;
+        this.fares = fares;
+    }
+}
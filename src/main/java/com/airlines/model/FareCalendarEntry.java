@@ -0,0 +1,21 @@
+package com.airlines.model;
+
+public class FareCalendarEntry {
+    public String departureDate;
+    public String returnDate;
+    public double price;
+    public String departureFlightNumber;
+    public String returnFlightNumber;
+
+    public FareCalendarEntry() {
+    }
+
+    public FareCalendarEntry(String departureDate, String returnDate, double price,
+                             String departureFlightNumber, String returnFlightNumber) {
+        this.departureDate = departureDate;
+        this.returnDate = returnDate;
+        this.price = price;
+        this.departureFlightNumber = departureFlightNumber;
+        this.returnFlightNumber = returnFlightNumber;
+    }
+}
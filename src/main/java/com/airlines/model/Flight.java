@@ -1,9 +1,15 @@
 package com.airlines.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import javax.persistence.*;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_flight_from_airport_date", columnList = "fromAirport, date"),
+        @Index(name = "idx_flight_to_airport_date_time_utc", columnList = "toAirport, dateTimeUTC"),
+        @Index(name = "idx_flight_from_airport_to_airport_date", columnList = "fromAirport, toAirport, date"),
+        @Index(name = "idx_flight_date_time_utc", columnList = "dateTimeUTC")})
 @IdClass(FlightCompositeKey.class)
 public class Flight {
 
@@ -28,5 +34,33 @@ public class Flight {
     @Temporal(TemporalType.TIMESTAMP)
     public Date dateTimeUTC;
 
+    public Flight() {
+    }
 
+    public Flight(String flightNumber, String date, String fromAirport, String toAirport, String departureDate,
+                  int duration, double price, int availableSeats, Date dateTimeUTC) {
+        this.flightNumber = flightNumber;
+        this.date = date;
+        this.fromAirport = fromAirport;
+        this.toAirport = toAirport;
+        this.departureDate = departureDate;
+        this.duration = duration;
+        this.price = price;
+        this.availableSeats = availableSeats;
+        this.dateTimeUTC = dateTimeUTC;
+    }
+
+    /**
+     * The departure minute since the epoch, which searches compare instead of {@link #dateTimeUTC}; derived from
+     * it on every call, so it always follows the departure time, and 0 without one.
+     */
+    @JsonIgnore
+    public long getDepartureEpochMinute() {
+        return dateTimeUTC != null ? Math.floorDiv(dateTimeUTC.getTime(), 60_000L) : 0;
+    }
+
+    @JsonIgnore
+    public long getArrivalEpochMinute() {
+        return getDepartureEpochMinute() + duration;
+    }
 }
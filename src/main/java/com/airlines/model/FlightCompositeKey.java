@@ -1,8 +1,34 @@
 package com.airlines.model;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 public class FlightCompositeKey implements Serializable {
     public String flightNumber;
     public String date;
+
+    public FlightCompositeKey() {
+    }
+
+    public FlightCompositeKey(String flightNumber, String date) {
+        this.flightNumber = flightNumber;
+        this.date = date;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof FlightCompositeKey)) {
+            return false;
+        }
+        FlightCompositeKey that = (FlightCompositeKey) other;
+        return Objects.equals(flightNumber, that.flightNumber) && Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(flightNumber, date);
+    }
 }
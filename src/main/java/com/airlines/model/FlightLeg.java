@@ -0,0 +1,21 @@
+package com.airlines.model;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+public class FlightLeg {
+
+    @NotBlank(message = "{Flight number is not valid}")
+    public String flightNumber;
+
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "{Flight date format is not valid}")
+    public String date;
+
+    public FlightLeg() {
+    }
+
+    public FlightLeg(String flightNumber, String date) {
+        this.flightNumber = flightNumber;
+        this.date = date;
+    }
+}
@@ -0,0 +1,23 @@
+package com.airlines.model;
+
+public class Hold {
+
+    public enum Status {HELD, CONFIRMED, RELEASED, EXPIRED}
+
+    public String holdId;
+    public FlightLeg[] flightsItinerary;
+    public int seats;
+    public String expiresAt;
+    public Status status;
+
+    public Hold() {
+    }
+
+    public Hold(String holdId, FlightLeg[] flightsItinerary, int seats, String expiresAt, Status status) {
+        this.holdId = holdId;
+        this.flightsItinerary = flightsItinerary;
+        this.seats = seats;
+        this.expiresAt = expiresAt;
+        this.status = status;
+    }
+}
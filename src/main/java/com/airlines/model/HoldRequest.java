@@ -0,0 +1,26 @@
+package com.airlines.model;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+
+/**
+ * Seats to hold on every flight of an itinerary; an {@link Itinerary} returned by a search can be posted as is.
+ */
+public class HoldRequest {
+
+    /**
+     * The most seats one request may hold on a flight, as for a single booking; a flight repeated in the itinerary
+     * holds them once per occurrence.
+     */
+    public static final int MAXIMUM_SEATS = 9;
+
+    @Valid
+    @NotEmpty(message = "{Itinerary flights are missing}")
+    public FlightLeg[] flightsItinerary;
+
+    @Min(value = 1, message = "{Seats must be positive}")
+    @Max(value = MAXIMUM_SEATS, message = "{Seats must be at most 9}")
+    public int seats = 1;
+}
@@ -0,0 +1,17 @@
+package com.airlines.model;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+public class InventoryUpdateRequest {
+
+    @NotBlank(message = "{Flight number is not valid}")
+    public String flightNumber;
+
+    @Pattern(regexp = "\\d{4}-\\d{2}-\\d{2}", message = "{Flight date format is not valid}")
+    public String date;
+
+    public int seatsDelta;
+
+    public double priceDelta;
+}
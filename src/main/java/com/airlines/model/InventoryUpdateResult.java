@@ -0,0 +1,23 @@
+package com.airlines.model;
+
+public class InventoryUpdateResult {
+    public String flightNumber;
+    public String date;
+    public int availableSeats;
+    public double price;
+    public boolean applied;
+    public String error;
+
+    public InventoryUpdateResult() {
+    }
+
+    public InventoryUpdateResult(String flightNumber, String date, int availableSeats, double price,
+                                 boolean applied, String error) {
+        this.flightNumber = flightNumber;
+        this.date = date;
+        this.availableSeats = availableSeats;
+        this.price = price;
+        this.applied = applied;
+        this.error = error;
+    }
+}
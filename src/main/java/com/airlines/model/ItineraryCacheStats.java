@@ -0,0 +1,12 @@
+package com.airlines.model;
+
+public class ItineraryCacheStats {
+    public long hitCount;
+    public long missCount;
+    public double hitRate;
+    public long evictionCount;
+    public long evictionWeight;
+    public long invalidationCount;
+    public long estimatedSize;
+    public long weightedSize;
+}
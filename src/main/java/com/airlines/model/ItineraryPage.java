@@ -0,0 +1,15 @@
+package com.airlines.model;
+
+public class ItineraryPage {
+    public Itinerary[] itineraries;
+    public String nextCursor;
+    public boolean partial;
+
+    public ItineraryPage() {
+    }
+
+    public ItineraryPage(Itinerary[] itineraries, String nextCursor) {
+        this.itineraries = itineraries;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,59 @@
+package com.airlines.model;
+
+import java.util.Comparator;
+
+/**
+ * Orders in which itineraries can be ranked; ties are broken by total price, then by first departure,
+ * then by flight numbers, so every order is total and results do not depend on generation order.
+ */
+public enum ItinerarySort {
+
+    PRICE(Comparator.comparingDouble(ItinerarySort::getTotalPrice)),
+    DURATION(Comparator.comparingLong(ItinerarySort::getTotalDurationMinutes)),
+    DEPARTURE(Comparator.comparingLong(ItinerarySort::getDepartureTime)),
+    LEGS(Comparator.comparingInt(itinerary -> itinerary.flightsItinerary.length));
+
+    private final Comparator<Itinerary> comparator;
+
+    ItinerarySort(Comparator<Itinerary> order) {
+        this.comparator = order
+                .thenComparingDouble(ItinerarySort::getTotalPrice)
+                .thenComparingLong(ItinerarySort::getDepartureTime)
+                .thenComparing(ItinerarySort::compareFlightNumbers);
+    }
+
+    public Comparator<Itinerary> comparator() {
+        return comparator;
+    }
+
+    public static double getTotalPrice(Itinerary itinerary) {
+        double totalPrice = 0;
+        for (Flight flight : itinerary.flightsItinerary) {
+            totalPrice += flight.price;
+        }
+        return totalPrice;
+    }
+
+    /**
+     * Minutes from the first departure to the last arrival.
+     */
+    public static long getTotalDurationMinutes(Itinerary itinerary) {
+        Flight lastFlight = itinerary.flightsItinerary[itinerary.flightsItinerary.length - 1];
+        return lastFlight.getArrivalEpochMinute() - getDepartureTime(itinerary);
+    }
+
+    private static long getDepartureTime(Itinerary itinerary) {
+        return itinerary.flightsItinerary[0].getDepartureEpochMinute();
+    }
+
+    private static int compareFlightNumbers(Itinerary first, Itinerary second) {
+        int legs = Math.min(first.flightsItinerary.length, second.flightsItinerary.length);
+        for (int leg = 0; leg < legs; leg++) {
+            int comparison = first.flightsItinerary[leg].flightNumber.compareTo(second.flightsItinerary[leg].flightNumber);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(first.flightsItinerary.length, second.flightsItinerary.length);
+    }
+}
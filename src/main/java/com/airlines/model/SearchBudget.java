@@ -0,0 +1,130 @@
+package com.airlines.model;
+
+/**
+ * Limits on the work one itinerary search may do: candidate pairs examined, itineraries emitted and wall-clock time.
+ * <p>
+ * Search loops ask the budget before examining candidates and before emitting an itinerary. Once a limit is hit
+ * every further request is refused, so the loops stop and the search returns the itineraries found so far,
+ * flagged as partial. The clock is read once every {@link #DEADLINE_CHECK_INTERVAL} candidate pairs. A budget
+ * belongs to one request and is only charged by the thread running its search; {@link #isPastDeadline()} is the
+ * one method other threads may call.
+ */
+public final class SearchBudget {
+
+    public enum Limit {CANDIDATE_PAIRS, ITINERARIES, DEADLINE}
+
+    static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final long maximumCandidatePairs;
+    private final long maximumItineraries;
+    private final long deadlineNanos;
+    private final boolean deadlineEnabled;
+    private long candidatePairs;
+    private long itineraries;
+    private long uncheckedCandidatePairs;
+    private Limit exceededLimit;
+
+    /**
+     * @param deadlineMillis wall-clock time the search may take from now, or 0 for no deadline
+     */
+    public SearchBudget(long maximumCandidatePairs, long maximumItineraries, long deadlineMillis) {
+        this(maximumCandidatePairs, maximumItineraries, deadlineMillis > 0,
+                System.nanoTime() + deadlineMillis * 1_000_000L);
+    }
+
+    private SearchBudget(long maximumCandidatePairs, long maximumItineraries, boolean deadlineEnabled,
+                         long deadlineNanos) {
+        this.maximumCandidatePairs = maximumCandidatePairs;
+        this.maximumItineraries = maximumItineraries;
+        this.deadlineEnabled = deadlineEnabled;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static SearchBudget unlimited() {
+        return new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * A budget for one chunk of a search split across threads, whose candidate pairs were charged to this budget
+     * up front: it may emit the itineraries this budget has left and stops at the same deadline.
+     */
+    public SearchBudget newChunkBudget() {
+        return new SearchBudget(Long.MAX_VALUE, maximumItineraries - itineraries, deadlineEnabled, deadlineNanos);
+    }
+
+    /**
+     * Whether {@code pairs} more candidate pairs may be examined; charges them if so.
+     */
+    public boolean tryExamine(long pairs) {
+        if (exceededLimit != null) {
+            return false;
+        }
+        if (pairs > maximumCandidatePairs - candidatePairs) {
+            exceededLimit = Limit.CANDIDATE_PAIRS;
+            return false;
+        }
+        candidatePairs += pairs;
+        uncheckedCandidatePairs += pairs;
+        if (uncheckedCandidatePairs >= DEADLINE_CHECK_INTERVAL) {
+            uncheckedCandidatePairs = 0;
+            if (isPastDeadline()) {
+                exceededLimit = Limit.DEADLINE;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether {@code pairs} more candidate pairs fit in the budget, without charging them.
+     */
+    public boolean covers(long pairs) {
+        return exceededLimit == null && pairs <= maximumCandidatePairs - candidatePairs;
+    }
+
+    public boolean isPastDeadline() {
+        return deadlineEnabled && System.nanoTime() - deadlineNanos > 0;
+    }
+
+    /**
+     * Stops the search at {@code limit}, for limits found exceeded outside the budget, unless it already stopped.
+     */
+    public void exceed(Limit limit) {
+        if (exceededLimit == null) {
+            exceededLimit = limit;
+        }
+    }
+
+    /**
+     * Whether one more itinerary may be emitted; charges it if so.
+     */
+    public boolean tryEmit() {
+        return tryEmit(1);
+    }
+
+    /**
+     * Whether {@code count} more itineraries may be emitted; charges them if so.
+     */
+    public boolean tryEmit(long count) {
+        if (exceededLimit != null) {
+            return false;
+        }
+        if (count > maximumItineraries - itineraries) {
+            exceededLimit = Limit.ITINERARIES;
+            return false;
+        }
+        itineraries += count;
+        return true;
+    }
+
+    public boolean isTruncated() {
+        return exceededLimit != null;
+    }
+
+    /**
+     * The limit that stopped the search, or {@code null} if the search was not truncated.
+     */
+    public Limit getExceededLimit() {
+        return exceededLimit;
+    }
+}
@@ -0,0 +1,16 @@
+package com.airlines.model;
+
+/**
+ * The last element of an itinerary stream cut short by its {@link SearchBudget}: the limit that stopped the
+ * search, as its response headers were sent before the stream was read.
+ */
+public class SearchPartial {
+    public String partial;
+
+    public SearchPartial() {
+    }
+
+    public SearchPartial(SearchBudget.Limit limit) {
+        this.partial = limit.name();
+    }
+}
@@ -0,0 +1,229 @@
+package com.airlines.parsers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cursor over one comma separated line of a byte buffer.
+ * The same instance is reused for every line of a chunk, so fields must be read before the next line.
+ */
+public final class CsvRecord {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final ByteBuffer buffer;
+    private final StringInterner stringInterner;
+
+    private int lineStart;
+    private int lineEnd;
+    private int fieldCount;
+    private int[] fieldStarts = new int[8];
+    private int[] fieldEnds = new int[8];
+
+    CsvRecord(ByteBuffer buffer, StringInterner stringInterner) {
+        this.buffer = buffer;
+        this.stringInterner = stringInterner;
+    }
+
+    void reset(int lineStart, int lineEnd) {
+        this.lineStart = lineStart;
+        this.lineEnd = lineEnd;
+        fieldCount = 0;
+        int fieldStart = lineStart;
+        for (int position = lineStart; position <= lineEnd; position++) {
+            if (position == lineEnd || buffer.get(position) == ',') {
+                if (fieldCount == fieldStarts.length) {
+                    fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                    fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                }
+                fieldStarts[fieldCount] = fieldStart;
+                fieldEnds[fieldCount] = position;
+                fieldCount++;
+                fieldStart = position + 1;
+            }
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public String getString(int field) {
+        int start = getFieldStart(field);
+        return stringInterner.intern(buffer, start, fieldEnds[field]);
+    }
+
+    public int getInt(int field) {
+        int start = getFieldStart(field);
+        int end = fieldEnds[field];
+        boolean negative = start < end && buffer.get(start) == '-';
+        int position = negative ? start + 1 : start;
+        if (position == end) {
+            throw invalidField(field, "integer");
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidField(field, "integer");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw invalidField(field, "integer");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw invalidField(field, "integer");
+        }
+        return (int) value;
+    }
+
+    public double getDouble(int field) {
+        int start = getFieldStart(field);
+        int end = fieldEnds[field];
+        boolean negative = start < end && buffer.get(start) == '-';
+        int position = negative ? start + 1 : start;
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; position < end; position++) {
+            byte character = buffer.get(position);
+            if (character == '.' && !fraction) {
+                fraction = true;
+            } else if (character >= '0' && character <= '9') {
+                mantissa = mantissa * 10 + (character - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else {
+                return parseDoubleSlowly(field, start, end);
+            }
+        }
+        if (digits == 0) {
+            throw invalidField(field, "number");
+        }
+        if (digits > 15 || fractionDigits > 22) {
+            return parseDoubleSlowly(field, start, end);
+        }
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlowly(int field, int start, int end) {
+        try {
+            return Double.parseDouble(getRawString(start, end));
+        } catch (NumberFormatException ex) {
+            throw invalidField(field, "number");
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 of a {@code yyyy-MM-dd} field.
+     */
+    public long getEpochDay(int field) {
+        int start = getFieldStart(field);
+        if (fieldEnds[field] - start != 10 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+            throw invalidField(field, "date");
+        }
+        int year = getDigits(field, start, 4);
+        int month = getDigits(field, start + 5, 2);
+        int day = getDigits(field, start + 8, 2);
+        if (month < 1 || month > 12 || day < 1 || day > getMonthLength(year, month)) {
+            throw invalidField(field, "date");
+        }
+
+        long shiftedYear = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(shiftedYear, 400);
+        long yearOfEra = shiftedYear - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Minutes since the epoch, in UTC, of a {@code yyyy-MM-dd} date field combined with a
+     * {@code HH:mm+hh:mm}, {@code HH:mm-hh:mm} or {@code HH:mmZ} local time field.
+     */
+    public long getEpochMinute(int dateField, int timeField) {
+        int start = getFieldStart(timeField);
+        int length = fieldEnds[timeField] - start;
+        if (length < 6 || buffer.get(start + 2) != ':') {
+            throw invalidField(timeField, "time");
+        }
+        int hour = getDigits(timeField, start, 2);
+        int minute = getDigits(timeField, start + 3, 2);
+        if (hour > 23 || minute > 59) {
+            throw invalidField(timeField, "time");
+        }
+
+        int offsetMinutes;
+        byte offsetSign = buffer.get(start + 5);
+        if (offsetSign == 'Z' && length == 6) {
+            offsetMinutes = 0;
+        } else if ((offsetSign == '+' || offsetSign == '-') && length == 11 && buffer.get(start + 8) == ':') {
+            offsetMinutes = getDigits(timeField, start + 6, 2) * 60 + getDigits(timeField, start + 9, 2);
+            if (offsetMinutes > 18 * 60) {
+                throw invalidField(timeField, "time");
+            }
+            offsetMinutes = offsetSign == '-' ? -offsetMinutes : offsetMinutes;
+        } else {
+            throw invalidField(timeField, "time");
+        }
+
+        return getEpochDay(dateField) * MINUTES_PER_DAY + hour * 60 + minute - offsetMinutes;
+    }
+
+    private static int getMonthLength(int year, int month) {
+        if (month == 2) {
+            boolean leapYear = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leapYear ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private int getDigits(int field, int start, int count) {
+        int value = 0;
+        for (int position = start; position < start + count; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidField(field, "number");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private int getFieldStart(int field) {
+        if (field >= fieldCount) {
+            throw new IllegalArgumentException(String.format(
+                    "Line has %d fields, field %d is missing: %s", fieldCount, field + 1, this));
+        }
+        return fieldStarts[field];
+    }
+
+    private IllegalArgumentException invalidField(int field, String type) {
+        return new IllegalArgumentException(String.format(
+                "Field %d is not a valid %s: %s", field + 1, type, this));
+    }
+
+    private String getRawString(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int position = start; position < end; position++) {
+            bytes[position - start] = buffer.get(position);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return getRawString(lineStart, lineEnd);
+    }
+}
@@ -0,0 +1,6 @@
+package com.airlines.parsers;
+
+@FunctionalInterface
+public interface CsvRecordMapper<T> {
+    T map(CsvRecord record);
+}
@@ -4,54 +4,46 @@ import com.airlines.configuration.FlightInventoryConfiguration;
 import com.airlines.model.Flight;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import java.util.Date;
-import java.io.*;
-import java.net.URISyntaxException;
+import org.springframework.util.ResourceUtils;
+import java.io.IOException;
 import java.net.URL;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.Date;
+import java.util.List;
 
 @Component
 public class FlightParser {
 
-    DateTimeFormatter DATE_TIME_FORMATTER =
-            DateTimeFormatter
-                    .ofPattern("uuuu-MM-dd'T'HH:mmXXXXX");
-
     @Autowired
     private FlightInventoryConfiguration flightInventoryConfiguration;
 
-    public List<Flight> parseFlightSource() throws URISyntaxException, FileNotFoundException {
+    public FlightParser(FlightInventoryConfiguration flightInventoryConfiguration) {
+        this.flightInventoryConfiguration = flightInventoryConfiguration;
+    }
+
+    public List<Flight> parseFlightSource() throws IOException {
 
+        String resourcePath = flightInventoryConfiguration.getFlightResourcePath();
         URL resource = getClass()
                 .getClassLoader()
-                .getResource(flightInventoryConfiguration.getFlightResourcePath());
-
-        List<Flight> flights = new ArrayList<>();
-        try (Scanner scanner = new Scanner(new File(resource.toURI()));) {
-            while (scanner.hasNextLine()) {
-                Flight record = getFlightFromLine(scanner.nextLine().trim());
-                flights.add(record);
-            }
-        }
-        return flights;
+                .getResource(resourcePath);
+
+        return parseFlightSource(resource != null ? resource : ResourceUtils.getURL(resourcePath));
+    }
+
+    public List<Flight> parseFlightSource(URL resource) throws IOException {
+        return MappedCsvReader.read(resource, this::getFlightFromRecord,
+                flightInventoryConfiguration.isParallelCsvParsing());
     }
 
-    private Flight getFlightFromLine(String line) {
-        String[] parsedLine = line.split(",");
+    private Flight getFlightFromRecord(CsvRecord record) {
         Flight flight = new Flight();
-        flight.date = parsedLine[0];
-        flight.flightNumber = parsedLine[1];
-        flight.fromAirport = parsedLine[2];
-        flight.toAirport = parsedLine[3];
-        flight.departureDate = parsedLine[4];
-        flight.duration = Integer.parseInt(parsedLine[5]);
-        flight.dateTimeUTC =
-                Date.from(OffsetDateTime
-                        .parse(flight.date + "T" + flight.departureDate, DATE_TIME_FORMATTER)
-                        .withOffsetSameInstant(ZoneOffset.UTC).toInstant());
+        flight.date = record.getString(0);
+        flight.flightNumber = record.getString(1);
+        flight.fromAirport = record.getString(2);
+        flight.toAirport = record.getString(3);
+        flight.departureDate = record.getString(4);
+        flight.duration = record.getInt(5);
+        flight.dateTimeUTC = new Date(record.getEpochMinute(0, 4) * 60_000L);
         return flight;
     }
 }
@@ -0,0 +1,125 @@
+package com.airlines.parsers;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reads comma separated resources straight from bytes.
+ * <p>
+ * Resources on the file system are memory-mapped through a {@link FileChannel}; resources inside a
+ * packaged jar are read once into a heap buffer. Lines are scanned for delimiters in place and handed
+ * to a {@link CsvRecordMapper}, so the only objects created per line are the ones the mapper builds.
+ * In parallel mode the buffer is split on line boundaries and the chunks are parsed concurrently,
+ * keeping the records in file order.
+ */
+public final class MappedCsvReader {
+
+    static final int MINIMUM_CHUNK_BYTES = 1 << 20;
+
+    private MappedCsvReader() {
+    }
+
+    public static <T> List<T> read(URL resource, CsvRecordMapper<T> mapper, boolean parallel) throws IOException {
+        ByteBuffer buffer = load(resource);
+        int chunks = parallel
+                ? Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), buffer.limit() / MINIMUM_CHUNK_BYTES))
+                : 1;
+        return read(buffer, mapper, chunks);
+    }
+
+    static <T> List<T> read(ByteBuffer buffer, CsvRecordMapper<T> mapper, int chunks) {
+        int[] boundaries = getChunkBoundaries(buffer, chunks);
+        if (boundaries.length == 2) {
+            return readChunk(buffer, boundaries[0], boundaries[1], mapper);
+        }
+
+        List<List<T>> chunkRecords = IntStream.range(0, boundaries.length - 1)
+                .parallel()
+                .mapToObj(chunk -> readChunk(buffer, boundaries[chunk], boundaries[chunk + 1], mapper))
+                .collect(Collectors.toList());
+
+        List<T> records = new ArrayList<>(chunkRecords.stream().mapToInt(List::size).sum());
+        chunkRecords.forEach(records::addAll);
+        return records;
+    }
+
+    static ByteBuffer load(URL resource) throws IOException {
+        if (resource == null) {
+            throw new FileNotFoundException("CSV resource was not found");
+        }
+        if ("file".equals(resource.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Path.of(resource.toURI()), StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException(String.format("CSV resource is larger than 2GB: %s", resource));
+                }
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (URISyntaxException ex) {
+                throw new IOException(String.format("CSV resource path is not valid: %s", resource), ex);
+            }
+        }
+        try (InputStream inputStream = resource.openStream()) {
+            return ByteBuffer.wrap(inputStream.readAllBytes());
+        }
+    }
+
+    private static int[] getChunkBoundaries(ByteBuffer buffer, int chunks) {
+        int size = buffer.limit();
+        int[] boundaries = new int[chunks + 1];
+        int count = 1;
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            int position = Math.max((int) ((long) size * chunk / chunks), boundaries[count - 1]);
+            while (position < size && buffer.get(position) != '\n') {
+                position++;
+            }
+            if (position < size) {
+                boundaries[count++] = position + 1;
+            }
+        }
+        boundaries[count++] = size;
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    private static <T> List<T> readChunk(ByteBuffer buffer, int start, int end, CsvRecordMapper<T> mapper) {
+        CsvRecord record = new CsvRecord(buffer, new StringInterner());
+        List<T> records = new ArrayList<>();
+
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int nextLineStart = lineEnd + 1;
+
+            int trimmedStart = lineStart;
+            while (trimmedStart < lineEnd && isWhitespace(buffer.get(trimmedStart))) {
+                trimmedStart++;
+            }
+            while (lineEnd > trimmedStart && isWhitespace(buffer.get(lineEnd - 1))) {
+                lineEnd--;
+            }
+            if (lineEnd > trimmedStart) {
+                record.reset(trimmedStart, lineEnd);
+                records.add(mapper.map(record));
+            }
+            lineStart = nextLineStart;
+        }
+        return records;
+    }
+
+    private static boolean isWhitespace(byte character) {
+        return character == ' ' || character == '\t' || character == '\r';
+    }
+}
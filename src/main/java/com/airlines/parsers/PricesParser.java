@@ -4,13 +4,10 @@ import com.airlines.configuration.FlightInventoryConfiguration;
 import com.airlines.model.Price;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.net.URISyntaxException;
+import org.springframework.util.ResourceUtils;
+import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 @Component
 public class PricesParser {
@@ -18,29 +15,31 @@ public class PricesParser {
     @Autowired
     private FlightInventoryConfiguration flightInventoryConfiguration;
 
-    public List<Price> parseFlightSource() throws URISyntaxException, FileNotFoundException {
+    public PricesParser(FlightInventoryConfiguration flightInventoryConfiguration) {
+        this.flightInventoryConfiguration = flightInventoryConfiguration;
+    }
+
+    public List<Price> parseFlightSource() throws IOException {
 
+        String resourcePath = flightInventoryConfiguration.getPriceResourcePath();
         URL resource = getClass()
                 .getClassLoader()
-                .getResource(flightInventoryConfiguration.getPriceResourcePath());
-
-        List<Price> prices = new ArrayList<>();
-        try (Scanner scanner = new Scanner(new File(resource.toURI()));) {
-            while (scanner.hasNextLine()) {
-                Price record = getPricesFromLine(scanner.nextLine().trim());
-                prices.add(record);
-            }
-        }
-        return prices;
+                .getResource(resourcePath);
+
+        return parseFlightSource(resource != null ? resource : ResourceUtils.getURL(resourcePath));
+    }
+
+    public List<Price> parseFlightSource(URL resource) throws IOException {
+        return MappedCsvReader.read(resource, this::getPricesFromRecord,
+                flightInventoryConfiguration.isParallelCsvParsing());
     }
 
-    private Price getPricesFromLine(String line) {
-        String[] parsedLine = line.split(",");
+    private Price getPricesFromRecord(CsvRecord record) {
         Price price = new Price();
-        price.date = parsedLine[0];
-        price.flightNumber = parsedLine[1];
-        price.availableSeats = Integer.parseInt(parsedLine[2]);
-        price.price = Double.parseDouble(parsedLine[3]);
+        price.date = record.getString(0);
+        price.flightNumber = record.getString(1);
+        price.availableSeats = record.getInt(2);
+        price.price = record.getDouble(3);
         return price;
     }
 
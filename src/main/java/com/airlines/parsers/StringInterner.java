@@ -0,0 +1,83 @@
+package com.airlines.parsers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Returns the same String instance for repeated byte sequences, such as airport codes and dates,
+ * without decoding the bytes again once a value has been seen.
+ */
+final class StringInterner {
+
+    private byte[][] keys = new byte[256][];
+    private String[] values = new String[256];
+    private int[] hashes = new int[256];
+    private int size;
+
+    String intern(ByteBuffer buffer, int start, int end) {
+        int hash = 1;
+        for (int position = start; position < end; position++) {
+            hash = 31 * hash + buffer.get(position);
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && isEqual(keys[slot], buffer, start, end)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        byte[] key = new byte[end - start];
+        for (int position = start; position < end; position++) {
+            key[position - start] = buffer.get(position);
+        }
+        String value = new String(key, StandardCharsets.UTF_8);
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+        return value;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean isEqual(byte[] key, ByteBuffer buffer, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize() {
+        byte[][] previousKeys = keys;
+        String[] previousValues = values;
+        int[] previousHashes = hashes;
+        keys = new byte[previousKeys.length * 2][];
+        values = new String[previousKeys.length * 2];
+        hashes = new int[previousKeys.length * 2];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (previousKeys[i] != null) {
+                int slot = mix(previousHashes[i]) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = previousKeys[i];
+                values[slot] = previousValues[i];
+                hashes[slot] = previousHashes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.airlines.repositories;
+
+import com.airlines.model.Flight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts flights with batched prepared statements, bypassing the entity manager.
+ * Unlike {@link FlightsRepository#saveAll}, no SELECT is issued per row to merge the composite key,
+ * so the table is expected not to contain the loaded flights yet.
+ */
+@Repository
+public class FlightsBulkLoader {
+
+    static final String INSERT_FLIGHT =
+            "INSERT INTO flight (flight_number, date, from_airport, to_airport, departure_date, duration, " +
+            "price, available_seats, date_timeutc) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String UPDATE_INVENTORY =
+            "UPDATE flight SET available_seats = ?, price = ? WHERE flight_number = ? AND date = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public FlightsBulkLoader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional
+    public int insertAll(List<Flight> flights, int batchSize) {
+        validateBatchSize(batchSize);
+        int[][] updateCounts = jdbcTemplate.batchUpdate(INSERT_FLIGHT, flights, batchSize, (statement, flight) -> {
+            statement.setString(1, flight.flightNumber);
+            statement.setString(2, flight.date);
+            statement.setString(3, flight.fromAirport);
+            statement.setString(4, flight.toAirport);
+            statement.setString(5, flight.departureDate);
+            statement.setInt(6, flight.duration);
+            statement.setDouble(7, flight.price);
+            statement.setInt(8, flight.availableSeats);
+            statement.setTimestamp(9, flight.dateTimeUTC == null ? null : new Timestamp(flight.dateTimeUTC.getTime()));
+        });
+        int inserted = 0;
+        for (int[] batch : updateCounts) {
+            inserted += batch.length;
+        }
+        return inserted;
+    }
+
+    /**
+     * Writes the available seats and price of flights that are already stored.
+     *
+     * @return the number of rows updated
+     */
+    @Transactional
+    public int updateInventory(List<Flight> flights, int batchSize) {
+        validateBatchSize(batchSize);
+        int[][] updateCounts = jdbcTemplate.batchUpdate(UPDATE_INVENTORY, flights, batchSize, (statement, flight) -> {
+            statement.setInt(1, flight.availableSeats);
+            statement.setDouble(2, flight.price);
+            statement.setString(3, flight.flightNumber);
+            statement.setString(4, flight.date);
+        });
+        int updated = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+
+    private static void validateBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(String.format("Batch size must be positive: %d", batchSize));
+        }
+    }
+}
@@ -2,21 +2,38 @@ package com.airlines.repositories;
 
 import com.airlines.model.Flight;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Date;
 import java.util.List;
 
+/**
+ * Finders select the flight columns into new {@link Flight} instances instead of loading managed entities,
+ * so search results never enter the persistence context and are not dirty-checked.
+ */
 @Repository
 @EnableJpaRepositories
+@Transactional(readOnly = true)
 public interface FlightsRepository extends JpaRepository<Flight, String> {
 
+    String SELECT_FLIGHT = "select new com.airlines.model.Flight(f.flightNumber, f.date, f.fromAirport, f.toAirport, " +
+            "f.departureDate, f.duration, f.price, f.availableSeats, f.dateTimeUTC) from Flight f ";
+
+    @Query(SELECT_FLIGHT + "where f.date = ?1 and f.fromAirport = ?2 and f.availableSeats >= ?3")
     List<Flight> findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual(String date, String fromAirport, int availableSeats);
 
+    @Query(SELECT_FLIGHT + "where f.date in ?1 and f.fromAirport in ?2 and f.toAirport in ?3 and f.availableSeats >= ?4")
     List<Flight> findByDateInAndFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqual(String[] departureDates, String[] fromAirports, String[] toAirports, int availableSeats);
 
+    @Query(SELECT_FLIGHT + "where f.fromAirport in ?1 and f.toAirport in ?2 and f.availableSeats >= ?3 order by f.date")
     List<Flight> findByFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqualOrderByDate(String[] fromAirports, String[] toAirports, int availableSeats);
 
+    @Query(SELECT_FLIGHT + "where f.dateTimeUTC between ?1 and ?2 and f.toAirport = ?3 and f.availableSeats >= ?4")
     List<Flight> findByDateTimeUTCBetweenAndToAirportAndAvailableSeatsGreaterThanEqual(Date dateTimeUTCStart, Date dateTimeUTCEnd, String toAirport, int availableSeats);
 
+    @Query(SELECT_FLIGHT + "where f.dateTimeUTC between ?1 and ?2 and f.availableSeats >= ?3")
+    List<Flight> findByDateTimeUTCBetweenAndAvailableSeatsGreaterThanEqual(Date dateTimeUTCStart, Date dateTimeUTCEnd, int availableSeats);
+
 }
@@ -1,11 +1,31 @@
 package com.airlines.services;
 
+import com.airlines.dataHandlers.FareCalendarProvider;
 import com.airlines.dataHandlers.FlightsAnalysis;
+import com.airlines.dataHandlers.OriginFlights;
+import com.airlines.dataHandlers.RoundTripItineraries;
+import com.airlines.model.BatchItineraries;
+import com.airlines.model.BatchItineraryRequest;
+import com.airlines.model.FareCalendar;
+import com.airlines.model.Flight;
 import com.airlines.model.Itinerary;
+import com.airlines.model.ItineraryCacheStats;
+import com.airlines.model.ItinerarySort;
+import com.airlines.model.RoundTripRequest;
+import com.airlines.model.SearchBudget;
+import com.airlines.model.WithConnectionsRequest;
 import com.airlines.validators.DateValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Validated
@@ -17,22 +37,226 @@ public class FlightItineraryService {
     @Autowired
     private DateValidator dateValidator;
 
-    public FlightItineraryService(FlightsAnalysis flightsAnalysis, DateValidator dateValidator) {
+    @Autowired
+    private ItineraryCache itineraryCache;
+
+    @Autowired
+    private FareCalendarProvider fareCalendarProvider;
+
+    @Autowired
+    private SearchCoalescer searchCoalescer;
+
+    public FlightItineraryService(FlightsAnalysis flightsAnalysis, DateValidator dateValidator, ItineraryCache itineraryCache,
+                                  FareCalendarProvider fareCalendarProvider, SearchCoalescer searchCoalescer) {
         this.flightsAnalysis = flightsAnalysis;
         this.dateValidator = dateValidator;
+        this.itineraryCache = itineraryCache;
+        this.fareCalendarProvider = fareCalendarProvider;
+        this.searchCoalescer = searchCoalescer;
     }
 
-    public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport) {
+    public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                         SearchBudget budget) {
         dateValidator.validateDateRange(departureDate, returnDate);
-        return flightsAnalysis.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport);
+        return search(
+                itineraryCache.getQuery(ItineraryQuery.Type.ROUND_TRIP, departureDate, fromAirport, returnDate, toAirport),
+                () -> flightsAnalysis.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, budget),
+                FlightItineraryService::getFlights, budget);
     }
 
-    public Itinerary[] getPriceWithConnections(String departureDate, String fromAirport, String toAirport) {
+    public Itinerary[] getPriceWithConnections(String departureDate, String fromAirport, String toAirport,
+                                               SearchBudget budget) {
         dateValidator.validateDepartureDate(departureDate);
-        return flightsAnalysis.getPriceWithConnections(departureDate, fromAirport, toAirport);
+        return search(
+                itineraryCache.getQuery(ItineraryQuery.Type.WITH_CONNECTIONS, departureDate, fromAirport, null, toAirport),
+                () -> flightsAnalysis.getPriceWithConnections(departureDate, fromAirport, toAirport, budget),
+                FlightItineraryService::getFlights, budget);
+    }
+
+    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport, SearchBudget budget) {
+        return search(
+                itineraryCache.getQuery(ItineraryQuery.Type.ALL_ROUND_TRIP, null, fromAirport, null, toAirport),
+                () -> flightsAnalysis.getPriceAllRoundTrip(fromAirport, toAirport, budget),
+                FlightItineraryService::getFlights, budget);
+    }
+
+    public Itinerary[] getPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                         ItinerarySort sort, int limit, SearchBudget budget) {
+        dateValidator.validateDateRange(departureDate, returnDate);
+        return search(
+                itineraryCache.getQuery(ItineraryQuery.Type.ROUND_TRIP, departureDate, fromAirport, returnDate, toAirport, sort, limit),
+                () -> flightsAnalysis.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, sort, limit, budget),
+                FlightItineraryService::getFlights, budget);
+    }
+
+    public Itinerary[] getPriceWithConnections(String departureDate, String fromAirport, String toAirport,
+                                               ItinerarySort sort, int limit, SearchBudget budget) {
+        dateValidator.validateDepartureDate(departureDate);
+        return search(
+                itineraryCache.getQuery(ItineraryQuery.Type.WITH_CONNECTIONS, departureDate, fromAirport, null, toAirport, sort, limit),
+                () -> flightsAnalysis.getPriceWithConnections(departureDate, fromAirport, toAirport, sort, limit, budget),
+                FlightItineraryService::getFlights, budget);
+    }
+
+    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport, ItinerarySort sort, int limit,
+                                        SearchBudget budget) {
+        return search(
+                itineraryCache.getQuery(ItineraryQuery.Type.ALL_ROUND_TRIP, null, fromAirport, null, toAirport, sort, limit),
+                () -> flightsAnalysis.getPriceAllRoundTrip(fromAirport, toAirport, sort, limit, budget),
+                FlightItineraryService::getFlights, budget);
+    }
+
+    /**
+     * The round trips from {@code offset}, generated lazily while they are read, so the itineraries before
+     * {@code offset} and after the last one read are never built; they are not cached.
+     */
+    public Stream<Itinerary> streamPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                                  long offset, SearchBudget budget) {
+        dateValidator.validateDateRange(departureDate, returnDate);
+        return flightsAnalysis.streamPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, offset, budget);
+    }
+
+    /**
+     * The itineraries with connections from {@code offset}, enumerated lazily while they are read, so the
+     * itineraries after the last one read are never searched; they are not cached.
+     */
+    public Stream<Itinerary> streamPriceWithConnections(String departureDate, String fromAirport, String toAirport,
+                                                        long offset, SearchBudget budget) {
+        dateValidator.validateDepartureDate(departureDate);
+        return flightsAnalysis.streamPriceWithConnections(departureDate, fromAirport, toAirport, offset, budget);
+    }
+
+    /**
+     * The round trips of a city pair from {@code offset}, generated lazily while they are read, each one examined
+     * and emitted against {@code budget}; the stream ends once it runs out. Only the join of the flights of the city
+     * pair is cached, and it is built in full, so it is not charged to the budget.
+     */
+    public Stream<Itinerary> streamPriceAllRoundTrip(String fromAirport, String toAirport, long offset,
+                                                     SearchBudget budget) {
+        RoundTripItineraries roundTripItineraries = search(
+                itineraryCache.getQuery(ItineraryQuery.Type.ALL_ROUND_TRIP_PAIRS, null, fromAirport, null, toAirport),
+                () -> flightsAnalysis.getAllRoundTripItineraries(fromAirport, toAirport),
+                RoundTripItineraries::flights, SearchBudget.unlimited());
+        return flightsAnalysis.streamPriceAllRoundTrip(fromAirport, toAirport, roundTripItineraries, offset, budget);
+    }
+
+    /**
+     * The sorted itineraries from {@code offset}, at most {@code count} of them. Every itinerary has to be ranked
+     * before the first one is known, so they are searched in full, but only the first {@code offset + count} are
+     * ever kept and the page is read from them in place.
+     */
+    public Stream<Itinerary> streamPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                                  ItinerarySort sort, long offset, int count, SearchBudget budget) {
+        return getPage(getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport,
+                sort, getRankedCount(offset, count), budget), offset);
+    }
+
+    public Stream<Itinerary> streamPriceWithConnections(String departureDate, String fromAirport, String toAirport,
+                                                        ItinerarySort sort, long offset, int count, SearchBudget budget) {
+        return getPage(getPriceWithConnections(departureDate, fromAirport, toAirport,
+                sort, getRankedCount(offset, count), budget), offset);
+    }
+
+    public Stream<Itinerary> streamPriceAllRoundTrip(String fromAirport, String toAirport,
+                                                     ItinerarySort sort, long offset, int count, SearchBudget budget) {
+        return getPage(getPriceAllRoundTrip(fromAirport, toAirport,
+                sort, getRankedCount(offset, count), budget), offset);
+    }
+
+    /**
+     * The itineraries of every search in a batch, keyed as in the request and sharing {@code budget}.
+     * <p>
+     * The searches run grouped by departure date and origin, so the flights departing from each date and airport
+     * are fetched once for the whole batch; each search still goes through the cache. Once the budget runs out the
+     * searches left are not run, and they are listed as partial along with the one that ran out.
+     *
+     * @throws IllegalArgumentException if the dates of a search are not valid
+     */
+    public BatchItineraries getPriceBatch(BatchItineraryRequest batchItineraryRequest, SearchBudget budget) {
+        batchItineraryRequest.roundTrips.forEach((key, roundTrip) ->
+                validate(key, () -> dateValidator.validateDateRange(roundTrip.departureDate, roundTrip.returnDate)));
+        batchItineraryRequest.withConnections.forEach((key, withConnections) ->
+                validate(key, () -> dateValidator.validateDepartureDate(withConnections.date)));
+
+        OriginFlights originFlights = flightsAnalysis.newOriginFlights();
+        BatchItineraries batchItineraries = new BatchItineraries();
+        for (Map.Entry<String, RoundTripRequest> entry : getByDateAndOrigin(batchItineraryRequest.roundTrips,
+                roundTrip -> roundTrip.departureDate, roundTrip -> roundTrip.fromAirport)) {
+            RoundTripRequest roundTrip = entry.getValue();
+            batchItineraries.roundTrips.put(entry.getKey(), budget.isTruncated() ? new Itinerary[0] : search(
+                    itineraryCache.getQuery(ItineraryQuery.Type.ROUND_TRIP, roundTrip.departureDate,
+                            roundTrip.fromAirport, roundTrip.returnDate, roundTrip.toAirport),
+                    () -> flightsAnalysis.getPriceRoundTrip(roundTrip.departureDate, roundTrip.fromAirport,
+                            roundTrip.returnDate, roundTrip.toAirport, budget, originFlights),
+                    FlightItineraryService::getFlights, budget));
+            if (budget.isTruncated()) {
+                batchItineraries.partialRoundTrips.add(entry.getKey());
+            }
+        }
+        for (Map.Entry<String, WithConnectionsRequest> entry : getByDateAndOrigin(batchItineraryRequest.withConnections,
+                withConnections -> withConnections.date, withConnections -> withConnections.fromAirport)) {
+            WithConnectionsRequest withConnections = entry.getValue();
+            batchItineraries.withConnections.put(entry.getKey(), budget.isTruncated() ? new Itinerary[0] : search(
+                    itineraryCache.getQuery(ItineraryQuery.Type.WITH_CONNECTIONS, withConnections.date,
+                            withConnections.fromAirport, null, withConnections.toAirport),
+                    () -> flightsAnalysis.getPriceWithConnections(withConnections.date, withConnections.fromAirport,
+                            withConnections.toAirport, budget, originFlights),
+                    FlightItineraryService::getFlights, budget));
+            if (budget.isTruncated()) {
+                batchItineraries.partialWithConnections.add(entry.getKey());
+            }
+        }
+        return batchItineraries;
+    }
+
+    public SearchBudget newSearchBudget() {
+        return flightsAnalysis.newSearchBudget();
+    }
+
+    public FareCalendar getFareCalendar(String fromAirport, String toAirport) {
+        return fareCalendarProvider.getCalendar(fromAirport, toAirport);
+    }
+
+    public ItineraryCacheStats getCacheStats() {
+        return itineraryCache.getStats();
+    }
+
+    /**
+     * The cached result of {@code query}; on a miss, identical queries arriving together share one search, unless
+     * the cache was invalidated in between.
+     */
+    private <T> T search(ItineraryQuery query, Supplier<T> search, Function<T, Stream<Flight>> contributingFlights,
+                         SearchBudget budget) {
+        return itineraryCache.get(query, generation -> searchCoalescer.get(query, generation, budget, search),
+                contributingFlights, budget);
+    }
+
+    private static void validate(String key, Runnable validation) {
+        try {
+            validation.run();
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(String.format("%s: %s", key, ex.getMessage()), ex);
+        }
+    }
+
+    private static <R> List<Map.Entry<String, R>> getByDateAndOrigin(Map<String, R> requests,
+                                                                    Function<R, String> date,
+                                                                    Function<R, String> fromAirport) {
+        return requests.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<String, R> entry) -> date.apply(entry.getValue()))
+                        .thenComparing(entry -> fromAirport.apply(entry.getValue())))
+                .collect(Collectors.toList());
+    }
+
+    private static int getRankedCount(long offset, int count) {
+        return (int) Math.min(Integer.MAX_VALUE, offset + count);
+    }
+
+    private static Stream<Itinerary> getPage(Itinerary[] rankedItineraries, long offset) {
+        return Arrays.stream(rankedItineraries, (int) Math.min(offset, rankedItineraries.length), rankedItineraries.length);
     }
 
-    public Itinerary[] getPriceAllRoundTrip(String fromAirport, String toAirport) {
-        return flightsAnalysis.getPriceAllRoundTrip(fromAirport, toAirport);
+    private static Stream<Flight> getFlights(Itinerary[] itineraries) {
+        return Arrays.stream(itineraries).flatMap(itinerary -> Arrays.stream(itinerary.flightsItinerary));
     }
 }
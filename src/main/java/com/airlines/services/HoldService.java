@@ -0,0 +1,169 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.FlightLeg;
+import com.airlines.model.Hold;
+import com.airlines.model.HoldRequest;
+import com.airlines.model.InventoryUpdateRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds seats on every flight of an itinerary until the hold is confirmed, released or expires.
+ * <p>
+ * Seats are taken leg by leg through the lock-free {@link InventoryService} in flight order, so two holds
+ * competing for the same flights meet on the same first leg; when a leg has too few seats the legs
+ * already taken are given back and nothing is held. Unconfirmed holds are kept in a Caffeine cache with
+ * per-entry expiry, which schedules them on its hierarchical timer wheel, and their seats are given back
+ * when they expire. Confirming, releasing and expiring all remove the hold from the cache first, so
+ * exactly one of them acts on it.
+ */
+@Service
+public class HoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+
+    private final Cache<String, ActiveHold> holds;
+
+    public HoldService(InventoryService inventoryService, FlightInventoryConfiguration flightInventoryConfiguration) {
+        this.inventoryService = inventoryService;
+        this.flightInventoryConfiguration = flightInventoryConfiguration;
+        this.holds = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, ActiveHold>() {
+                    @Override
+                    public long expireAfterCreate(String holdId, ActiveHold activeHold, long currentTime) {
+                        return activeHold.expiryNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String holdId, ActiveHold activeHold, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String holdId, ActiveHold activeHold, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .scheduler(Scheduler.systemScheduler())
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    /**
+     * @throws NoSuchElementException if a flight is not loaded
+     * @throws IllegalStateException  if a flight has fewer available seats than requested
+     */
+    public Hold hold(HoldRequest holdRequest) {
+        Map<FlightLeg, Integer> seatsByLeg = new TreeMap<>(
+                Comparator.comparing((FlightLeg leg) -> leg.flightNumber).thenComparing(leg -> leg.date));
+        for (FlightLeg leg : holdRequest.flightsItinerary) {
+            seatsByLeg.merge(leg, holdRequest.seats, Math::addExact);
+        }
+
+        List<InventoryUpdateRequest> heldLegs = new ArrayList<>(seatsByLeg.size());
+        try {
+            for (Map.Entry<FlightLeg, Integer> legSeats : seatsByLeg.entrySet()) {
+                InventoryUpdateRequest legRequest = getSeatsRequest(legSeats.getKey(), legSeats.getValue());
+                inventoryService.update(getSeatsRequest(legSeats.getKey(), -legSeats.getValue()));
+                heldLegs.add(legRequest);
+            }
+        } catch (NoSuchElementException | IllegalStateException ex) {
+            giveBack(heldLegs);
+            throw ex;
+        }
+
+        long expiryMillis = flightInventoryConfiguration.getHoldExpiryMillis();
+        Hold hold = new Hold(UUID.randomUUID().toString(), holdRequest.flightsItinerary, holdRequest.seats,
+                Instant.now().plusMillis(expiryMillis).toString(), Hold.Status.HELD);
+        holds.put(hold.holdId, new ActiveHold(hold, heldLegs, TimeUnit.MILLISECONDS.toNanos(expiryMillis)));
+        return hold;
+    }
+
+    /**
+     * @throws NoSuchElementException if the hold does not exist, was already confirmed or released, or expired
+     */
+    public Hold confirm(String holdId) {
+        ActiveHold activeHold = remove(holdId);
+        return activeHold.withStatus(Hold.Status.CONFIRMED);
+    }
+
+    /**
+     * @throws NoSuchElementException if the hold does not exist, was already confirmed or released, or expired
+     */
+    public Hold release(String holdId) {
+        ActiveHold activeHold = remove(holdId);
+        giveBack(activeHold.heldLegs);
+        return activeHold.withStatus(Hold.Status.RELEASED);
+    }
+
+    public long getActiveHoldCount() {
+        holds.cleanUp();
+        return holds.estimatedSize();
+    }
+
+    private ActiveHold remove(String holdId) {
+        ActiveHold activeHold = holds.asMap().remove(holdId);
+        if (activeHold == null) {
+            throw new NoSuchElementException(String.format("Hold %s was not found or has expired", holdId));
+        }
+        return activeHold;
+    }
+
+    private void onRemoval(String holdId, ActiveHold activeHold, RemovalCause cause) {
+        if (activeHold != null && cause == RemovalCause.EXPIRED) {
+            giveBack(activeHold.heldLegs);
+            logger.debug("Hold {} expired", holdId);
+        }
+    }
+
+    private void giveBack(List<InventoryUpdateRequest> heldLegs) {
+        for (InventoryUpdateRequest legRequest : heldLegs) {
+            inventoryService.update(legRequest);
+        }
+    }
+
+    private static InventoryUpdateRequest getSeatsRequest(FlightLeg leg, int seatsDelta) {
+        InventoryUpdateRequest request = new InventoryUpdateRequest();
+        request.flightNumber = leg.flightNumber;
+        request.date = leg.date;
+        request.seatsDelta = seatsDelta;
+        return request;
+    }
+
+    private static final class ActiveHold {
+
+        private final Hold hold;
+        private final List<InventoryUpdateRequest> heldLegs;
+        private final long expiryNanos;
+
+        ActiveHold(Hold hold, List<InventoryUpdateRequest> heldLegs, long expiryNanos) {
+            this.hold = hold;
+            this.heldLegs = heldLegs;
+            this.expiryNanos = expiryNanos;
+        }
+
+        Hold withStatus(Hold.Status status) {
+            return new Hold(hold.holdId, hold.flightsItinerary, hold.seats, hold.expiresAt, status);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.FareCalendarProvider;
+import com.airlines.dataHandlers.InventoryStore;
+import com.airlines.model.Flight;
+import com.airlines.model.InventoryUpdateRequest;
+import com.airlines.model.InventoryUpdateResult;
+import com.airlines.repositories.FlightsBulkLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * Applies seat and price changes to the {@link InventoryStore} and writes them behind to the repository.
+ * <p>
+ * With the flight graph enabled searches read the store's flights directly, so cached itineraries are
+ * invalidated as soon as a change is applied. Otherwise searches read the repository and the itineraries
+ * are invalidated once the change has been written. The fare calendars of the flight's city pair are
+ * rebuilt in the background either way.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    @Autowired
+    private InventoryStore inventoryStore;
+
+    @Autowired
+    private FlightsBulkLoader flightsBulkLoader;
+
+    @Autowired
+    private ItineraryCache itineraryCache;
+
+    @Autowired
+    private FareCalendarProvider fareCalendarProvider;
+
+    @Autowired
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+
+    public InventoryService(InventoryStore inventoryStore, FlightsBulkLoader flightsBulkLoader,
+                            ItineraryCache itineraryCache, FareCalendarProvider fareCalendarProvider,
+                            FlightInventoryConfiguration flightInventoryConfiguration) {
+        this.inventoryStore = inventoryStore;
+        this.flightsBulkLoader = flightsBulkLoader;
+        this.itineraryCache = itineraryCache;
+        this.fareCalendarProvider = fareCalendarProvider;
+        this.flightInventoryConfiguration = flightInventoryConfiguration;
+    }
+
+    /**
+     * @throws NoSuchElementException if the flight is not loaded
+     * @throws IllegalStateException  if the update would take seats or price below zero
+     */
+    public InventoryUpdateResult update(InventoryUpdateRequest request) {
+        InventoryStore.Update update = inventoryStore.apply(
+                request.flightNumber, request.date, request.seatsDelta, request.priceDelta);
+        if (flightInventoryConfiguration.isFlightGraphEnabled()) {
+            int minimumAvailableSeats = flightInventoryConfiguration.getMinimumAvailableSeats();
+            itineraryCache.invalidateFlight(update.flight,
+                    update.previousSeats >= minimumAvailableSeats != update.availableSeats >= minimumAvailableSeats);
+        }
+        fareCalendarProvider.onFlightChanged(update.flight);
+        return new InventoryUpdateResult(request.flightNumber, request.date,
+                update.availableSeats, update.price, true, null);
+    }
+
+    /**
+     * Applies every update independently; a rejected update is reported in its result and does not stop the others.
+     */
+    public List<InventoryUpdateResult> updateAll(List<InventoryUpdateRequest> requests) {
+        return requests.stream().map(request -> {
+            try {
+                return update(request);
+            } catch (NoSuchElementException | IllegalStateException ex) {
+                return new InventoryUpdateResult(request.flightNumber, request.date, 0, 0, false, ex.getMessage());
+            }
+        }).collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${inventorywritebehindmillis}", initialDelayString = "${inventorywritebehindmillis}")
+    public synchronized int writeBehind() {
+        List<Flight> dirtyFlights = inventoryStore.drainDirtyFlights();
+        if (dirtyFlights.isEmpty()) {
+            return 0;
+        }
+        int updated;
+        try {
+            updated = flightsBulkLoader.updateInventory(dirtyFlights, flightInventoryConfiguration.getBulkLoadBatchSize());
+        } catch (RuntimeException ex) {
+            inventoryStore.markDirty(dirtyFlights);
+            logger.error("Failed to write {} changed flights behind to the repository", dirtyFlights.size(), ex);
+            return 0;
+        }
+        if (!flightInventoryConfiguration.isFlightGraphEnabled()) {
+            dirtyFlights.forEach(flight -> itineraryCache.invalidateFlight(flight, true));
+        }
+        logger.debug("Wrote {} changed flights behind to the repository", updated);
+        return updated;
+    }
+
+    @PreDestroy
+    public void flush() {
+        writeBehind();
+    }
+}
@@ -0,0 +1,246 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.Flight;
+import com.airlines.model.FlightCompositeKey;
+import com.airlines.model.ItineraryCacheStats;
+import com.airlines.model.ItinerarySort;
+import com.airlines.model.SearchBudget;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Bounded cache of itinerary search results, evicting by W-TinyLFU with every entry weighted by the
+ * number of flight references it holds.
+ * <p>
+ * Every entry is indexed by the flights it was built from and by the airports of its query. A change to
+ * the seats or price of a flight invalidates the entries built from it; a flight whose seats cross the
+ * minimum available seats may add itineraries that were not there before, so that also invalidates every
+ * entry departing from or arriving at one of its airports, or every entry when searches span more than one
+ * connection. A sorted result only references its top itineraries, so any change to a flight departing from
+ * or arriving at one of its airports invalidates it, as does any change at all to a sorted search spanning more
+ * than one connection. A result computed while an invalidation ran is returned but not cached.
+ */
+@Component
+public class ItineraryCache {
+
+    @Autowired
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+
+    private final Cache<ItineraryQuery, CachedResult> cache;
+    private final Map<FlightCompositeKey, Set<ItineraryQuery>> queriesByFlight = new ConcurrentHashMap<>();
+    private final Map<String, Set<ItineraryQuery>> queriesByAirport = new ConcurrentHashMap<>();
+    private final Set<ItineraryQuery> sortedConnectionQueries = ConcurrentHashMap.newKeySet();
+    private final LongAdder invalidationCount = new LongAdder();
+    private long invalidationGeneration;
+
+    public ItineraryCache(FlightInventoryConfiguration flightInventoryConfiguration) {
+        this.flightInventoryConfiguration = flightInventoryConfiguration;
+        this.cache = flightInventoryConfiguration.isItineraryCacheEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumWeight(flightInventoryConfiguration.getItineraryCacheMaximumWeight())
+                        .weigher((ItineraryQuery query, CachedResult result) -> result.weight)
+                        .removalListener(this::onRemoval)
+                        .recordStats()
+                        .build()
+                : null;
+    }
+
+    <T> T get(ItineraryQuery query, Supplier<T> search, Function<T, Stream<Flight>> contributingFlights) {
+        return get(query, search, contributingFlights, SearchBudget.unlimited());
+    }
+
+    <T> T get(ItineraryQuery query, Supplier<T> search, Function<T, Stream<Flight>> contributingFlights,
+              SearchBudget budget) {
+        return get(query, generation -> search.get(), contributingFlights, budget);
+    }
+
+    /**
+     * The cached result of {@code query}, or the result of {@code search}, which is given the invalidation
+     * generation it starts from; a result that ran out of {@code budget} is partial and returned without being
+     * cached.
+     */
+    <T> T get(ItineraryQuery query, LongFunction<T> search, Function<T, Stream<Flight>> contributingFlights,
+              SearchBudget budget) {
+        if (cache == null) {
+            return search.apply(0);
+        }
+        CachedResult cached = cache.getIfPresent(query);
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            T value = (T) cached.value;
+            return value;
+        }
+
+        long generation = getInvalidationGeneration();
+        T value = search.apply(generation);
+        if (budget.isTruncated()) {
+            return value;
+        }
+        CachedResult result = new CachedResult(value, contributingFlights.apply(value));
+        synchronized (this) {
+            if (generation == invalidationGeneration) {
+                cache.put(query, result);
+                register(query, result);
+            }
+        }
+        return value;
+    }
+
+    ItineraryQuery getQuery(ItineraryQuery.Type type, String departureDate, String fromAirport,
+                            String returnDate, String toAirport) {
+        return getQuery(type, departureDate, fromAirport, returnDate, toAirport, null, 0);
+    }
+
+    ItineraryQuery getQuery(ItineraryQuery.Type type, String departureDate, String fromAirport,
+                            String returnDate, String toAirport, ItinerarySort sort, int limit) {
+        return new ItineraryQuery(type, departureDate, fromAirport, returnDate, toAirport, sort, limit,
+                flightInventoryConfiguration);
+    }
+
+    /**
+     * Invalidates the results affected by a change to the seats or price of a flight.
+     *
+     * @param availabilityChanged whether the flight went from below to at least the minimum available seats
+     *                            or the other way round
+     */
+    public void invalidateFlight(Flight flight, boolean availabilityChanged) {
+        if (cache == null) {
+            return;
+        }
+        if (availabilityChanged && flightInventoryConfiguration.getMaximumConnections() > 1) {
+            invalidateAll();
+            return;
+        }
+        synchronized (this) {
+            invalidationGeneration++;
+            Set<ItineraryQuery> queries = new HashSet<>(
+                    queriesByFlight.getOrDefault(new FlightCompositeKey(flight.flightNumber, flight.date), Set.of()));
+            addAirportQueries(queries, flight.fromAirport, availabilityChanged);
+            addAirportQueries(queries, flight.toAirport, availabilityChanged);
+            if (flightInventoryConfiguration.getMaximumConnections() > 1) {
+                queries.addAll(sortedConnectionQueries);
+            }
+            for (ItineraryQuery query : queries) {
+                CachedResult result = cache.asMap().remove(query);
+                if (result != null) {
+                    unregister(query, result);
+                    invalidationCount.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache == null) {
+            return;
+        }
+        synchronized (this) {
+            invalidationGeneration++;
+            invalidationCount.add(cache.estimatedSize());
+            cache.invalidateAll();
+            queriesByFlight.clear();
+            queriesByAirport.clear();
+            sortedConnectionQueries.clear();
+        }
+    }
+
+    public ItineraryCacheStats getStats() {
+        ItineraryCacheStats itineraryCacheStats = new ItineraryCacheStats();
+        itineraryCacheStats.invalidationCount = invalidationCount.sum();
+        if (cache != null) {
+            cache.cleanUp();
+            CacheStats stats = cache.stats();
+            itineraryCacheStats.hitCount = stats.hitCount();
+            itineraryCacheStats.missCount = stats.missCount();
+            itineraryCacheStats.hitRate = stats.hitRate();
+            itineraryCacheStats.evictionCount = stats.evictionCount();
+            itineraryCacheStats.evictionWeight = stats.evictionWeight();
+            itineraryCacheStats.estimatedSize = cache.estimatedSize();
+            itineraryCacheStats.weightedSize = cache.policy().eviction()
+                    .map(eviction -> eviction.weightedSize().orElse(0L))
+                    .orElse(0L);
+        }
+        return itineraryCacheStats;
+    }
+
+    private synchronized long getInvalidationGeneration() {
+        return invalidationGeneration;
+    }
+
+    private void addAirportQueries(Set<ItineraryQuery> queries, String airport, boolean availabilityChanged) {
+        for (ItineraryQuery query : queriesByAirport.getOrDefault(airport, Set.of())) {
+            if (availabilityChanged || query.isSorted()) {
+                queries.add(query);
+            }
+        }
+    }
+
+    private void register(ItineraryQuery query, CachedResult result) {
+        for (FlightCompositeKey flight : result.flights) {
+            queriesByFlight.computeIfAbsent(flight, key -> ConcurrentHashMap.newKeySet()).add(query);
+        }
+        queriesByAirport.computeIfAbsent(query.fromAirport, key -> ConcurrentHashMap.newKeySet()).add(query);
+        queriesByAirport.computeIfAbsent(query.toAirport, key -> ConcurrentHashMap.newKeySet()).add(query);
+        if (query.isSorted() && query.type == ItineraryQuery.Type.WITH_CONNECTIONS) {
+            sortedConnectionQueries.add(query);
+        }
+    }
+
+    private void unregister(ItineraryQuery query, CachedResult result) {
+        for (FlightCompositeKey flight : result.flights) {
+            removeFromIndex(queriesByFlight, flight, query);
+        }
+        removeFromIndex(queriesByAirport, query.fromAirport, query);
+        removeFromIndex(queriesByAirport, query.toAirport, query);
+        sortedConnectionQueries.remove(query);
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<ItineraryQuery>> index, K key, ItineraryQuery query) {
+        index.computeIfPresent(key, (indexKey, queries) -> {
+            queries.remove(query);
+            return queries.isEmpty() ? null : queries;
+        });
+    }
+
+    private void onRemoval(ItineraryQuery query, CachedResult result, RemovalCause cause) {
+        if (query == null || result == null || cause == RemovalCause.REPLACED || cause == RemovalCause.EXPLICIT) {
+            return;
+        }
+        synchronized (this) {
+            if (!cache.asMap().containsKey(query)) {
+                unregister(query, result);
+            }
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final Object value;
+        private final FlightCompositeKey[] flights;
+        private final int weight;
+
+        CachedResult(Object value, Stream<Flight> contributingFlights) {
+            Set<FlightCompositeKey> flightKeys = new HashSet<>();
+            long[] flightReferences = {1};
+            contributingFlights.forEach(flight -> {
+                flightKeys.add(new FlightCompositeKey(flight.flightNumber, flight.date));
+                flightReferences[0]++;
+            });
+            this.value = value;
+            this.flights = flightKeys.toArray(new FlightCompositeKey[0]);
+            this.weight = (int) Math.min(Integer.MAX_VALUE, flightReferences[0]);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.ItinerarySort;
+import java.util.Objects;
+
+/**
+ * Cache key of an itinerary search: the request parameters and the configuration values the result depends on.
+ */
+final class ItineraryQuery {
+
+    enum Type {ROUND_TRIP, WITH_CONNECTIONS, ALL_ROUND_TRIP, ALL_ROUND_TRIP_PAIRS}
+
+    final Type type;
+    final String departureDate;
+    final String fromAirport;
+    final String returnDate;
+    final String toAirport;
+    private final ItinerarySort sort;
+    private final int limit;
+    private final int waitingTimeBetweenFlights;
+    private final int minimumAvailableSeats;
+    private final int minimumDaysForRoundTrip;
+    private final int maximumConnections;
+    private final boolean flightGraphEnabled;
+
+    ItineraryQuery(Type type, String departureDate, String fromAirport, String returnDate, String toAirport,
+                   ItinerarySort sort, int limit, FlightInventoryConfiguration flightInventoryConfiguration) {
+        this.type = type;
+        this.departureDate = departureDate;
+        this.fromAirport = fromAirport;
+        this.returnDate = returnDate;
+        this.toAirport = toAirport;
+        this.sort = sort;
+        this.limit = limit;
+        this.waitingTimeBetweenFlights = flightInventoryConfiguration.getWaitingTimeBetweenFlights();
+        this.minimumAvailableSeats = flightInventoryConfiguration.getMinimumAvailableSeats();
+        this.minimumDaysForRoundTrip = flightInventoryConfiguration.getMinimumDaysForRoundTrip();
+        this.maximumConnections = flightInventoryConfiguration.getMaximumConnections();
+        this.flightGraphEnabled = flightInventoryConfiguration.isFlightGraphEnabled();
+    }
+
+    /**
+     * Whether the result holds only the top itineraries by {@code sort}, so a flight missing from it may still
+     * displace one of them.
+     */
+    boolean isSorted() {
+        return sort != null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ItineraryQuery)) {
+            return false;
+        }
+        ItineraryQuery that = (ItineraryQuery) other;
+        return type == that.type
+                && sort == that.sort
+                && limit == that.limit
+                && waitingTimeBetweenFlights == that.waitingTimeBetweenFlights
+                && minimumAvailableSeats == that.minimumAvailableSeats
+                && minimumDaysForRoundTrip == that.minimumDaysForRoundTrip
+                && maximumConnections == that.maximumConnections
+                && flightGraphEnabled == that.flightGraphEnabled
+                && Objects.equals(departureDate, that.departureDate)
+                && Objects.equals(fromAirport, that.fromAirport)
+                && Objects.equals(returnDate, that.returnDate)
+                && Objects.equals(toAirport, that.toAirport);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, departureDate, fromAirport, returnDate, toAirport, sort, limit, waitingTimeBetweenFlights,
+                minimumAvailableSeats, minimumDaysForRoundTrip, maximumConnections, flightGraphEnabled);
+    }
+
+    @Override
+    public String toString() {
+        return sort == null
+                ? String.format("%s %s %s-%s %s", type, departureDate, fromAirport, toAirport, returnDate)
+                : String.format("%s %s %s-%s %s %s %d", type, departureDate, fromAirport, toAirport, returnDate, sort, limit);
+    }
+}
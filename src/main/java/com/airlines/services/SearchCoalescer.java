@@ -0,0 +1,118 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.AirlineMetrics;
+import com.airlines.model.SearchBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent itinerary searches.
+ * <p>
+ * The first request for a query runs the search; requests for the same query arriving while it runs wait for it
+ * and receive its result, or its exception, instead of running the repository queries and the join again. A
+ * search is shared only while it runs, so a completed search is never served from here, and a waiting request
+ * whose leader ran out of its budget has its own budget stopped at the same limit, so its result is flagged
+ * partial as well.
+ * <p>
+ * A search is only joined by requests starting from its invalidation generation of the itinerary cache, or an
+ * earlier one. A request arriving after an invalidation runs a new search and takes the place of the one in
+ * flight, so a result read before a change to the inventory is never handed to, nor cached by, a later request.
+ */
+@Component
+public class SearchCoalescer {
+
+    @Autowired
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+
+    @Autowired
+    private AirlineMetrics airlineMetrics;
+
+    private final Map<ItineraryQuery, SearchInFlight> searchesInFlight = new ConcurrentHashMap<>();
+
+    public SearchCoalescer(FlightInventoryConfiguration flightInventoryConfiguration, AirlineMetrics airlineMetrics) {
+        this.flightInventoryConfiguration = flightInventoryConfiguration;
+        this.airlineMetrics = airlineMetrics;
+    }
+
+    /**
+     * @param generation the invalidation generation of the itinerary cache the request starts from
+     */
+    <T> T get(ItineraryQuery query, long generation, SearchBudget budget, Supplier<T> search) {
+        String type = query.type.name();
+        if (!flightInventoryConfiguration.isSearchCoalescingEnabled()) {
+            airlineMetrics.recordSearchRequest(type, false);
+            return search.get();
+        }
+
+        SearchInFlight searchInFlight = new SearchInFlight(generation);
+        SearchInFlight leaderSearch = searchesInFlight.compute(query, (key, current) ->
+                current != null && current.generation >= generation ? current : searchInFlight);
+        if (leaderSearch != searchInFlight) {
+            airlineMetrics.recordSearchRequest(type, true);
+            SharedResult result = join(leaderSearch.result);
+            if (result.exceededLimit != null) {
+                budget.exceed(result.exceededLimit);
+            }
+            @SuppressWarnings("unchecked")
+            T value = (T) result.value;
+            return value;
+        }
+
+        airlineMetrics.recordSearchRequest(type, false);
+        try {
+            T value = search.get();
+            searchInFlight.result.complete(new SharedResult(value, budget.getExceededLimit()));
+            return value;
+        } catch (RuntimeException | Error ex) {
+            searchInFlight.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            searchesInFlight.remove(query, searchInFlight);
+        }
+    }
+
+    int getSearchesInFlight() {
+        return searchesInFlight.size();
+    }
+
+    private static SharedResult join(CompletableFuture<SharedResult> leaderSearch) {
+        try {
+            return leaderSearch.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static final class SearchInFlight {
+
+        private final long generation;
+        private final CompletableFuture<SharedResult> result = new CompletableFuture<>();
+
+        SearchInFlight(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    private static final class SharedResult {
+
+        private final Object value;
+        private final SearchBudget.Limit exceededLimit;
+
+        SharedResult(Object value, SearchBudget.Limit exceededLimit) {
+            this.value = value;
+            this.exceededLimit = exceededLimit;
+        }
+    }
+}
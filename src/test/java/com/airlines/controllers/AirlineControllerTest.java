@@ -1,14 +1,36 @@
 package com.airlines.controllers;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import com.airlines.dataHandlers.AirlineMetrics;
 import com.airlines.model.AllRoundTripRequest;
+import com.airlines.model.BatchItineraries;
+import com.airlines.model.BatchItineraryRequest;
+import com.airlines.model.CompactItineraries;
+import com.airlines.model.FareCalendar;
+import com.airlines.model.FareCalendarEntry;
+import com.airlines.model.Flight;
 import com.airlines.model.Itinerary;
+import com.airlines.model.ItineraryCacheStats;
+import com.airlines.model.ItinerarySort;
 import com.airlines.model.RoundTripRequest;
+import com.airlines.model.SearchBudget;
 import com.airlines.model.WithConnectionsRequest;
 import com.airlines.services.FlightItineraryService;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -20,6 +42,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.util.Date;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(AirlineController.class)
@@ -32,6 +58,16 @@ class AirlineControllerTest {
     @MockBean
     private FlightItineraryService flightItineraryService;
 
+    @MockBean
+    private AirlineMetrics airlineMetrics;
+
+    private final SearchBudget searchBudget = SearchBudget.unlimited();
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(flightItineraryService.newSearchBudget()).thenReturn(searchBudget);
+    }
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     AirlineControllerTest() {
@@ -51,7 +87,7 @@ class AirlineControllerTest {
             {"2022-01-12| JFK| 2022-01-14| MEX"})
     void priceRoundTripHappyPath(String departureDate, String fromAirport, String returnDate, String toAirport) throws Exception {
 
-        Mockito.when(flightItineraryService.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport))
+        Mockito.when(flightItineraryService.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, searchBudget))
                 .thenReturn(new Itinerary[1]);
         String roundTripRequestAsString =
                 getRoundTripRequest(departureDate, fromAirport, returnDate, toAirport);
@@ -93,7 +129,7 @@ class AirlineControllerTest {
             {"2022-08-14| TLV| MEX"})
     void priceWithConnectionsHappyPath(String departureDate, String fromAirport, String toAirport) throws Exception {
 
-        Mockito.when(flightItineraryService.getPriceWithConnections(departureDate, fromAirport, toAirport))
+        Mockito.when(flightItineraryService.getPriceWithConnections(departureDate, fromAirport, toAirport, searchBudget))
                 .thenReturn(new Itinerary[1]);
         String withConnectionsRequestAsString =
                 getWithConnectionsRequest(departureDate, fromAirport, toAirport);
@@ -132,7 +168,7 @@ class AirlineControllerTest {
             {"JFK| MEX"})
     void priceAllRoundTripHappyPath(String fromAirport, String toAirport) throws Exception {
 
-        Mockito.when(flightItineraryService.getPriceAllRoundTrip(fromAirport, toAirport))
+        Mockito.when(flightItineraryService.getPriceAllRoundTrip(fromAirport, toAirport, searchBudget))
                 .thenReturn(new Itinerary[1]);
         String allRoundTripRequestAsString =
                 getAllRoundTripRequest(fromAirport, toAirport);
@@ -158,4 +194,447 @@ class AirlineControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
-}
\ No newline at end of file
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| 4"})
+    void priceAllRoundTripCompact(String fromAirport, String toAirport, int returnFlights) throws Exception {
+        Flight departure = getFlight("1010", 100, 0);
+        Itinerary[] itineraries = new Itinerary[returnFlights];
+        for (int i = 0; i < returnFlights; i++) {
+            itineraries[i] = new Itinerary(departure, getFlight(String.valueOf(2000 + i), 50 + i, 2 * 24 * 60));
+        }
+        Mockito.when(flightItineraryService.getPriceAllRoundTrip(fromAirport, toAirport, searchBudget))
+                .thenReturn(itineraries);
+
+        this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .accept(CompactItineraries.MEDIA_TYPE)
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CompactItineraries.MEDIA_TYPE))
+                .andExpect(jsonPath("$.flights.length()").value(returnFlights + 1))
+                .andExpect(jsonPath("$.flights[0].flightNumber").value("1010"))
+                .andExpect(jsonPath("$.itineraries.length()").value(returnFlights))
+                .andExpect(jsonPath("$.itineraries[*].flights[0]").value(Matchers.everyItem(Matchers.is(0))))
+                .andExpect(jsonPath("$.itineraries[1].flights[1]").value(2))
+                .andExpect(jsonPath("$.itineraries[1].totalPrice").value(151.0))
+                .andExpect(jsonPath("$.itineraries[1].totalDurationMinutes").value(2 * 24 * 60 + 60));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| application/cbor| 3",
+                    "JFK| MEX| application/x-jackson-smile| 3",
+                    "JFK| MEX| application/json| 3"})
+    void priceAllRoundTripEncoding(String fromAirport, String toAirport, String mediaType, int count) throws Exception {
+        Itinerary[] itineraries = getItineraries(0, count).toArray(Itinerary[]::new);
+        Mockito.when(flightItineraryService.getPriceAllRoundTrip(fromAirport, toAirport, searchBudget))
+                .thenReturn(itineraries);
+
+        MvcResult result = this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .accept(mediaType)
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn();
+
+        JsonNode body = getMapper(mediaType).readTree(result.getResponse().getContentAsByteArray());
+        Assertions.assertEquals(count, body.size());
+        Assertions.assertEquals("2", body.get(2).get("flightsItinerary").get(0).get("flightNumber").asText());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| application/cbor| 5| 2",
+                    "JFK| MEX| application/x-jackson-smile| 5| 2"})
+    void priceAllRoundTripPageEncoding(String fromAirport, String toAirport, String mediaType, long count, int limit) throws Exception {
+        Mockito.when(flightItineraryService.streamPriceAllRoundTrip(fromAirport, toAirport, 0, searchBudget))
+                .thenReturn(getItineraries(0, count));
+
+        MvcResult result = this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .param("limit", String.valueOf(limit))
+                        .accept(mediaType)
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn();
+
+        JsonNode body = getMapper(mediaType).readTree(result.getResponse().getContentAsByteArray());
+        Assertions.assertEquals(limit, body.get("itineraries").size());
+        Assertions.assertEquals(ItineraryCursor.encode(limit), body.get("nextCursor").asText());
+    }
+
+    private static ObjectMapper getMapper(String mediaType) {
+        JsonFactory factory = mediaType.equals(MediaType.APPLICATION_CBOR_VALUE) ? new CBORFactory()
+                : mediaType.equals(AirlineController.APPLICATION_SMILE_VALUE) ? new SmileFactory()
+                : new JsonFactory();
+        return new ObjectMapper(factory);
+    }
+
+    private Flight getFlight(String flightNumber, double price, long departureMinute) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.price = price;
+        flight.duration = 60;
+        flight.dateTimeUTC = new Date(departureMinute * 60_000L);
+        return flight;
+    }
+
+    private Stream<Itinerary> getItineraries(long offset, long count) {
+        return LongStream.range(offset, count).mapToObj(index -> {
+            Flight flight = new Flight();
+            flight.flightNumber = String.valueOf(index);
+            return new Itinerary(flight);
+        });
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| 5| 2| 2| true",
+                    "JFK| MEX| 5| 3| 3| true",
+                    "JFK| MEX| 5| 5| 5| false",
+                    "JFK| MEX| 5| 10| 5| false"})
+    void priceAllRoundTripFirstPage(String fromAirport, String toAirport, long count, int limit, int pageSize, boolean hasNextPage) throws Exception {
+
+        Mockito.when(flightItineraryService.streamPriceAllRoundTrip(fromAirport, toAirport, 0, searchBudget))
+                .thenReturn(getItineraries(0, count));
+
+        this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .param("limit", String.valueOf(limit))
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itineraries.length()").value(pageSize))
+                .andExpect(hasNextPage
+                        ? jsonPath("$.nextCursor").value(ItineraryCursor.encode(limit))
+                        : jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| 5| 3| 2"})
+    void priceAllRoundTripNextPage(String fromAirport, String toAirport, long count, long offset, int pageSize) throws Exception {
+
+        Mockito.when(flightItineraryService.streamPriceAllRoundTrip(fromAirport, toAirport, offset, searchBudget))
+                .thenReturn(getItineraries(offset, count));
+
+        this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .param("limit", "10")
+                        .param("cursor", ItineraryCursor.encode(offset))
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itineraries.length()").value(pageSize))
+                .andExpect(jsonPath("$.itineraries[0].flightsItinerary[0].flightNumber").value(String.valueOf(offset)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| PRICE| 0| 3",
+                    "JFK| MEX| DURATION| 6| 3",
+                    "JFK| MEX| LEGS| 3| 5"})
+    void priceAllRoundTripSortedPage(String fromAirport, String toAirport, ItinerarySort sort, long offset, int limit) throws Exception {
+
+        Mockito.when(flightItineraryService.streamPriceAllRoundTrip(fromAirport, toAirport, sort, offset, limit + 1, searchBudget))
+                .thenReturn(getItineraries(offset, offset + limit + 1));
+
+        this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .param("limit", String.valueOf(limit))
+                        .param("cursor", offset == 0 ? "" : ItineraryCursor.encode(offset))
+                        .param("sort", sort.name())
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itineraries.length()").value(limit))
+                .andExpect(jsonPath("$.nextCursor").value(ItineraryCursor.encode(offset + limit)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| 5| 1| 3"})
+    void priceAllRoundTripUnsortedPartialPage(String fromAirport, String toAirport, long count, long maximumItineraries,
+                                              int limit) throws Exception {
+
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, maximumItineraries, 0);
+        Mockito.when(flightItineraryService.newSearchBudget()).thenReturn(budget);
+        Mockito.when(flightItineraryService.streamPriceAllRoundTrip(fromAirport, toAirport, 0, budget))
+                .thenReturn(getItineraries(0, count).takeWhile(itinerary -> budget.tryEmit()));
+
+        this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .param("limit", String.valueOf(limit))
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AirlineController.SEARCH_PARTIAL_HEADER, SearchBudget.Limit.ITINERARIES.name()))
+                .andExpect(jsonPath("$.itineraries.length()").value(maximumItineraries))
+                .andExpect(jsonPath("$.partial").value(true));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| PRICE| 2| 3"})
+    void priceAllRoundTripPartialPage(String fromAirport, String toAirport, ItinerarySort sort, long count, int limit) throws Exception {
+
+        SearchBudget exhaustedBudget = new SearchBudget(Long.MAX_VALUE, 0, 0);
+        exhaustedBudget.tryEmit();
+        Mockito.when(flightItineraryService.newSearchBudget()).thenReturn(exhaustedBudget);
+        Mockito.when(flightItineraryService.streamPriceAllRoundTrip(fromAirport, toAirport, sort, 0, limit + 1, exhaustedBudget))
+                .thenReturn(getItineraries(0, count));
+
+        this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .param("limit", String.valueOf(limit))
+                        .param("sort", sort.name())
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AirlineController.SEARCH_PARTIAL_HEADER, SearchBudget.Limit.ITINERARIES.name()))
+                .andExpect(jsonPath("$.itineraries.length()").value(count))
+                .andExpect(jsonPath("$.partial").value(true));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX| PRICE| 200",
+                    "2022-08-14| TLV| MEX| price| 400",
+                    "2022-08-14| TLV| MEX| CHEAPEST| 400"})
+    void priceWithConnectionsSorted(String departureDate, String fromAirport, String toAirport, String sort, int expectedStatus) throws Exception {
+
+        Mockito.when(flightItineraryService.getPriceWithConnections(departureDate, fromAirport, toAirport,
+                        ItinerarySort.PRICE, Integer.MAX_VALUE, searchBudget))
+                .thenReturn(getItineraries(0, 3).toArray(Itinerary[]::new));
+
+        this.mockMvc.perform(get("/itinerary/priceWithConnections")
+                        .param("sort", sort)
+                        .content(getWithConnectionsRequest(departureDate, fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().is(expectedStatus))
+                .andExpect(expectedStatus == 200 ? jsonPath("$.length()").value(3) : status().is(expectedStatus));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"0| ",
+                    "1001| ",
+                    "10| not-a-cursor",
+                    "10| b2Zmc2V0Oi0x"})
+    void priceAllRoundTripPageValidationError(int limit, String cursor) throws Exception {
+
+        this.mockMvc.perform(get("/itinerary/priceAllRoundTrip")
+                        .param("limit", String.valueOf(limit))
+                        .param("cursor", cursor == null ? "" : cursor)
+                        .content(getAllRoundTripRequest("JFK", "MEX"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX| 3"})
+    void priceWithConnectionsStream(String departureDate, String fromAirport, String toAirport, long count) throws Exception {
+
+        Mockito.when(flightItineraryService.streamPriceWithConnections(departureDate, fromAirport, toAirport, 0, searchBudget))
+                .thenReturn(getItineraries(0, count));
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/itinerary/priceWithConnections")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(getWithConnectionsRequest(departureDate, fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String responseBody = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = responseBody.split("\n");
+        Assertions.assertEquals(count, lines.length);
+        for (String line : lines) {
+            objectMapper.readTree(line);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX| 3"})
+    void priceWithConnectionsStreamPartial(String departureDate, String fromAirport, String toAirport, long count) throws Exception {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, count, 0);
+        Mockito.when(flightItineraryService.newSearchBudget()).thenReturn(budget);
+        Mockito.when(flightItineraryService.streamPriceWithConnections(departureDate, fromAirport, toAirport, 0, budget))
+                .thenReturn(getItineraries(0, count + 1).filter(itinerary -> budget.tryEmit()));
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/itinerary/priceWithConnections")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(getWithConnectionsRequest(departureDate, fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String responseBody = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = responseBody.split("\n");
+        Assertions.assertEquals(count + 1, lines.length);
+        Assertions.assertEquals(SearchBudget.Limit.ITINERARIES.name(),
+                objectMapper.readTree(lines[lines.length - 1]).get("partial").asText());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-01-12| JFK| 2022-01-14| MEX| 4| 2"})
+    void priceRoundTripStreamWithLimit(String departureDate, String fromAirport, String returnDate, String toAirport, long count, int limit) throws Exception {
+
+        Mockito.when(flightItineraryService.streamPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, 0, searchBudget))
+                .thenReturn(getItineraries(0, count));
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/itinerary/priceRoundTrip")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("limit", String.valueOf(limit))
+                        .content(getRoundTripRequest(departureDate, fromAirport, returnDate, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String responseBody = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertEquals(limit, responseBody.split("\n").length);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"TLV| MAD| 200",
+                    "TLVX| MAD| 400"})
+    void fareCalendar(String fromAirport, String toAirport, int expectedStatus) throws Exception {
+        Mockito.when(flightItineraryService.getFareCalendar(fromAirport, toAirport))
+                .thenReturn(new FareCalendar(fromAirport, toAirport, new FareCalendarEntry[]{
+                        new FareCalendarEntry("2022-01-01", "2022-01-05", 150.0, "1010", "1011")}));
+
+        this.mockMvc.perform(get("/itinerary/fareCalendar")
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().is(expectedStatus))
+                .andExpect(expectedStatus == 200
+                        ? jsonPath("$.fares[0].price").value(150.0)
+                        : status().is(expectedStatus));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"12| 3| 2"})
+    void cacheStats(long hitCount, long missCount, long invalidationCount) throws Exception {
+        ItineraryCacheStats itineraryCacheStats = new ItineraryCacheStats();
+        itineraryCacheStats.hitCount = hitCount;
+        itineraryCacheStats.missCount = missCount;
+        itineraryCacheStats.invalidationCount = invalidationCount;
+        Mockito.when(flightItineraryService.getCacheStats()).thenReturn(itineraryCacheStats);
+
+        this.mockMvc.perform(get("/itinerary/cacheStats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount").value(hitCount))
+                .andExpect(jsonPath("$.missCount").value(missCount))
+                .andExpect(jsonPath("$.invalidationCount").value(invalidationCount));
+    }
+
+    private BatchItineraryRequest getBatchRequest(int roundTrips, int withConnections) {
+        BatchItineraryRequest batchItineraryRequest = new BatchItineraryRequest();
+        for (int index = 0; index < roundTrips; index++) {
+            RoundTripRequest roundTripRequest = new RoundTripRequest();
+            roundTripRequest.departureDate = "2022-01-12";
+            roundTripRequest.fromAirport = "JFK";
+            roundTripRequest.returnDate = "2022-01-14";
+            roundTripRequest.toAirport = "MEX";
+            batchItineraryRequest.roundTrips.put("roundTrip" + index, roundTripRequest);
+        }
+        for (int index = 0; index < withConnections; index++) {
+            WithConnectionsRequest withConnectionsRequest = new WithConnectionsRequest();
+            withConnectionsRequest.date = "2022-08-14";
+            withConnectionsRequest.fromAirport = "TLV";
+            withConnectionsRequest.toAirport = "MEX";
+            batchItineraryRequest.withConnections.put("withConnections" + index, withConnectionsRequest);
+        }
+        return batchItineraryRequest;
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"1| 1| 200",
+                    "1000| 0| 200",
+                    "0| 0| 400",
+                    "1000| 1| 400"})
+    void priceBatch(int roundTrips, int withConnections, int expectedStatus) throws Exception {
+        BatchItineraryRequest batchItineraryRequest = getBatchRequest(roundTrips, withConnections);
+        BatchItineraries batchItineraries = new BatchItineraries();
+        batchItineraryRequest.roundTrips.keySet().forEach(key -> batchItineraries.roundTrips.put(key, new Itinerary[0]));
+        batchItineraryRequest.withConnections.keySet().forEach(key -> batchItineraries.withConnections.put(key, new Itinerary[0]));
+        Mockito.when(flightItineraryService.getPriceBatch(Mockito.any(), Mockito.eq(searchBudget)))
+                .thenReturn(batchItineraries);
+
+        this.mockMvc.perform(get("/itinerary/priceBatch")
+                        .content(objectMapper.writeValueAsString(batchItineraryRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().is(expectedStatus))
+                .andExpect(expectedStatus == 200
+                        ? jsonPath("$.roundTrips.length()").value(roundTrips)
+                        : status().is(expectedStatus))
+                .andExpect(header().doesNotExist(AirlineController.SEARCH_PARTIAL_HEADER));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-0112| JFK| MEX",
+                    "2022-01-12| FK| MEX",
+                    "2022-01-12| JFK| MX"})
+    void priceBatchValidationError(String departureDate, String fromAirport, String toAirport) throws Exception {
+        BatchItineraryRequest batchItineraryRequest = getBatchRequest(2, 0);
+        RoundTripRequest roundTripRequest = batchItineraryRequest.roundTrips.get("roundTrip1");
+        roundTripRequest.departureDate = departureDate;
+        roundTripRequest.fromAirport = fromAirport;
+        roundTripRequest.toAirport = toAirport;
+
+        this.mockMvc.perform(get("/itinerary/priceBatch")
+                        .content(objectMapper.writeValueAsString(batchItineraryRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(flightItineraryService, Mockito.times(0)).getPriceBatch(Mockito.any(), Mockito.any());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"roundTrip0: Return date is before departure date"})
+    void priceBatchInvalidDates(String message) throws Exception {
+        Mockito.when(flightItineraryService.getPriceBatch(Mockito.any(), Mockito.eq(searchBudget)))
+                .thenThrow(new IllegalArgumentException(message));
+
+        this.mockMvc.perform(get("/itinerary/priceBatch")
+                        .content(objectMapper.writeValueAsString(getBatchRequest(1, 0)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2| 1"})
+    void priceBatchPartial(int roundTrips, int withConnections) throws Exception {
+        SearchBudget exhaustedBudget = new SearchBudget(Long.MAX_VALUE, 0, 0);
+        Mockito.when(flightItineraryService.newSearchBudget()).thenReturn(exhaustedBudget);
+        BatchItineraries batchItineraries = new BatchItineraries();
+        batchItineraries.partialRoundTrips.add("roundTrip1");
+        Mockito.when(flightItineraryService.getPriceBatch(Mockito.any(), Mockito.eq(exhaustedBudget)))
+                .thenAnswer(invocation -> {
+                    exhaustedBudget.tryEmit();
+                    return batchItineraries;
+                });
+
+        this.mockMvc.perform(get("/itinerary/priceBatch")
+                        .content(objectMapper.writeValueAsString(getBatchRequest(roundTrips, withConnections)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AirlineController.SEARCH_PARTIAL_HEADER, SearchBudget.Limit.ITINERARIES.name()))
+                .andExpect(jsonPath("$.partialRoundTrips[0]").value("roundTrip1"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.airlines.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import com.airlines.model.FlightLeg;
+import com.airlines.model.Hold;
+import com.airlines.services.HoldService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.NoSuchElementException;
+
+@WebMvcTest(HoldController.class)
+class HoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private HoldService holdService;
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '\'', value =
+            {
+                    "{\"flightsItinerary\":[{\"flightNumber\":\"1010\",\"date\":\"2022-01-01\",\"price\":565.0}],\"seats\":2}' 200",
+                    "{\"flightsItinerary\":[{\"flightNumber\":\"1010\",\"date\":\"2022-01-01\"}]}' 200",
+                    "{\"flightsItinerary\":[],\"seats\":1}' 400",
+                    "{\"flightsItinerary\":[{\"flightNumber\":\"1010\",\"date\":\"2022/01/01\"}]}' 400",
+                    "{\"flightsItinerary\":[{\"flightNumber\":\"1010\",\"date\":\"2022-01-01\"}],\"seats\":0}' 400",
+                    "{\"flightsItinerary\":[{\"flightNumber\":\"1010\",\"date\":\"2022-01-01\"}],\"seats\":9}' 200",
+                    "{\"flightsItinerary\":[{\"flightNumber\":\"1010\",\"date\":\"2022-01-01\"}],\"seats\":2147483647}' 400"})
+    void hold(String body, int expectedStatus) throws Exception {
+        Mockito.when(holdService.hold(ArgumentMatchers.any())).thenAnswer(invocation -> getHold(Hold.Status.HELD));
+
+        mockMvc.perform(post("/hold").contentType(MediaType.APPLICATION_JSON).content(body.trim()))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    void holdWithoutSeats() throws Exception {
+        Mockito.when(holdService.hold(ArgumentMatchers.any()))
+                .thenThrow(new IllegalStateException("Flight 1010 on 2022-01-01 has 0 available seats, 1 requested"));
+
+        mockMvc.perform(post("/hold").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"flightsItinerary\":[{\"flightNumber\":\"1010\",\"date\":\"2022-01-01\"}]}"))
+                .andExpect(status().isConflict());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "confirm | CONFIRMED",
+                    "release | RELEASED"})
+    void confirmAndRelease(String action, Hold.Status status) throws Exception {
+        Mockito.when(holdService.confirm("1")).thenReturn(getHold(Hold.Status.CONFIRMED));
+        Mockito.when(holdService.release("1")).thenReturn(getHold(Hold.Status.RELEASED));
+        Mockito.when(holdService.confirm("2")).thenThrow(new NoSuchElementException("Hold 2 was not found or has expired"));
+        Mockito.when(holdService.release("2")).thenThrow(new NoSuchElementException("Hold 2 was not found or has expired"));
+
+        mockMvc.perform(post("/hold/1/" + action))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(status.name()));
+        mockMvc.perform(post("/hold/2/" + action))
+                .andExpect(status().isNotFound());
+    }
+
+    private static Hold getHold(Hold.Status status) {
+        return new Hold("1", new FlightLeg[]{new FlightLeg("1010", "2022-01-01")}, 1, "2022-01-01T00:00:00Z", status);
+    }
+}
@@ -0,0 +1,126 @@
+package com.airlines.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import com.airlines.model.InventoryUpdateRequest;
+import com.airlines.model.InventoryUpdateResult;
+import com.airlines.services.InventoryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@WebMvcTest(InventoryController.class)
+class InventoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1010 | 2022-01-01 | 200",
+                    "1010 | 2022/01/01 | 400",
+                    "     | 2022-01-01 | 400"})
+    void update(String flightNumber, String date, int expectedStatus) throws Exception {
+        Mockito.when(inventoryService.update(ArgumentMatchers.any()))
+                .thenReturn(new InventoryUpdateResult(flightNumber, date, 4, 565.0, true, null));
+
+        mockMvc.perform(post("/inventory/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(getRequest(flightNumber, date)))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @Test
+    void updateReturnsResult() throws Exception {
+        Mockito.when(inventoryService.update(ArgumentMatchers.any()))
+                .thenReturn(new InventoryUpdateResult("1010", "2022-01-01", 4, 565.0, true, null));
+
+        mockMvc.perform(post("/inventory/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(getRequest("1010", "2022-01-01")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableSeats").value(4))
+                .andExpect(jsonPath("$.price").value(565.0))
+                .andExpect(jsonPath("$.applied").value(true));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "notFound | 404",
+                    "conflict | 409"})
+    void updateRejected(String rejection, int expectedStatus) throws Exception {
+        Mockito.when(inventoryService.update(ArgumentMatchers.any())).thenThrow(rejection.equals("notFound")
+                ? new NoSuchElementException("No flight 1010 on 2022-01-01")
+                : new IllegalStateException("Flight 1010 on 2022-01-01 has 0 available seats, 1 requested"));
+
+        mockMvc.perform(post("/inventory/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(getRequest("1010", "2022-01-01")))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, InventoryController.MAXIMUM_BATCH_SIZE, InventoryController.MAXIMUM_BATCH_SIZE + 1})
+    void updateBatch(int batchSize) throws Exception {
+        Mockito.when(inventoryService.updateAll(ArgumentMatchers.anyList())).thenAnswer(invocation ->
+                Collections.nCopies(((List<?>) invocation.getArgument(0)).size(),
+                        new InventoryUpdateResult("1010", "2022-01-01", 4, 565.0, true, null)));
+        InventoryUpdateRequest request = new InventoryUpdateRequest();
+        request.flightNumber = "1010";
+        request.date = "2022-01-01";
+        request.seatsDelta = -1;
+
+        boolean valid = batchSize >= 1 && batchSize <= InventoryController.MAXIMUM_BATCH_SIZE;
+        mockMvc.perform(post("/inventory/updateBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Collections.nCopies(batchSize, request))))
+                .andExpect(valid ? status().isOk() : status().isBadRequest())
+                .andExpect(valid ? jsonPath("$.length()").value(batchSize) : status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1010 | 2022-01-01 | 200",
+                    "     | 2022-01-01 | 400",
+                    "1010 | 2022/01/01 | 400"})
+    void updateBatchValidatesEveryRequest(String flightNumber, String date, int expectedStatus) throws Exception {
+        Mockito.when(inventoryService.updateAll(ArgumentMatchers.anyList())).thenAnswer(invocation ->
+                Collections.nCopies(((List<?>) invocation.getArgument(0)).size(),
+                        new InventoryUpdateResult("1010", "2022-01-01", 4, 565.0, true, null)));
+
+        mockMvc.perform(post("/inventory/updateBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + getRequest("1011", "2022-01-01") + "," + getRequest(flightNumber, date) + "]"))
+                .andExpect(status().is(expectedStatus));
+    }
+
+    private String getRequest(String flightNumber, String date) throws JsonProcessingException {
+        InventoryUpdateRequest request = new InventoryUpdateRequest();
+        request.flightNumber = flightNumber;
+        request.date = date;
+        request.seatsDelta = -1;
+        return objectMapper.writeValueAsString(request);
+    }
+}
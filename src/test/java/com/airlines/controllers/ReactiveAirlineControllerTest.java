@@ -0,0 +1,183 @@
+package com.airlines.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import com.airlines.model.AllRoundTripRequest;
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.model.ItinerarySort;
+import com.airlines.model.SearchBudget;
+import com.airlines.model.WithConnectionsRequest;
+import com.airlines.services.FlightItineraryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(ReactiveAirlineController.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveAirlineControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FlightItineraryService flightItineraryService;
+
+    private final SearchBudget searchBudget = SearchBudget.unlimited();
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(flightItineraryService.newSearchBudget()).thenReturn(searchBudget);
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String getWithConnectionsRequest(String date, String fromAirport, String toAirport) throws JsonProcessingException {
+        WithConnectionsRequest withConnectionsRequest = new WithConnectionsRequest();
+        withConnectionsRequest.date = date;
+        withConnectionsRequest.fromAirport = fromAirport;
+        withConnectionsRequest.toAirport = toAirport;
+        return objectMapper.writeValueAsString(withConnectionsRequest);
+    }
+
+    private String getAllRoundTripRequest(String fromAirport, String toAirport) throws JsonProcessingException {
+        AllRoundTripRequest allRoundTripRequest = new AllRoundTripRequest();
+        allRoundTripRequest.fromAirport = fromAirport;
+        allRoundTripRequest.toAirport = toAirport;
+        return objectMapper.writeValueAsString(allRoundTripRequest);
+    }
+
+    private Stream<Itinerary> getItineraries(long offset, long count) {
+        return LongStream.range(offset, count).mapToObj(index -> {
+            Flight flight = new Flight();
+            flight.flightNumber = String.valueOf(index);
+            return new Itinerary(flight);
+        });
+    }
+
+    /**
+     * Dispatches the searched {@code ResponseEntity}, then waits for the streamed body it starts writing.
+     */
+    private String getResponseBody(MvcResult mvcResult, MediaType mediaType) throws Exception {
+        MvcResult streamResult = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        streamResult.getAsyncResult(5_000);
+        Assertions.assertEquals(200, streamResult.getResponse().getStatus());
+        Assertions.assertTrue(mediaType.isCompatibleWith(MediaType.parseMediaType(streamResult.getResponse().getContentType())));
+        return streamResult.getResponse().getContentAsString();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX| 3"})
+    void priceWithConnectionsNdjson(String date, String fromAirport, String toAirport, long count) throws Exception {
+        Mockito.when(flightItineraryService.streamPriceWithConnections(date, fromAirport, toAirport, 0, searchBudget))
+                .thenReturn(getItineraries(0, count));
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/itinerary/reactive/priceWithConnections")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(getWithConnectionsRequest(date, fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = getResponseBody(mvcResult, MediaType.APPLICATION_NDJSON).split("\n");
+        Assertions.assertEquals(count, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            Assertions.assertEquals(String.valueOf(i),
+                    objectMapper.readTree(lines[i]).get("flightsItinerary").get(0).get("flightNumber").asText());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX| 3"})
+    void priceWithConnectionsNdjsonPartial(String date, String fromAirport, String toAirport, long count) throws Exception {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, count, 0);
+        Mockito.when(flightItineraryService.newSearchBudget()).thenReturn(budget);
+        Mockito.when(flightItineraryService.streamPriceWithConnections(date, fromAirport, toAirport, 0, budget))
+                .thenReturn(getItineraries(0, count + 1).filter(itinerary -> budget.tryEmit()));
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/itinerary/reactive/priceWithConnections")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(getWithConnectionsRequest(date, fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = getResponseBody(mvcResult, MediaType.APPLICATION_NDJSON).split("\n");
+        Assertions.assertEquals(count + 1, lines.length);
+        Assertions.assertEquals(SearchBudget.Limit.ITINERARIES.name(),
+                objectMapper.readTree(lines[lines.length - 1]).get("partial").asText());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"TLV| MEX| PRICE| 10| 4"})
+    void priceAllRoundTripEventStream(String fromAirport, String toAirport, ItinerarySort sort, long count, int limit) throws Exception {
+        Mockito.when(flightItineraryService.streamPriceAllRoundTrip(fromAirport, toAirport, sort, 0, limit, searchBudget))
+                .thenReturn(getItineraries(0, count));
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/itinerary/reactive/priceAllRoundTrip")
+                        .param("limit", String.valueOf(limit))
+                        .param("sort", sort.name())
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(getAllRoundTripRequest(fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String responseBody = getResponseBody(mvcResult, MediaType.TEXT_EVENT_STREAM);
+        Assertions.assertEquals(limit, responseBody.split("data:", -1).length - 1);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX| 0",
+                    "2022-08-14| TLV| MEX| 1001"})
+    void priceWithConnectionsLimitValidationError(String date, String fromAirport, String toAirport, int limit) throws Exception {
+        this.mockMvc.perform(get("/itinerary/reactive/priceWithConnections")
+                        .param("limit", String.valueOf(limit))
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(getWithConnectionsRequest(date, fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX"})
+    void priceWithConnectionsSearchError(String date, String fromAirport, String toAirport) throws Exception {
+        Mockito.when(flightItineraryService.streamPriceWithConnections(date, fromAirport, toAirport, 0, searchBudget))
+                .thenThrow(new IllegalArgumentException("Departure date is not valid"));
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/itinerary/reactive/priceWithConnections")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(getWithConnectionsRequest(date, fromAirport, toAirport))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -0,0 +1,93 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.FareCalendar;
+import com.airlines.model.Flight;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+class FareCalendarProviderTest {
+
+    private FareCalendarProvider fareCalendarProvider;
+    private Flight departure;
+    private Flight cheapReturn;
+
+    @BeforeEach
+    public void setUp() {
+        FlightInventoryConfiguration flightInventoryConfiguration = Mockito.mock(FlightInventoryConfiguration.class);
+        Mockito.when(flightInventoryConfiguration.getMinimumDaysForRoundTrip()).thenReturn(1);
+        Mockito.when(flightInventoryConfiguration.getFareCalendarMaximumStayDays()).thenReturn(30);
+        Mockito.when(flightInventoryConfiguration.getMinimumAvailableSeats()).thenReturn(1);
+        fareCalendarProvider = new FareCalendarProvider(flightInventoryConfiguration);
+
+        departure = getFlight("1010", "2022-01-01", "TLV", "MAD", 100);
+        cheapReturn = getFlight("1011", "2022-01-05", "MAD", "TLV", 50);
+        fareCalendarProvider.load(List.of(departure, cheapReturn,
+                getFlight("1012", "2022-01-05", "MAD", "TLV", 80),
+                getFlight("1020", "2022-01-01", "TLV", "BER", 70)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "TLV | MAD | 1",
+                    "MAD | TLV | 0",
+                    "TLV | BER | 0",
+                    "TLV | XXX | 0"})
+    void getCalendar(String fromAirport, String toAirport, int fares) {
+        FareCalendar fareCalendar = fareCalendarProvider.getCalendar(fromAirport, toAirport);
+
+        Assertions.assertEquals(fares, fareCalendar.fares.length);
+    }
+
+    @Test
+    void rebuildChangedBuildsLoadedCityPairs() {
+        Assertions.assertEquals(2, fareCalendarProvider.rebuildChanged());
+        Assertions.assertEquals(0, fareCalendarProvider.rebuildChanged());
+    }
+
+    @Test
+    void rebuildChangedAfterFlightChanged() {
+        fareCalendarProvider.rebuildChanged();
+        FareCalendar calendar = fareCalendarProvider.getCalendar("TLV", "MAD");
+        Assertions.assertEquals(150.0, calendar.fares[0].price);
+
+        cheapReturn.availableSeats = 0;
+        fareCalendarProvider.onFlightChanged(cheapReturn);
+        Assertions.assertSame(calendar, fareCalendarProvider.getCalendar("TLV", "MAD"));
+
+        Assertions.assertEquals(2, fareCalendarProvider.rebuildChanged());
+        FareCalendar fareCalendar = fareCalendarProvider.getCalendar("TLV", "MAD");
+        Assertions.assertEquals(180.0, fareCalendar.fares[0].price);
+        Assertions.assertEquals("1012", fareCalendar.fares[0].returnFlightNumber);
+    }
+
+    @Test
+    void onFlightChangedIgnoresOneWayCityPairs() {
+        fareCalendarProvider.rebuildChanged();
+
+        fareCalendarProvider.onFlightChanged(getFlight("1020", "2022-01-01", "TLV", "BER", 10));
+
+        Assertions.assertEquals(0, fareCalendarProvider.rebuildChanged());
+    }
+
+    private static Flight getFlight(String flightNumber, String date, String fromAirport, String toAirport, double price) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.date = date;
+        flight.fromAirport = fromAirport;
+        flight.toAirport = toAirport;
+        flight.duration = 240;
+        flight.price = price;
+        flight.availableSeats = 5;
+        flight.dateTimeUTC = new Date(LocalDate.parse(date).toEpochDay() * 86_400_000L + 9 * 3_600_000L);
+        return flight;
+    }
+}
@@ -1,9 +1,16 @@
 package com.airlines.dataHandlers;
 
 import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.graph.FlightGraphProvider;
 import com.airlines.model.Flight;
 import com.airlines.model.Itinerary;
+import com.airlines.model.ItinerarySort;
+import com.airlines.model.SearchBudget;
 import com.airlines.repositories.FlightsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -42,9 +49,14 @@ class FlightsAnalysisTest {
     @MockBean
     private FlightInventoryConfiguration flightInventoryConfiguration;
 
+    private final FlightGraphProvider flightGraphProvider = new FlightGraphProvider();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeAll
     public void setUp() {
-        flightsAnalysis = new FlightsAnalysis(flightsRepository, flightInventoryConfiguration);
+        flightsAnalysis = new FlightsAnalysis(flightsRepository, flightInventoryConfiguration, flightGraphProvider,
+                new AirlineMetrics(meterRegistry, flightGraphProvider), ParallelSearch.sequential());
     }
 
     @Test
@@ -78,6 +90,131 @@ class FlightsAnalysisTest {
                 flightInventoryConfiguration.getMinimumAvailableSeats());
     }
 
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2022-09-14 | TLV |2022-09-18 | JFK | 1 | TLV-JFK",
+                    "2022-09-14 | TLV |2022-09-18 | MED | 2 | TLV-MED",
+                    "2022-09-15 | TLV |2022-09-18 | MED | 0 | TLV-MED",
+                    "2022-09-14 | JFK |2022-09-18 | MED | 0 | other",
+                    "2022-09-14 | JFK |2022-09-18 | TLV | 0 | JFK-TLV",
+                    "2022-09-14 | TLV |2022-09-18 | MED | 2 | TLV-MED",
+                    "2022-09-14 | TLV |2022-09-19 | MED | 0 | TLV-MED",
+                    "2022-09-14 | TLV |2022-09-18 | MEX | 0 | other"})
+    void getPriceRoundTripAnalyse(String departureDate, String fromAirport, String returnDate, String toAirport,
+                                  int itinerariesCount, String route) {
+        buildFlightInventoryConfiguration();
+        buildPriceRoundTripRepositoryMockResponse();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                getFlight("2022-09-14", "TLV", "MED", "09:00Z")));
+        double emittedItineraries = getCount(AirlineMetrics.SEARCH_ITINERARIES, "roundTrip", route);
+        long repositoryQueries = getStageCount("roundTrip", route, AirlineMetrics.REPOSITORY);
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.length);
+        Assertions.assertEquals(emittedItineraries + itinerariesCount,
+                getCount(AirlineMetrics.SEARCH_ITINERARIES, "roundTrip", route));
+        Assertions.assertEquals(repositoryQueries + 1, getStageCount("roundTrip", route, AirlineMetrics.REPOSITORY));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1000 | 1000 | 2 | ",
+                    "2    | 2    | 2 | ",
+                    "1000 | 1    | 1 | ITINERARIES",
+                    "1    | 1000 | 0 | CANDIDATE_PAIRS"})
+    void getPriceRoundTripWithinBudget(long maximumCandidatePairs, long maximumItineraries, int itinerariesCount,
+                                       SearchBudget.Limit exceededLimit) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "MED", "09:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "09:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "23:30-05:00")));
+        SearchBudget budget = new SearchBudget(maximumCandidatePairs, maximumItineraries, 0);
+        double truncated = getTruncatedCount("roundTrip", "TLV-MED");
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceRoundTrip("2022-09-14", "TLV", "2022-09-18", "MED", budget);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.length);
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+        Assertions.assertEquals(truncated + (exceededLimit == null ? 0 : 1), getTruncatedCount("roundTrip", "TLV-MED"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "0 | 1000 | 4 | ",
+                    "1 | 1000 | 3 | ",
+                    "3 | 1000 | 1 | ",
+                    "4 | 1000 | 0 | ",
+                    "9 | 1000 | 0 | ",
+                    "1 | 2    | 2 | ITINERARIES"})
+    void streamPriceRoundTrip(long offset, long maximumItineraries, int itinerariesCount,
+                              SearchBudget.Limit exceededLimit) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "MED", "09:00Z"),
+                getFlight("2022-09-14", "TLV", "MED", "18:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "09:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "23:30-05:00")));
+        SearchBudget budget = new SearchBudget(1000, maximumItineraries, 0);
+        double emittedItineraries = getCount(AirlineMetrics.SEARCH_ITINERARIES, "roundTrip", "TLV-MED");
+        List<String> allFlightNumbers = getFlightNumbers(
+                flightsAnalysis.getPriceRoundTrip("2022-09-14", "TLV", "2022-09-18", "MED"));
+
+        List<String> flightNumbers;
+        try (Stream<Itinerary> itineraries = flightsAnalysis.streamPriceRoundTrip(
+                "2022-09-14", "TLV", "2022-09-18", "MED", offset, budget)) {
+            flightNumbers = getFlightNumbers(itineraries.toArray(Itinerary[]::new));
+        }
+
+        Assertions.assertEquals(allFlightNumbers.subList((int) Math.min(offset, allFlightNumbers.size()),
+                (int) Math.min(offset + itinerariesCount, allFlightNumbers.size())), flightNumbers);
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+        Assertions.assertEquals(emittedItineraries + 4 + itinerariesCount,
+                getCount(AirlineMetrics.SEARCH_ITINERARIES, "roundTrip", "TLV-MED"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1000 | 1000 | 2 | ",
+                    "1000 | 1    | 1 | ITINERARIES",
+                    "2    | 1000 | 1 | CANDIDATE_PAIRS"})
+    void getPriceWithConnectionsWithinBudget(long maximumCandidatePairs, long maximumItineraries, int itinerariesCount,
+                                             SearchBudget.Limit exceededLimit) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                getFlight("2022-09-14", "TLV", "MEX", "09:00Z"),
+                getFlight("2022-09-14", "MEX", "JFK", "16:00Z")));
+        SearchBudget budget = new SearchBudget(maximumCandidatePairs, maximumItineraries, 0);
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceWithConnections("2022-09-14", "TLV", "JFK", budget);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.length);
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+    }
+
+    private double getTruncatedCount(String type, String route) {
+        return meterRegistry.find(AirlineMetrics.SEARCH_TRUNCATED).tags("type", type, "route", route).counters()
+                .stream().mapToDouble(Counter::count).sum();
+    }
+
+    private double getCount(String name, String type, String route) {
+        Counter counter = meterRegistry.find(name).tags("type", type, "route", route).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long getStageCount(String type, String route, String stage) {
+        Timer timer = meterRegistry.find(AirlineMetrics.SEARCH_STAGE)
+                .tags("type", type, "route", route, "stage", stage).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
     @ParameterizedTest
     @CsvSource(delimiter = '|', value =
             {
@@ -85,14 +222,23 @@ class FlightsAnalysisTest {
                     "2022-09-14 | TLV |2022-09-18 | MED | 2",
                     "2022-09-15 | TLV |2022-09-18 | MED | 0",
                     "2022-09-14 | JFK |2022-09-18 | MED | 0",
-                    "2022-09-14 | TLV |2022-09-18 | MED | 2",
                     "2022-09-14 | TLV |2022-09-19 | MED | 0",
                     "2022-09-14 | TLV |2022-09-18 | MEX | 0"})
-    void getPriceRoundTripAnalyse(String departureDate, String fromAirport, String returnDate, String toAirport, int itinerariesCount) {
-        buildFlightInventoryConfiguration();
-        buildPriceRoundTripRepositoryMockResponse();
+    void getPriceRoundTripAnalyseFromFlightGraph(String departureDate, String fromAirport, String returnDate, String toAirport, int itinerariesCount) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                getFlight("2022-09-18", "JFK", "TLV", "09:00Z"),
+                getFlight("2022-09-14", "TLV", "MED", "09:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "09:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "23:30-05:00")));
+
         Itinerary[] itineraries = flightsAnalysis.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport);
+
         Assertions.assertEquals(itinerariesCount, itineraries.length);
+        verify(flightsRepository, times(0))
+                .findByDateInAndFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqual(
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt());
     }
 
     private void buildPriceRoundTripRepositoryMockResponse() {
@@ -147,6 +293,79 @@ class FlightsAnalysisTest {
                         flightInventoryConfiguration.getMinimumAvailableSeats());
     }
 
+    @Test
+    void getPriceBatchFetchesEachDateAndOriginOnce() {
+        buildFlightInventoryConfiguration();
+        Mockito.when(flightsRepository.findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual("2022-09-14", "TLV", 1))
+                .thenReturn(Arrays.asList(
+                        getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                        getFlight("2022-09-14", "TLV", "MED", "09:00Z")));
+        Mockito.when(flightsRepository.findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual("2022-09-18", "JFK", 1))
+                .thenReturn(List.of(getFlight("2022-09-18", "JFK", "TLV", "09:00Z")));
+        Mockito.when(flightsRepository.findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual("2022-09-18", "MED", 1))
+                .thenReturn(Arrays.asList(
+                        getFlight("2022-09-18", "MED", "TLV", "09:00Z"),
+                        getFlight("2022-09-18", "MED", "TLV", "23:30-05:00")));
+        OriginFlights originFlights = flightsAnalysis.newOriginFlights();
+
+        Itinerary[] toJfk = flightsAnalysis.getPriceRoundTrip("2022-09-14", "TLV", "2022-09-18", "JFK",
+                SearchBudget.unlimited(), originFlights);
+        Itinerary[] toMed = flightsAnalysis.getPriceRoundTrip("2022-09-14", "TLV", "2022-09-18", "MED",
+                SearchBudget.unlimited(), originFlights);
+        Itinerary[] withConnections = flightsAnalysis.getPriceWithConnections("2022-09-14", "TLV", "JFK",
+                SearchBudget.unlimited(), originFlights);
+
+        Assertions.assertEquals(1, toJfk.length);
+        Assertions.assertEquals(2, toMed.length);
+        Assertions.assertEquals(1, withConnections.length);
+        Assertions.assertEquals(3, originFlights.size());
+        verify(flightsRepository, times(1))
+                .findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual("2022-09-14", "TLV", 1);
+        verify(flightsRepository, times(0))
+                .findByDateInAndFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqual(
+                        Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2022-09-14 | TLV |2022-09-18 | JFK",
+                    "2022-09-14 | TLV |2022-09-18 | MED",
+                    "2022-09-14 | TLV |2022-09-19 | MED",
+                    "2022-09-14 | JFK |2022-09-18 | MED"})
+    void getPriceBatchRoundTripFromFlightGraph(String departureDate, String fromAirport, String returnDate, String toAirport) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                getFlight("2022-09-18", "JFK", "TLV", "09:00Z"),
+                getFlight("2022-09-14", "TLV", "MED", "09:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "09:00Z"),
+                getFlight("2022-09-18", "MED", "TLV", "23:30-05:00")));
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport,
+                SearchBudget.unlimited(), flightsAnalysis.newOriginFlights());
+
+        Assertions.assertEquals(
+                getFlightNumbers(flightsAnalysis.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport)),
+                getFlightNumbers(itineraries));
+    }
+
+    private static List<String> getFlightNumbers(Itinerary[] itineraries) {
+        return Arrays.stream(itineraries)
+                .map(itinerary -> Arrays.stream(itinerary.flightsItinerary)
+                        .map(flight -> flight.flightNumber)
+                        .collect(Collectors.joining("-")))
+                .collect(Collectors.toList());
+    }
+
+    void buildFlightGraphInventoryConfiguration() {
+        buildFlightInventoryConfiguration();
+        Mockito.when(flightInventoryConfiguration.isFlightGraphEnabled())
+                .thenReturn(true);
+        Mockito.when(flightInventoryConfiguration.getMaximumConnections())
+                .thenReturn(1);
+    }
+
     void buildFlightInventoryConfiguration() {
         Mockito.when(flightInventoryConfiguration.getMinimumAvailableSeats())
                 .thenReturn(1);
@@ -241,6 +460,114 @@ class FlightsAnalysisTest {
 
     }
 
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2022-09-14 | TLV | MEX | 1",
+                    "2022-09-14 | MED | MEX | 0",
+                    "2022-09-14 | TLV | MED | 0",
+                    "2022-09-14 | TLV | JFK | 2",
+                    "2022-09-15 | TLV | JFK | 0"})
+    void getPriceWithConnectionsAnalyseFromFlightGraph(String departureDate, String fromAirport, String toAirport, int itinerariesCount) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "MEX", "09:00Z"),
+                getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                getFlight("2022-09-14", "MEX", "JFK", "16:00Z"),
+                getFlight("2022-09-14", "MEX", "JFK", "21:00Z")));
+        String route = fromAirport + "-" + toAirport;
+        double candidatePairs = getCount(AirlineMetrics.SEARCH_CANDIDATE_PAIRS, "connections", route);
+        double emittedItineraries = getCount(AirlineMetrics.SEARCH_ITINERARIES, "connections", route);
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceWithConnections(departureDate, fromAirport, toAirport);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.length);
+        Assertions.assertEquals(emittedItineraries + itinerariesCount,
+                getCount(AirlineMetrics.SEARCH_ITINERARIES, "connections", route));
+        Assertions.assertTrue(getCount(AirlineMetrics.SEARCH_CANDIDATE_PAIRS, "connections", route)
+                >= candidatePairs + itinerariesCount);
+        verify(flightsRepository, times(0))
+                .findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual(
+                        Mockito.any(), Mockito.any(), Mockito.anyInt());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "true  | 0 | 1000 | 2 | ",
+                    "true  | 1 | 1000 | 1 | ",
+                    "true  | 3 | 1000 | 0 | ",
+                    "true  | 0 | 1    | 1 | ITINERARIES",
+                    "false | 0 | 1000 | 2 | ",
+                    "false | 1 | 1000 | 1 | ",
+                    "false | 0 | 1    | 1 | ITINERARIES"})
+    void streamPriceWithConnections(boolean flightGraphEnabled, long offset, long maximumItineraries,
+                                    int itinerariesCount, SearchBudget.Limit exceededLimit) {
+        if (flightGraphEnabled) {
+            buildFlightGraphInventoryConfiguration();
+            flightGraphProvider.load(Arrays.asList(
+                    getFlight("2022-09-14", "TLV", "MEX", "09:00Z"),
+                    getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                    getFlight("2022-09-14", "MEX", "JFK", "16:00Z"),
+                    getFlight("2022-09-14", "MEX", "JFK", "21:00Z")));
+        } else {
+            buildFlightInventoryConfiguration();
+            buildPriceWithConnectionsRepositoryMockResponse();
+        }
+        SearchBudget budget = new SearchBudget(1000, maximumItineraries, 0);
+        double emittedItineraries = getCount(AirlineMetrics.SEARCH_ITINERARIES, "connections", "TLV-JFK");
+        List<String> allFlightNumbers = getFlightNumbers(
+                flightsAnalysis.getPriceWithConnections("2022-09-14", "TLV", "JFK"));
+
+        List<String> flightNumbers;
+        try (Stream<Itinerary> itineraries = flightsAnalysis.streamPriceWithConnections(
+                "2022-09-14", "TLV", "JFK", offset, budget)) {
+            flightNumbers = getFlightNumbers(itineraries.toArray(Itinerary[]::new));
+        }
+
+        Assertions.assertEquals(allFlightNumbers.subList((int) Math.min(offset, allFlightNumbers.size()),
+                (int) Math.min(offset + itinerariesCount, allFlightNumbers.size())), flightNumbers);
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+        Assertions.assertEquals(emittedItineraries + allFlightNumbers.size() + Math.min(offset + itinerariesCount,
+                        allFlightNumbers.size()),
+                getCount(AirlineMetrics.SEARCH_ITINERARIES, "connections", "TLV-JFK"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "TLV | JFK | 2 | 2",
+                    "TLV | JFK | 1 | 1",
+                    "TLV | BER | 2 | 1",
+                    "TLV | MEX | 2 | 0"})
+    void getPriceWithMultipleConnectionsAnalyse(String fromAirport, String toAirport, int maximumConnections, int itinerariesCount) {
+        buildFlightInventoryConfiguration();
+        Mockito.when(flightInventoryConfiguration.getMaximumConnections())
+                .thenReturn(maximumConnections);
+
+        String departureDate = "2022-09-14";
+        Mockito.when(flightsRepository
+                        .findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual(departureDate, fromAirport,
+                                flightInventoryConfiguration.getMinimumAvailableSeats()))
+                .thenReturn(Arrays.asList(
+                        getFlight(departureDate, "TLV", "ROM", "06:00Z"),
+                        getFlight(departureDate, "TLV", "JFK", "09:00Z")));
+        List<Flight> connectionFlights = Arrays.asList(
+                getFlight(departureDate, "ROM", "BER", "12:00Z"),
+                getFlight(departureDate, "BER", "JFK", "18:00Z"));
+        Mockito.when(flightsRepository
+                        .findByDateTimeUTCBetweenAndAvailableSeatsGreaterThanEqual(
+                                Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenReturn(connectionFlights);
+        Mockito.when(flightsRepository
+                        .findByDateTimeUTCBetweenAndToAirportAndAvailableSeatsGreaterThanEqual(
+                                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyInt()))
+                .thenReturn(connectionFlights);
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceWithConnections(departureDate, fromAirport, toAirport);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.length);
+    }
 
     @Test
     void getPriceAllRoundTrip() {
@@ -286,6 +613,136 @@ class FlightsAnalysisTest {
         Assertions.assertEquals(itinerariesCount, itineraries.length);
     }
 
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2022-09-14 |TLV |2022-09-16 | JFK |  | | 1",
+                    "2022-09-14 |TLV |2022-09-14 | JFK |  | | 0",
+                    "2022-09-14 |TLV |2022-09-16 | JFK | 2022-09-17 | | 2",
+                    "2022-09-14 |TLV |2022-09-14 | JFK | 2022-09-17 | | 1",
+                    "2022-09-14 |TLV |2022-09-14 | JFK | 2022-09-17 | 2022-09-18| 2",
+                    "2022-09-14 |TLV |2022-09-16 | JFK | 2022-09-17 | 2022-09-18| 3"})
+    void getPriceAllRoundTripAnalyseFromFlightGraph(String departureDate, String fromAirport, String returnDate, String toAirport, String anotherReturnDate, String yetAnotherReturnDate, int itinerariesCount) {
+        buildFlightGraphInventoryConfiguration();
+        String dateTimeUTC = "09:00Z";
+        flightGraphProvider.load(Stream.of(
+                        getFlight(departureDate, fromAirport, toAirport, dateTimeUTC),
+                        getFlight(returnDate, toAirport, fromAirport, dateTimeUTC),
+                        getFlight(anotherReturnDate, toAirport, fromAirport, dateTimeUTC),
+                        getFlight(yetAnotherReturnDate, toAirport, fromAirport, dateTimeUTC),
+                        getFlight(departureDate, fromAirport, "MED", dateTimeUTC))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceAllRoundTrip(fromAirport, toAirport);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.length);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1000 | 1000 | 3 | ",
+                    "1000 | 2    | 2 | ITINERARIES",
+                    "2    | 1000 | 2 | CANDIDATE_PAIRS"})
+    void getPriceAllRoundTripWithinBudget(long maximumCandidatePairs, long maximumItineraries, int itinerariesCount,
+                                          SearchBudget.Limit exceededLimit) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                getFlight("2022-09-16", "JFK", "TLV", "09:00Z"),
+                getFlight("2022-09-17", "JFK", "TLV", "09:00Z"),
+                getFlight("2022-09-18", "JFK", "TLV", "09:00Z")));
+        SearchBudget budget = new SearchBudget(maximumCandidatePairs, maximumItineraries, 0);
+        double candidatePairs = getCount(AirlineMetrics.SEARCH_CANDIDATE_PAIRS, "allRoundTrip", "TLV-JFK");
+        double emittedItineraries = getCount(AirlineMetrics.SEARCH_ITINERARIES, "allRoundTrip", "TLV-JFK");
+
+        Itinerary[] itineraries = flightsAnalysis.getPriceAllRoundTrip("TLV", "JFK", budget);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.length);
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+        Assertions.assertEquals(candidatePairs + itinerariesCount,
+                getCount(AirlineMetrics.SEARCH_CANDIDATE_PAIRS, "allRoundTrip", "TLV-JFK"));
+        Assertions.assertEquals(emittedItineraries + itinerariesCount,
+                getCount(AirlineMetrics.SEARCH_ITINERARIES, "allRoundTrip", "TLV-JFK"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "0 | 1000 | 3 | ",
+                    "2 | 1000 | 1 | ",
+                    "5 | 1000 | 0 | ",
+                    "0 | 2    | 2 | ITINERARIES",
+                    "1 | 1    | 1 | ITINERARIES"})
+    void streamPriceAllRoundTrip(long offset, long maximumItineraries, int itinerariesCount,
+                                 SearchBudget.Limit exceededLimit) {
+        buildFlightGraphInventoryConfiguration();
+        flightGraphProvider.load(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "JFK", "09:00Z"),
+                getFlight("2022-09-16", "JFK", "TLV", "09:00Z"),
+                getFlight("2022-09-17", "JFK", "TLV", "09:00Z"),
+                getFlight("2022-09-18", "JFK", "TLV", "09:00Z")));
+        RoundTripItineraries roundTripItineraries = flightsAnalysis.getAllRoundTripItineraries("TLV", "JFK");
+        SearchBudget budget = new SearchBudget(1000, maximumItineraries, 0);
+        double truncated = getTruncatedCount("allRoundTrip", "TLV-JFK");
+        double emittedItineraries = getCount(AirlineMetrics.SEARCH_ITINERARIES, "allRoundTrip", "TLV-JFK");
+
+        long itineraries;
+        try (Stream<Itinerary> stream = flightsAnalysis.streamPriceAllRoundTrip(
+                "TLV", "JFK", roundTripItineraries, offset, budget)) {
+            itineraries = stream.count();
+        }
+
+        Assertions.assertEquals(itinerariesCount, itineraries);
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+        Assertions.assertEquals(truncated + (exceededLimit == null ? 0 : 1), getTruncatedCount("allRoundTrip", "TLV-JFK"));
+        Assertions.assertEquals(emittedItineraries + itinerariesCount,
+                getCount(AirlineMetrics.SEARCH_ITINERARIES, "allRoundTrip", "TLV-JFK"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "PRICE     | 1",
+                    "PRICE     | 5",
+                    "DURATION  | 3",
+                    "DEPARTURE | 4",
+                    "LEGS      | 2",
+                    "PRICE     | 1000"})
+    void getSortedItinerariesFromFlightGraph(ItinerarySort sort, int limit) {
+        buildFlightGraphInventoryConfiguration();
+        Random random = new Random(limit);
+        List<Flight> flights = new ArrayList<>();
+        for (int hour = 6; hour < 14; hour++) {
+            flights.add(getFlight("2022-09-14", "TLV", "MEX", String.format("%02d:00Z", hour)));
+            flights.add(getFlight("2022-09-14", "MEX", "JFK", String.format("%02d:30Z", hour + 6)));
+            flights.add(getFlight("2022-09-14", "TLV", "JFK", String.format("%02d:15Z", hour)));
+            flights.add(getFlight("2022-09-17", "JFK", "TLV", String.format("%02d:45Z", hour)));
+        }
+        for (Flight flight : flights) {
+            flight.price = 100 + random.nextInt(50);
+            flight.duration = 200 + random.nextInt(200);
+        }
+        flightGraphProvider.load(flights);
+
+        assertTopItineraries(flightsAnalysis.getPriceWithConnections("2022-09-14", "TLV", "JFK"), sort, limit,
+                flightsAnalysis.getPriceWithConnections("2022-09-14", "TLV", "JFK", sort, limit));
+        assertTopItineraries(flightsAnalysis.getPriceRoundTrip("2022-09-14", "TLV", "2022-09-17", "JFK"), sort, limit,
+                flightsAnalysis.getPriceRoundTrip("2022-09-14", "TLV", "2022-09-17", "JFK", sort, limit));
+        assertTopItineraries(flightsAnalysis.getPriceAllRoundTrip("TLV", "JFK"), sort, limit,
+                flightsAnalysis.getPriceAllRoundTrip("TLV", "JFK", sort, limit));
+    }
+
+    private void assertTopItineraries(Itinerary[] allItineraries, ItinerarySort sort, int limit, Itinerary[] topItineraries) {
+        Itinerary[] expected = Arrays.stream(allItineraries).sorted(sort.comparator()).limit(limit).toArray(Itinerary[]::new);
+        Assertions.assertTrue(allItineraries.length > 1);
+        Assertions.assertEquals(expected.length, topItineraries.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assertions.assertArrayEquals(expected[i].flightsItinerary, topItineraries[i].flightsItinerary);
+        }
+    }
+
     private void buildPriceAllRoundTripRepositoryMockResponse(String departureDate, String fromAirport, String returnDate, String toAirport, String anotherReturnDate, String yetAnotherReturnDate) {
         String dateTimeUTC = "09:00Z";
 
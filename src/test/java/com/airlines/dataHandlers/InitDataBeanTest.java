@@ -0,0 +1,58 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import com.airlines.model.Price;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class InitDataBeanTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1010 | 2022-01-01 | 0 | 565.0",
+                    "1010 | 2022-01-02 | 3 | 563.0",
+                    "1011 | 2022-01-01 | 7 | 562.0"})
+    void mergePrices(String flightNumber, String date, int availableSeats, double price) {
+        List<Price> prices = Arrays.asList(
+                getPrice("1010", "2022-01-01", 0, 565.0),
+                getPrice("1010", "2022-01-02", 3, 563.0),
+                getPrice("1011", "2022-01-01", 7, 562.0),
+                getPrice("1011", "2022-01-01", 9, 999.0));
+
+        List<Flight> flights = InitDataBean.mergePrices(Arrays.asList(getFlight(flightNumber, date)), prices);
+
+        Assertions.assertEquals(1, flights.size());
+        Assertions.assertEquals(availableSeats, flights.get(0).availableSeats);
+        Assertions.assertEquals(price, flights.get(0).price);
+    }
+
+    @Test
+    void mergePricesWithoutMatchingPrice() {
+        List<Flight> rawFlights = Arrays.asList(getFlight("1010", "2022-01-03"));
+        List<Price> prices = Arrays.asList(getPrice("1010", "2022-01-01", 0, 565.0));
+
+        Assertions.assertThrows(NoSuchElementException.class, () -> InitDataBean.mergePrices(rawFlights, prices));
+    }
+
+    private Flight getFlight(String flightNumber, String date) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.date = date;
+        return flight;
+    }
+
+    private Price getPrice(String flightNumber, String date, int availableSeats, double value) {
+        Price price = new Price();
+        price.flightNumber = flightNumber;
+        price.date = date;
+        price.availableSeats = availableSeats;
+        price.price = value;
+        return price;
+    }
+}
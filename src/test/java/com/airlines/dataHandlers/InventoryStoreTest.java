@@ -0,0 +1,142 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class InventoryStoreTest {
+
+    private InventoryStore inventoryStore;
+    private Flight flight;
+
+    @BeforeEach
+    public void setUp() {
+        flight = getFlight("1010", "2022-01-01", 5, 565.5);
+        inventoryStore = new InventoryStore();
+        inventoryStore.load(List.of(flight, getFlight("1011", "2022-01-01", 0, 100.0)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "-1  | 0     | 5 | 4  | 565.5",
+                    "-5  | 0     | 5 | 0  | 565.5",
+                    "3   | 0     | 5 | 8  | 565.5",
+                    "0   | 10.25 | 5 | 5  | 575.75",
+                    "-2  | -65.5 | 5 | 3  | 500.0"})
+    void apply(int seatsDelta, double priceDelta, int previousSeats, int availableSeats, double price) {
+        InventoryStore.Update update = inventoryStore.apply("1010", "2022-01-01", seatsDelta, priceDelta);
+
+        Assertions.assertSame(flight, update.flight);
+        Assertions.assertEquals(previousSeats, update.previousSeats);
+        Assertions.assertEquals(availableSeats, update.availableSeats);
+        Assertions.assertEquals(price, update.price);
+        Assertions.assertEquals(availableSeats, flight.availableSeats);
+        Assertions.assertEquals(price, flight.price);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "-6 | 0",
+                    "0  | -565.51"})
+    void applyRejectsNegativeInventory(int seatsDelta, double priceDelta) {
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> inventoryStore.apply("1010", "2022-01-01", seatsDelta, priceDelta));
+
+        Assertions.assertEquals(5, flight.availableSeats);
+        Assertions.assertEquals(565.5, flight.price);
+        Assertions.assertEquals(0, inventoryStore.getDirtyCount());
+    }
+
+    @Test
+    void applyToUnknownFlight() {
+        Assertions.assertThrows(NoSuchElementException.class,
+                () -> inventoryStore.apply("1010", "2022-01-02", -1, 0));
+    }
+
+    @Test
+    void drainDirtyFlights() {
+        inventoryStore.apply("1010", "2022-01-01", -1, 0);
+        inventoryStore.apply("1010", "2022-01-01", -1, 1.0);
+        inventoryStore.apply("1011", "2022-01-01", 2, 0);
+
+        List<Flight> dirtyFlights = inventoryStore.drainDirtyFlights();
+        dirtyFlights.sort((first, second) -> first.flightNumber.compareTo(second.flightNumber));
+
+        Assertions.assertEquals(2, dirtyFlights.size());
+        Assertions.assertNotSame(flight, dirtyFlights.get(0));
+        Assertions.assertEquals(3, dirtyFlights.get(0).availableSeats);
+        Assertions.assertEquals(566.5, dirtyFlights.get(0).price);
+        Assertions.assertEquals(2, dirtyFlights.get(1).availableSeats);
+        Assertions.assertTrue(inventoryStore.drainDirtyFlights().isEmpty());
+
+        inventoryStore.markDirty(dirtyFlights);
+        Assertions.assertEquals(2, inventoryStore.getDirtyCount());
+    }
+
+    @Test
+    void concurrentBookingsNeverOverbook() throws Exception {
+        int seats = 1000;
+        int threads = 16;
+        int attemptsPerThread = 200;
+        Flight popularFlight = getFlight("2020", "2022-01-01", seats, 100.0);
+        inventoryStore.load(List.of(popularFlight));
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < attemptsPerThread; attempt++) {
+                        try {
+                            inventoryStore.apply("2020", "2022-01-01", -1, 0.01);
+                            booked.incrementAndGet();
+                        } catch (IllegalStateException ex) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(seats, booked.get());
+        Assertions.assertEquals(threads * attemptsPerThread - seats, rejected.get());
+        Assertions.assertEquals(0, popularFlight.availableSeats);
+        Assertions.assertEquals(110.0, popularFlight.price, 1e-9);
+    }
+
+    private Flight getFlight(String flightNumber, String date, int availableSeats, double price) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.date = date;
+        flight.fromAirport = "TLV";
+        flight.toAirport = "MAD";
+        flight.availableSeats = availableSeats;
+        flight.price = price;
+        return flight;
+    }
+}
@@ -0,0 +1,149 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.model.SearchBudget;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ParallelSearchTest {
+
+    private final ParallelSearch parallelSearch = new ParallelSearch(true, 100, 4);
+
+    @AfterAll
+    public void tearDown() {
+        parallelSearch.destroy();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1000 | 1000000 | 1000000 | 1000 |                 | true",
+                    "99   | 1000000 | 1000000 | 99   |                 | false",
+                    "1000 | 1000000 | 10      | 10   | ITINERARIES     | true",
+                    "1000 | 500     | 1000000 | 500  | CANDIDATE_PAIRS | false"})
+    void searchKeepsCandidateOrder(long candidates, long maximumCandidatePairs, long maximumItineraries,
+                                   int itinerariesCount, SearchBudget.Limit exceededLimit, boolean parallel) {
+        SearchBudget budget = new SearchBudget(maximumCandidatePairs, maximumItineraries, 0);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Itinerary> itineraries = new ArrayList<>();
+
+        parallelSearch.search(candidates, candidates, budget, (from, to, chunkBudget, chunkItineraries) -> {
+            threads.add(Thread.currentThread().getName());
+            for (long candidate = from; candidate < to && chunkBudget.tryExamine(1) && chunkBudget.tryEmit(); candidate++) {
+                chunkItineraries.accept(getItinerary(candidate));
+            }
+        }, itineraries::add);
+
+        Assertions.assertEquals(LongStream.range(0, itinerariesCount).mapToObj(String::valueOf).collect(Collectors.toList()),
+                itineraries.stream().map(itinerary -> itinerary.flightsItinerary[0].flightNumber).collect(Collectors.toList()));
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+        Assertions.assertEquals(parallel, threads.stream().allMatch(thread -> thread.startsWith("itinerary-search-")));
+    }
+
+    @Test
+    void searchStopsAtDeadline() throws InterruptedException {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, 1);
+        Thread.sleep(5);
+        List<Itinerary> itineraries = new ArrayList<>();
+
+        parallelSearch.search(1000, 1000, budget, (from, to, chunkBudget, chunkItineraries) ->
+                LongStream.range(from, to).mapToObj(this::getItinerary).forEach(chunkItineraries), itineraries::add);
+
+        Assertions.assertEquals(0, itineraries.size());
+        Assertions.assertEquals(SearchBudget.Limit.DEADLINE, budget.getExceededLimit());
+    }
+
+    @Test
+    void searchBoundsChunkItineraries() {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, 10, 0);
+        AtomicLong collected = new AtomicLong();
+        List<Itinerary> itineraries = new ArrayList<>();
+
+        parallelSearch.search(1000, 1000, budget, (from, to, chunkBudget, chunkItineraries) -> {
+            for (long candidate = from; candidate < to && chunkBudget.tryExamine(1) && chunkBudget.tryEmit(); candidate++) {
+                collected.incrementAndGet();
+                chunkItineraries.accept(getItinerary(candidate));
+            }
+        }, itineraries::add);
+
+        Assertions.assertEquals(10, itineraries.size());
+        Assertions.assertTrue(collected.get() <= 10L * 4 * ParallelSearch.CHUNKS_PER_THREAD);
+        Assertions.assertEquals(SearchBudget.Limit.ITINERARIES, budget.getExceededLimit());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1000000 | 999,998,997 | ",
+                    "500     | 499,498,497 | ITINERARIES"})
+    void searchRanksEveryChunk(long maximumItineraries, String flightNumbers, SearchBudget.Limit exceededLimit) {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, maximumItineraries, 0);
+        TopItineraries topItineraries = new TopItineraries(Comparator.comparingLong(
+                (Itinerary itinerary) -> Long.parseLong(itinerary.flightsItinerary[0].flightNumber)).reversed(), 3);
+        AtomicLong kept = new AtomicLong();
+
+        parallelSearch.search(1000, 1000, budget, (from, to, chunkBudget, chunkItineraries) -> {
+            for (long candidate = from; candidate < to && chunkBudget.tryExamine(1) && chunkBudget.tryEmit(); candidate++) {
+                chunkItineraries.accept(getItinerary(candidate));
+            }
+        }, topItineraries, itinerary -> {
+            kept.incrementAndGet();
+            topItineraries.accept(itinerary);
+        });
+
+        Assertions.assertEquals(flightNumbers, Arrays.stream(topItineraries.toArray())
+                .map(itinerary -> itinerary.flightsItinerary[0].flightNumber)
+                .collect(Collectors.joining(",")));
+        Assertions.assertTrue(kept.get() <= 3L * 4 * ParallelSearch.CHUNKS_PER_THREAD);
+        Assertions.assertEquals(exceededLimit, budget.getExceededLimit());
+    }
+
+    @Test
+    void searchStopsChunksAtDeadline() {
+        SearchBudget budget = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, 20);
+        AtomicLong examined = new AtomicLong();
+        List<Itinerary> itineraries = new ArrayList<>();
+
+        parallelSearch.search(1000, 1000L * 1024, budget,
+                (from, to, chunkBudget, chunkItineraries) -> {
+                    for (long candidate = from; candidate < to
+                            && chunkBudget.tryExamine(1024); candidate++) {
+                        examined.incrementAndGet();
+                        sleep();
+                        chunkItineraries.accept(getItinerary(candidate));
+                    }
+                }, itineraries::add);
+
+        Assertions.assertTrue(examined.get() < 1000);
+        Assertions.assertEquals(SearchBudget.Limit.DEADLINE, budget.getExceededLimit());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Itinerary getItinerary(long candidate) {
+        Flight flight = new Flight();
+        flight.flightNumber = String.valueOf(candidate);
+        return new Itinerary(flight);
+    }
+}
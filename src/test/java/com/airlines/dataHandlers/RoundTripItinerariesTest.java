@@ -0,0 +1,101 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+class RoundTripItinerariesTest {
+
+    private static final long START_EPOCH_MILLI = 1640995200000L;
+
+    private int flightNumber = 1;
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1 | 0 | 0 | 1",
+                    "2 | 1 | 40 | 40",
+                    "3 | 1 | 0 | 25",
+                    "4 | 2 | 120 | 90",
+                    "5 | 0 | 200 | 200"})
+    void matchesNestedLoopJoin(long seed, int minimumDaysForRoundTrip, int departuresCount, int returnsCount) {
+        Random random = new Random(seed);
+        List<Flight> departureFlights = getFlights(random, departuresCount, "TLV", "MAD");
+        List<Flight> returnFlights = getFlights(random, returnsCount, "MAD", "TLV");
+
+        RoundTripItineraries roundTripItineraries =
+                new RoundTripItineraries(departureFlights, returnFlights, minimumDaysForRoundTrip);
+
+        Set<String> expectedPairs = new HashSet<>();
+        for (Flight departureFlight : departureFlights) {
+            Date earliestReturn = Date.from(departureFlight.dateTimeUTC.toInstant()
+                    .plus(Duration.ofMinutes(departureFlight.duration))
+                    .plus(Duration.ofDays(minimumDaysForRoundTrip)));
+            for (Flight returnFlight : returnFlights) {
+                if (returnFlight.dateTimeUTC.compareTo(earliestReturn) >= 0) {
+                    expectedPairs.add(departureFlight.flightNumber + "-" + returnFlight.flightNumber);
+                }
+            }
+        }
+
+        List<String> pairs = roundTripItineraries.stream()
+                .map(this::getPair)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(expectedPairs.size(), roundTripItineraries.size());
+        Assertions.assertEquals(expectedPairs.size(), pairs.size());
+        Assertions.assertEquals(expectedPairs, new HashSet<>(pairs));
+    }
+
+    @Test
+    void streamsFromAnyOffset() {
+        Random random = new Random(7);
+        RoundTripItineraries roundTripItineraries = new RoundTripItineraries(
+                getFlights(random, 60, "TLV", "MAD"), getFlights(random, 60, "MAD", "TLV"), 1);
+
+        List<String> pairs = roundTripItineraries.stream()
+                .map(this::getPair)
+                .collect(Collectors.toList());
+
+        for (int offset = 0; offset <= pairs.size(); offset += 7) {
+            Assertions.assertEquals(
+                    pairs.subList(offset, Math.min(pairs.size(), offset + 5)),
+                    roundTripItineraries.stream(offset).limit(5).map(this::getPair).collect(Collectors.toList()));
+        }
+        Assertions.assertEquals(0, roundTripItineraries.stream(pairs.size() + 10).count());
+    }
+
+    @Test
+    void emptyWithoutReturnFlights() {
+        RoundTripItineraries roundTripItineraries = new RoundTripItineraries(
+                getFlights(new Random(3), 10, "TLV", "MAD"), new ArrayList<>(), 1);
+
+        Assertions.assertEquals(0, roundTripItineraries.size());
+        Assertions.assertEquals(0, roundTripItineraries.stream().count());
+    }
+
+    private String getPair(Itinerary itinerary) {
+        return itinerary.flightsItinerary[0].flightNumber + "-" + itinerary.flightsItinerary[1].flightNumber;
+    }
+
+    private List<Flight> getFlights(Random random, int count, String fromAirport, String toAirport) {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Flight flight = new Flight();
+            flightNumber += 1;
+            flight.flightNumber = String.valueOf(flightNumber);
+            flight.fromAirport = fromAirport;
+            flight.toAirport = toAirport;
+            flight.duration = 60 + random.nextInt(600);
+            flight.dateTimeUTC = new Date(START_EPOCH_MILLI + random.nextInt(60 * 24 * 30) * 60_000L);
+            flights.add(flight);
+        }
+        return flights;
+    }
+}
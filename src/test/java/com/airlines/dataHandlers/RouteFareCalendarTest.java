@@ -0,0 +1,101 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.FareCalendar;
+import com.airlines.model.FareCalendarEntry;
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+class RouteFareCalendarTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1 | 30 | 1 | 1",
+                    "1 | 5  | 1 | 2",
+                    "0 | 30 | 1 | 3",
+                    "2 | 10 | 3 | 4",
+                    "1 | 0  | 1 | 5"})
+    void buildMatchesEveryRoundTrip(int minimumDaysForRoundTrip, int maximumStayDays, int minimumAvailableSeats, long seed) {
+        Random random = new Random(seed);
+        List<Flight> departures = getFlights("TLV", "MAD", 60, random);
+        List<Flight> returns = getFlights("MAD", "TLV", 60, random);
+
+        FareCalendar fareCalendar = RouteFareCalendar.build(departures, returns,
+                minimumDaysForRoundTrip, maximumStayDays, minimumAvailableSeats).toFareCalendar("TLV", "MAD");
+
+        Map<String, Double> expected = new TreeMap<>();
+        List<Flight> bookableDepartures = getBookable(departures, minimumAvailableSeats);
+        List<Flight> bookableReturns = getBookable(returns, minimumAvailableSeats);
+        new RoundTripItineraries(bookableDepartures, bookableReturns, minimumDaysForRoundTrip).stream()
+                .forEach(itinerary -> {
+                    Flight departure = itinerary.flightsItinerary[0];
+                    Flight ret = itinerary.flightsItinerary[1];
+                    long stay = ChronoUnit.DAYS.between(LocalDate.parse(departure.date), LocalDate.parse(ret.date));
+                    if (stay <= maximumStayDays) {
+                        expected.merge(departure.date + " " + ret.date, departure.price + ret.price, Math::min);
+                    }
+                });
+
+        Assertions.assertEquals(expected.size(), fareCalendar.fares.length);
+        for (FareCalendarEntry fare : fareCalendar.fares) {
+            Assertions.assertEquals(expected.get(fare.departureDate + " " + fare.returnDate), fare.price, 1e-9);
+            Flight departure = find(departures, fare.departureFlightNumber);
+            Flight ret = find(returns, fare.returnFlightNumber);
+            Assertions.assertEquals(fare.departureDate, departure.date);
+            Assertions.assertEquals(fare.returnDate, ret.date);
+            Assertions.assertEquals(fare.price, departure.price + ret.price, 1e-9);
+            Assertions.assertTrue(new RoundTripItineraries(List.of(departure), List.of(ret), minimumDaysForRoundTrip).size() == 1);
+        }
+    }
+
+    @Test
+    void buildWithoutReturns() {
+        RouteFareCalendar calendar = RouteFareCalendar.build(
+                getFlights("TLV", "MAD", 5, new Random(1)), List.of(), 1, 30, 1);
+
+        Assertions.assertSame(RouteFareCalendar.EMPTY, calendar);
+        Assertions.assertEquals(0, calendar.toFareCalendar("TLV", "MAD").fares.length);
+    }
+
+    private static List<Flight> getBookable(List<Flight> flights, int minimumAvailableSeats) {
+        List<Flight> bookable = new ArrayList<>();
+        for (Flight flight : flights) {
+            if (flight.availableSeats >= minimumAvailableSeats) {
+                bookable.add(flight);
+            }
+        }
+        return bookable;
+    }
+
+    private static Flight find(List<Flight> flights, String flightNumber) {
+        return flights.stream().filter(flight -> flight.flightNumber.equals(flightNumber)).findFirst().orElseThrow();
+    }
+
+    private static List<Flight> getFlights(String fromAirport, String toAirport, int count, Random random) {
+        List<Flight> flights = new ArrayList<>();
+        LocalDate firstDate = LocalDate.of(2022, 9, 1);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = firstDate.plusDays(random.nextInt(20));
+            int utcOffsetMinutes = (random.nextInt(9) - 4) * 60;
+            int localMinute = random.nextInt(24 * 60);
+            Flight flight = new Flight();
+            flight.flightNumber = fromAirport + i;
+            flight.date = date.toString();
+            flight.fromAirport = fromAirport;
+            flight.toAirport = toAirport;
+            flight.duration = 60 + random.nextInt(600);
+            flight.price = 50 + random.nextInt(5000) / 100.0;
+            flight.availableSeats = random.nextInt(4);
+            flight.dateTimeUTC = new Date((date.toEpochDay() * 24 * 60 + localMinute - utcOffsetMinutes) * 60_000L);
+            flights.add(flight);
+        }
+        return flights;
+    }
+}
@@ -0,0 +1,77 @@
+package com.airlines.dataHandlers;
+
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.model.ItinerarySort;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+class TopItinerariesTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "PRICE     | 1   | 100",
+                    "PRICE     | 10  | 100",
+                    "PRICE     | 100 | 100",
+                    "PRICE     | 200 | 100",
+                    "DURATION  | 7   | 500",
+                    "DEPARTURE | 7   | 500",
+                    "LEGS      | 7   | 500",
+                    "PRICE     | 5   | 0"})
+    void keepsFirstItineraries(ItinerarySort sort, int limit, int count) {
+        List<Itinerary> itineraries = getItineraries(count, new Random(count));
+        TopItineraries topItineraries = new TopItineraries(sort.comparator(), limit);
+
+        itineraries.forEach(topItineraries);
+
+        List<Itinerary> expected = new ArrayList<>(itineraries);
+        expected.sort(sort.comparator());
+        Assertions.assertArrayEquals(expected.subList(0, Math.min(limit, count)).toArray(), topItineraries.toArray());
+    }
+
+    @Test
+    void keepsFirstItinerariesRegardlessOfGenerationOrder() {
+        List<Itinerary> itineraries = getItineraries(300, new Random(1));
+        TopItineraries inOrder = new TopItineraries(ItinerarySort.PRICE.comparator(), 20);
+        TopItineraries shuffled = new TopItineraries(ItinerarySort.PRICE.comparator(), 20);
+
+        itineraries.forEach(inOrder);
+        Collections.shuffle(itineraries, new Random(2));
+        itineraries.forEach(shuffled);
+
+        Assertions.assertArrayEquals(inOrder.toArray(), shuffled.toArray());
+    }
+
+    @Test
+    void rejectsInvalidLimit() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TopItineraries(ItinerarySort.PRICE.comparator(), 0));
+    }
+
+    private List<Itinerary> getItineraries(int count, Random random) {
+        List<Itinerary> itineraries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Flight> flights = new ArrayList<>();
+            long departure = 1663140000000L + random.nextInt(48) * 3_600_000L;
+            for (int leg = 0; leg <= random.nextInt(3); leg++) {
+                Flight flight = new Flight();
+                flight.flightNumber = String.valueOf(1000 + i * 3 + leg);
+                flight.price = 50 + random.nextInt(20);
+                flight.duration = 60 + random.nextInt(300);
+                flight.dateTimeUTC = new Date(departure);
+                departure += (flight.duration + 60) * 60_000L;
+                flights.add(flight);
+            }
+            itineraries.add(new Itinerary(flights));
+        }
+        return itineraries;
+    }
+}
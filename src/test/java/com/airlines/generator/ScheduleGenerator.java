@@ -0,0 +1,234 @@
+package com.airlines.generator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic hub-and-spoke schedule as flights.csv and prices.csv in the bundled formats.
+ * <p>
+ * The first {@code hubCount} airports are hubs connected to each other; every other airport is a spoke
+ * served from its home hub and, for about a third of the spokes, from a second hub. Each route flies every
+ * day at a fixed set of local departure times, and every airport has its own UTC offset.
+ * The schedule is a pure function of the settings and the seed.
+ * <p>
+ * From the command line:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.airlines.generator.ScheduleGenerator -Dexec.args="target/schedule 300 12 365 6 3"}
+ * writes about 1.1M flights; start the application with {@code --flightresourcepath=target/schedule/flights.csv
+ * --priceresourcepath=target/schedule/prices.csv} to load them.
+ */
+public class ScheduleGenerator {
+
+    static final int[] UTC_OFFSET_MINUTES = {
+            -600, -480, -420, -360, -300, -240, -180, 0, 0, 60, 60, 120, 120, 180, 240, 270, 330, 345, 480, 540, 600, 780};
+
+    private static final double SECOND_HUB_SHARE = 0.3;
+    private static final int FIRST_FLIGHT_NUMBER = 1000;
+    private static final int MAXIMUM_SEATS = 60;
+    private static final int FIRST_DEPARTURE_MINUTE = 5 * 60;
+    private static final int DEPARTURE_WINDOW_MINUTES = 18 * 60;
+
+    private final int airportCount;
+    private final int hubCount;
+    private final int days;
+    private final int hubFrequency;
+    private final int spokeFrequency;
+    private final LocalDate startDate;
+    private final long seed;
+
+    private final String[] airports;
+    private final int[] utcOffsets;
+    private final List<Route> routes = new ArrayList<>();
+
+    public ScheduleGenerator(int airportCount, int hubCount, int days, int hubFrequency, int spokeFrequency,
+                             LocalDate startDate, long seed) {
+        if (hubCount < 1 || hubCount > airportCount || airportCount > 26 * 26 * 26) {
+            throw new IllegalArgumentException(String.format(
+                    "Airport count must be at least the hub count (at least 1) and at most 17576: %d airports, %d hubs",
+                    airportCount, hubCount));
+        }
+        if (days < 1 || hubFrequency < 0 || spokeFrequency < 0 || Math.max(hubFrequency, spokeFrequency) > DEPARTURE_WINDOW_MINUTES) {
+            throw new IllegalArgumentException(String.format(
+                    "Days must be positive and frequencies between 0 and 1080 a day: %d days, %d, %d",
+                    days, hubFrequency, spokeFrequency));
+        }
+        this.airportCount = airportCount;
+        this.hubCount = hubCount;
+        this.days = days;
+        this.hubFrequency = hubFrequency;
+        this.spokeFrequency = spokeFrequency;
+        this.startDate = startDate;
+        this.seed = seed;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        airports = new String[airportCount];
+        utcOffsets = new int[airportCount];
+        for (int airport = 0; airport < airportCount; airport++) {
+            airports[airport] = getAirportCode(airport);
+            utcOffsets[airport] = UTC_OFFSET_MINUTES[random.nextInt(UTC_OFFSET_MINUTES.length)];
+        }
+        addRoutes(random);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ScheduleGenerator <directory> [airports hubs days hubFrequency spokeFrequency seed]");
+            return;
+        }
+        ScheduleGenerator scheduleGenerator = new ScheduleGenerator(
+                getArgument(args, 1, 300), getArgument(args, 2, 12), getArgument(args, 3, 365),
+                getArgument(args, 4, 6), getArgument(args, 5, 3), LocalDate.of(2022, 1, 1),
+                getArgument(args, 6, 1));
+        long flights = scheduleGenerator.write(Path.of(args[0]));
+        System.out.printf("Wrote %d flights on %d routes to %s%n", flights, scheduleGenerator.getRoutes().size(), args[0]);
+    }
+
+    public String[] getAirports() {
+        return airports.clone();
+    }
+
+    public String[] getHubs() {
+        return Arrays.copyOf(airports, hubCount);
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public int getUtcOffsetMinutes(String airport) {
+        return utcOffsets[Arrays.asList(airports).indexOf(airport)];
+    }
+
+    public long getFlightCount() {
+        return routes.stream().mapToLong(route -> route.departureMinutes.length).sum() * days;
+    }
+
+    /**
+     * Writes flights.csv and prices.csv into the directory and returns the number of flights.
+     */
+    public long write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SplittableRandom random = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        StringBuilder line = new StringBuilder(64);
+        long flights = 0;
+        try (BufferedWriter flightWriter = Files.newBufferedWriter(directory.resolve("flights.csv"));
+             BufferedWriter priceWriter = Files.newBufferedWriter(directory.resolve("prices.csv"))) {
+            for (int day = 0; day < days; day++) {
+                String date = startDate.plusDays(day).toString();
+                for (Route route : routes) {
+                    for (int slot = 0; slot < route.departureMinutes.length; slot++) {
+                        String flightNumber = String.valueOf(route.firstFlightNumber + slot);
+
+                        line.setLength(0);
+                        line.append(date).append(',').append(flightNumber).append(',')
+                                .append(airports[route.fromAirport]).append(',').append(airports[route.toAirport]).append(',');
+                        appendLocalTime(line, route.departureMinutes[slot], utcOffsets[route.fromAirport]);
+                        line.append(',').append(route.duration).append('\n');
+                        flightWriter.append(line);
+
+                        int availableSeats = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(MAXIMUM_SEATS);
+                        int priceTenths = route.basePriceTenths + random.nextInt(route.basePriceTenths / 2 + 1);
+                        line.setLength(0);
+                        line.append(date).append(',').append(flightNumber).append(',').append(availableSeats).append(',')
+                                .append(priceTenths / 10).append('.').append(priceTenths % 10).append('\n');
+                        priceWriter.append(line);
+                        flights++;
+                    }
+                }
+            }
+        }
+        return flights;
+    }
+
+    private void addRoutes(SplittableRandom random) {
+        int nextFlightNumber = FIRST_FLIGHT_NUMBER;
+        for (int hub = 0; hub < hubCount; hub++) {
+            for (int otherHub = 0; otherHub < hubCount; otherHub++) {
+                if (hub != otherHub) {
+                    nextFlightNumber = addRoute(hub, otherHub, hubFrequency, 120, 720, nextFlightNumber, random);
+                }
+            }
+        }
+        for (int spoke = hubCount; spoke < airportCount; spoke++) {
+            int homeHub = spoke % hubCount;
+            nextFlightNumber = addRoute(spoke, homeHub, spokeFrequency, 60, 360, nextFlightNumber, random);
+            nextFlightNumber = addRoute(homeHub, spoke, spokeFrequency, 60, 360, nextFlightNumber, random);
+            if (hubCount > 1 && random.nextDouble() < SECOND_HUB_SHARE) {
+                int secondHub = (homeHub + 1 + random.nextInt(hubCount - 1)) % hubCount;
+                nextFlightNumber = addRoute(spoke, secondHub, spokeFrequency, 60, 360, nextFlightNumber, random);
+                nextFlightNumber = addRoute(secondHub, spoke, spokeFrequency, 60, 360, nextFlightNumber, random);
+            }
+        }
+    }
+
+    private int addRoute(int fromAirport, int toAirport, int frequency, int minimumDuration, int maximumDuration,
+                         int firstFlightNumber, SplittableRandom random) {
+        if (frequency == 0) {
+            return firstFlightNumber;
+        }
+        int duration = minimumDuration + random.nextInt(maximumDuration - minimumDuration + 1);
+        int[] departureMinutes = new int[frequency];
+        int window = DEPARTURE_WINDOW_MINUTES / frequency;
+        for (int slot = 0; slot < frequency; slot++) {
+            departureMinutes[slot] = FIRST_DEPARTURE_MINUTE + slot * window + random.nextInt(window);
+        }
+        routes.add(new Route(fromAirport, toAirport, duration, 500 + duration * 15, departureMinutes, firstFlightNumber));
+        return firstFlightNumber + frequency;
+    }
+
+    private static void appendLocalTime(StringBuilder line, int minuteOfDay, int utcOffsetMinutes) {
+        appendTwoDigits(line, minuteOfDay / 60).append(':');
+        appendTwoDigits(line, minuteOfDay % 60);
+        if (utcOffsetMinutes == 0) {
+            line.append('Z');
+        } else {
+            line.append(utcOffsetMinutes < 0 ? '-' : '+');
+            appendTwoDigits(line, Math.abs(utcOffsetMinutes) / 60).append(':');
+            appendTwoDigits(line, Math.abs(utcOffsetMinutes) % 60);
+        }
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder line, int value) {
+        return line.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static String getAirportCode(int airport) {
+        return new String(new char[]{
+                (char) ('A' + airport / (26 * 26)), (char) ('A' + airport / 26 % 26), (char) ('A' + airport % 26)});
+    }
+
+    private static int getArgument(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    public static final class Route {
+
+        public final int fromAirport;
+        public final int toAirport;
+        public final int duration;
+        final int basePriceTenths;
+        final int[] departureMinutes;
+        final int firstFlightNumber;
+
+        Route(int fromAirport, int toAirport, int duration, int basePriceTenths, int[] departureMinutes,
+              int firstFlightNumber) {
+            this.fromAirport = fromAirport;
+            this.toAirport = toAirport;
+            this.duration = duration;
+            this.basePriceTenths = basePriceTenths;
+            this.departureMinutes = departureMinutes;
+            this.firstFlightNumber = firstFlightNumber;
+        }
+
+        public int getFrequency() {
+            return departureMinutes.length;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.airlines.generator;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.AirlineMetrics;
+import com.airlines.dataHandlers.FlightsAnalysis;
+import com.airlines.dataHandlers.ParallelSearch;
+import com.airlines.dataHandlers.InitDataBean;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.parsers.FlightParser;
+import com.airlines.parsers.PricesParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class ScheduleGeneratorTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2  | 1 | 1 | 4 | 2",
+                    "20 | 1 | 3 | 4 | 2",
+                    "40 | 4 | 5 | 6 | 3",
+                    "40 | 4 | 2 | 0 | 1"})
+    void write(int airportCount, int hubCount, int days, int hubFrequency, int spokeFrequency,
+               @TempDir Path directory) throws IOException {
+        ScheduleGenerator scheduleGenerator =
+                new ScheduleGenerator(airportCount, hubCount, days, hubFrequency, spokeFrequency, START_DATE, 7);
+
+        long written = scheduleGenerator.write(directory);
+
+        List<Flight> flights = loadFlights(directory);
+        Assertions.assertEquals(scheduleGenerator.getFlightCount(), written);
+        Assertions.assertEquals(written, flights.size());
+
+        Set<String> hubs = Set.of(scheduleGenerator.getHubs());
+        for (Flight flight : flights) {
+            Assertions.assertTrue(hubs.contains(flight.fromAirport) || hubs.contains(flight.toAirport),
+                    () -> flight.fromAirport + "-" + flight.toAirport + " does not touch a hub");
+            Assertions.assertEquals(OffsetDateTime.parse(flight.date + "T" + flight.departureDate).toInstant().toEpochMilli(),
+                    flight.dateTimeUTC.getTime());
+            Assertions.assertTrue(flight.duration >= 60 && flight.duration <= 720);
+            Assertions.assertTrue(flight.availableSeats >= 0 && flight.price > 0);
+        }
+        Assertions.assertEquals(days, flights.stream().map(flight -> flight.date).distinct().count());
+    }
+
+    @Test
+    void writeIsDeterministic(@TempDir Path directory) throws IOException {
+        new ScheduleGenerator(30, 3, 2, 3, 2, START_DATE, 11).write(directory.resolve("first"));
+        new ScheduleGenerator(30, 3, 2, 3, 2, START_DATE, 11).write(directory.resolve("second"));
+        new ScheduleGenerator(30, 3, 2, 3, 2, START_DATE, 12).write(directory.resolve("third"));
+
+        Assertions.assertArrayEquals(Files.readAllBytes(directory.resolve("first/flights.csv")),
+                Files.readAllBytes(directory.resolve("second/flights.csv")));
+        Assertions.assertArrayEquals(Files.readAllBytes(directory.resolve("first/prices.csv")),
+                Files.readAllBytes(directory.resolve("second/prices.csv")));
+        Assertions.assertFalse(Arrays.equals(Files.readAllBytes(directory.resolve("first/flights.csv")),
+                Files.readAllBytes(directory.resolve("third/flights.csv"))));
+    }
+
+    @Test
+    void routesFormHubAndSpokeNetwork() {
+        ScheduleGenerator scheduleGenerator = new ScheduleGenerator(100, 5, 1, 4, 2, START_DATE, 3);
+        String[] airports = scheduleGenerator.getAirports();
+
+        Set<String> hubRoutes = scheduleGenerator.getRoutes().stream()
+                .filter(route -> route.fromAirport < 5 && route.toAirport < 5)
+                .map(route -> airports[route.fromAirport] + airports[route.toAirport])
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(5 * 4, hubRoutes.size());
+        for (int spoke = 5; spoke < 100; spoke++) {
+            int airport = spoke;
+            Assertions.assertTrue(scheduleGenerator.getRoutes().stream()
+                    .anyMatch(route -> route.fromAirport == airport && route.toAirport == airport % 5));
+            Assertions.assertTrue(scheduleGenerator.getRoutes().stream()
+                    .anyMatch(route -> route.fromAirport == airport % 5 && route.toAirport == airport));
+        }
+        Assertions.assertTrue(Arrays.stream(airports)
+                .map(scheduleGenerator::getUtcOffsetMinutes)
+                .distinct()
+                .count() > 5);
+    }
+
+    @Test
+    void searchGeneratedSchedule(@TempDir Path directory) throws IOException {
+        ScheduleGenerator scheduleGenerator = new ScheduleGenerator(60, 4, 10, 12, 6, START_DATE, 5);
+        scheduleGenerator.write(directory);
+        FlightGraphProvider flightGraphProvider = new FlightGraphProvider();
+        flightGraphProvider.load(loadFlights(directory));
+        FlightsAnalysis flightsAnalysis =
+                new FlightsAnalysis(null, getConfiguration(), flightGraphProvider,
+                        new AirlineMetrics(new SimpleMeterRegistry(), flightGraphProvider), ParallelSearch.sequential());
+        String[] hubs = scheduleGenerator.getHubs();
+        String[] airports = scheduleGenerator.getAirports();
+
+        Itinerary[] roundTrips = flightsAnalysis.getPriceRoundTrip("2022-01-03", hubs[0], "2022-01-06", hubs[1]);
+        Itinerary[] connections = flightsAnalysis.getPriceWithConnections("2022-01-03", airports[hubs.length], hubs[1]);
+
+        Assertions.assertTrue(roundTrips.length > 0);
+        Assertions.assertTrue(connections.length > 0);
+        for (Itinerary itinerary : connections) {
+            Assertions.assertEquals(airports[hubs.length], itinerary.flightsItinerary[0].fromAirport);
+            Assertions.assertEquals(hubs[1], itinerary.flightsItinerary[itinerary.flightsItinerary.length - 1].toAirport);
+        }
+        Assertions.assertTrue(flightsAnalysis.getAllRoundTripItineraries(hubs[2], hubs[3]).size() > 0);
+    }
+
+    @Test
+    void invalidSettings() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScheduleGenerator(3, 4, 1, 1, 1, START_DATE, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScheduleGenerator(3, 0, 1, 1, 1, START_DATE, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScheduleGenerator(3, 1, 0, 1, 1, START_DATE, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScheduleGenerator(3, 1, 1, 2000, 1, START_DATE, 1));
+    }
+
+    private List<Flight> loadFlights(Path directory) throws IOException {
+        FlightInventoryConfiguration configuration = getConfiguration();
+        return InitDataBean.mergePrices(
+                new FlightParser(configuration).parseFlightSource(directory.resolve("flights.csv").toUri().toURL()),
+                new PricesParser(configuration).parseFlightSource(directory.resolve("prices.csv").toUri().toURL()));
+    }
+
+    private FlightInventoryConfiguration getConfiguration() {
+        FlightInventoryConfiguration configuration = Mockito.mock(FlightInventoryConfiguration.class);
+        Mockito.when(configuration.isParallelCsvParsing()).thenReturn(true);
+        Mockito.when(configuration.isFlightGraphEnabled()).thenReturn(true);
+        Mockito.when(configuration.getWaitingTimeBetweenFlights()).thenReturn(360);
+        Mockito.when(configuration.getMinimumAvailableSeats()).thenReturn(1);
+        Mockito.when(configuration.getMinimumDaysForRoundTrip()).thenReturn(1);
+        Mockito.when(configuration.getMaximumConnections()).thenReturn(1);
+        return configuration;
+    }
+}
@@ -0,0 +1,128 @@
+package com.airlines.graph;
+
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.model.SearchBudget;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConnectionSearchTest {
+
+    private final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter
+                    .ofPattern("uuuu-MM-dd'T'HH:mmXXXXX");
+    private int flightNumber = 1;
+
+    private FlightGraph flightGraph;
+
+    @BeforeAll
+    public void setUp() {
+        flightGraph = FlightGraph.build(Arrays.asList(
+                getFlight("TLV", "ROM", "06:00Z", 180, 5),
+                getFlight("TLV", "BER", "07:00Z", 240, 5),
+                getFlight("TLV", "JFK", "08:00Z", 600, 5),
+                getFlight("ROM", "BER", "10:00Z", 120, 5),
+                getFlight("ROM", "MEX", "11:00Z", 600, 5),
+                getFlight("ROM", "JFK", "20:00Z", 600, 5),
+                getFlight("BER", "JFK", "13:00Z", 540, 5),
+                getFlight("BER", "TLV", "12:30Z", 240, 5),
+                getFlight("BER", "MEX", "14:00Z", 300, 0)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "TLV | JFK | 0 | 360 | 1",
+                    "TLV | JFK | 1 | 360 | 2",
+                    "TLV | JFK | 2 | 360 | 3",
+                    "TLV | JFK | 3 | 360 | 3",
+                    "TLV | JFK | 1 | 60  | 1",
+                    "TLV | JFK | 2 | 60  | 2",
+                    "TLV | MEX | 2 | 360 | 1",
+                    "TLV | BER | 2 | 360 | 2",
+                    "ROM | JFK | 2 | 360 | 2",
+                    "JFK | TLV | 2 | 360 | 0",
+                    "TLV | TLV | 2 | 360 | 0",
+                    "TLV | LAX | 2 | 360 | 0"})
+    void search(String fromAirport, String toAirport, int maximumConnections, int waitingTimeBetweenFlights, int itinerariesCount) {
+        ConnectionSearch connectionSearch =
+                new ConnectionSearch(flightGraph, maximumConnections, waitingTimeBetweenFlights, 1);
+
+        List<Itinerary> itineraries = connectionSearch.search("2022-09-14", fromAirport, toAirport);
+
+        Assertions.assertEquals(itinerariesCount, itineraries.size());
+        itineraries.forEach(itinerary ->
+                assertValidItinerary(itinerary, fromAirport, toAirport, maximumConnections, waitingTimeBetweenFlights));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "TLV | JFK | 2 | 1 | 1",
+                    "TLV | JFK | 2 | 3 | 3",
+                    "TLV | BER | 2 | 1 | 1"})
+    void stream(String fromAirport, String toAirport, int maximumConnections, int limit, int itinerariesCount) {
+        ConnectionSearch connectionSearch = new ConnectionSearch(flightGraph, maximumConnections, 360, 1);
+        List<Itinerary> allItineraries = connectionSearch.search("2022-09-14", fromAirport, toAirport);
+        long allExaminedConnections = connectionSearch.getExaminedConnections();
+
+        List<Itinerary> itineraries = connectionSearch.stream("2022-09-14", fromAirport, toAirport, SearchBudget.unlimited())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(getFlightNumbers(allItineraries.subList(0, itinerariesCount)), getFlightNumbers(itineraries));
+        Assertions.assertEquals(itinerariesCount < allItineraries.size(),
+                connectionSearch.getExaminedConnections() - allExaminedConnections < allExaminedConnections);
+    }
+
+    private List<String> getFlightNumbers(List<Itinerary> itineraries) {
+        return itineraries.stream()
+                .map(itinerary -> Arrays.stream(itinerary.flightsItinerary)
+                        .map(flight -> flight.flightNumber)
+                        .collect(Collectors.joining(",")))
+                .collect(Collectors.toList());
+    }
+
+    private void assertValidItinerary(Itinerary itinerary, String fromAirport, String toAirport,
+                                      int maximumConnections, int waitingTimeBetweenFlights) {
+        Flight[] flights = itinerary.flightsItinerary;
+        Assertions.assertTrue(flights.length <= maximumConnections + 1);
+        Assertions.assertEquals(fromAirport, flights[0].fromAirport);
+        Assertions.assertEquals(toAirport, flights[flights.length - 1].toAirport);
+        for (int leg = 1; leg < flights.length; leg++) {
+            long arrival = flights[leg - 1].dateTimeUTC.getTime() / 60_000 + flights[leg - 1].duration;
+            long departure = flights[leg].dateTimeUTC.getTime() / 60_000;
+            Assertions.assertEquals(flights[leg - 1].toAirport, flights[leg].fromAirport);
+            Assertions.assertTrue(departure >= arrival && departure <= arrival + waitingTimeBetweenFlights);
+            Assertions.assertTrue(flights[leg].availableSeats >= 1);
+        }
+    }
+
+    private Flight getFlight(String fromAirport, String toAirport, String departureDate, int duration, int availableSeats) {
+        Flight flight = new Flight();
+        flightNumber += 1;
+        flight.flightNumber = String.valueOf(flightNumber);
+        flight.date = "2022-09-14";
+        flight.fromAirport = fromAirport;
+        flight.toAirport = toAirport;
+        flight.departureDate = departureDate;
+        flight.duration = duration;
+        flight.price = 1;
+        flight.availableSeats = availableSeats;
+        flight.dateTimeUTC = Date.from(OffsetDateTime
+                .parse(flight.date + "T" + flight.departureDate, DATE_TIME_FORMATTER)
+                .withOffsetSameInstant(ZoneOffset.UTC).toInstant());
+        return flight;
+    }
+}
@@ -0,0 +1,157 @@
+package com.airlines.graph;
+
+import com.airlines.model.Flight;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FlightGraphTest {
+
+    private final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter
+                    .ofPattern("uuuu-MM-dd'T'HH:mmXXXXX");
+    private int flightNumber = 1;
+
+    private FlightGraph flightGraph;
+
+    @BeforeAll
+    public void setUp() {
+        flightGraph = FlightGraph.build(Arrays.asList(
+                getFlight("2022-09-14", "TLV", "MAD", "23:30+02:00", 5),
+                getFlight("2022-09-14", "TLV", "MAD", "06:00+02:00", 5),
+                getFlight("2022-09-14", "TLV", "BER", "08:00+02:00", 0),
+                getFlight("2022-09-15", "TLV", "MAD", "01:00+02:00", 5),
+                getFlight("2022-09-14", "MAD", "TLV", "22:00-03:00", 5),
+                getFlight("2022-09-15", "MAD", "TLV", "09:00Z", 5)));
+    }
+
+    @Test
+    void internsAirportsDatesAndFlightNumbers() {
+        Assertions.assertEquals(6, flightGraph.size());
+        Assertions.assertEquals(3, flightGraph.airportCount());
+        Assertions.assertTrue(flightGraph.getAirportId("TLV") >= 0);
+        Assertions.assertEquals(-1, flightGraph.getAirportId("JFK"));
+        Assertions.assertTrue(flightGraph.getDateId("2022-09-15") >= 0);
+        Assertions.assertEquals(-1, flightGraph.getDateId("2022-09-16"));
+    }
+
+    @Test
+    void ordersFlightsByDepartureMinute() {
+        for (int flightIndex = 1; flightIndex < flightGraph.size(); flightIndex++) {
+            Assertions.assertTrue(
+                    flightGraph.departureMinute(flightIndex - 1) <= flightGraph.departureMinute(flightIndex));
+        }
+        int tlv = flightGraph.getAirportId("TLV");
+        for (int position = 1; position < flightGraph.departureCount(tlv); position++) {
+            Assertions.assertTrue(
+                    flightGraph.departureMinute(flightGraph.departureAt(tlv, position - 1))
+                            <= flightGraph.departureMinute(flightGraph.departureAt(tlv, position)));
+        }
+    }
+
+    @Test
+    void binarySearchesDeparturesByAirport() {
+        int tlv = flightGraph.getAirportId("TLV");
+        long departureMinute = flightGraph.departureMinute(flightGraph.departureAt(tlv, 1));
+
+        Assertions.assertEquals(1, flightGraph.lowerBound(tlv, departureMinute));
+        Assertions.assertEquals(2, flightGraph.upperBound(tlv, departureMinute));
+        Assertions.assertEquals(0, flightGraph.lowerBound(tlv, Long.MIN_VALUE));
+        Assertions.assertEquals(flightGraph.departureCount(tlv), flightGraph.lowerBound(tlv, Long.MAX_VALUE));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2022-09-14 | TLV | MAD | 1 | 2",
+                    "2022-09-14 | TLV | BER | 1 | 0",
+                    "2022-09-14 | TLV | BER | 0 | 1",
+                    "2022-09-15 | TLV | MAD | 1 | 1",
+                    "2022-09-14 | MAD | TLV | 1 | 1",
+                    "2022-09-15 | MAD | TLV | 1 | 1",
+                    "2022-09-14 | JFK | TLV | 1 | 0",
+                    "2022-09-16 | TLV | MAD | 1 | 0"})
+    void getDepartures(String date, String fromAirport, String toAirport, int minimumAvailableSeats, int flightsCount) {
+        List<Flight> departures = flightGraph.getDepartures(date, fromAirport, toAirport, minimumAvailableSeats);
+
+        Assertions.assertEquals(flightsCount, departures.size());
+        departures.forEach(flight -> Assertions.assertEquals(date, flight.date));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "TLV | MAD | true",
+                    "MAD | TLV | true",
+                    "TLV | BER | true",
+                    "BER | TLV | false",
+                    "MAD | BER | false",
+                    "TLV | JFK | false"})
+    void hasRoute(String fromAirport, String toAirport, boolean route) {
+        Assertions.assertEquals(route, flightGraph.hasRoute(fromAirport, toAirport));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2022-09-14 | TLV | 1 | 2",
+                    "2022-09-14 | TLV | 0 | 3",
+                    "2022-09-15 | MAD | 1 | 1",
+                    "2022-09-14 | JFK | 1 | 0",
+                    "2022-09-16 | TLV | 1 | 0"})
+    void getDeparturesToAnyAirport(String date, String fromAirport, int minimumAvailableSeats, int flightsCount) {
+        List<Flight> departures = flightGraph.getDepartures(date, fromAirport, minimumAvailableSeats);
+
+        Assertions.assertEquals(flightsCount, departures.size());
+        departures.forEach(flight -> Assertions.assertEquals(date, flight.date));
+        departures.forEach(flight -> Assertions.assertEquals(fromAirport, flight.fromAirport));
+    }
+
+    @Test
+    void getDeparturesBetween() {
+        long start = getMinute("2022-09-14T23:30+02:00");
+        long end = getMinute("2022-09-15T01:00+02:00");
+
+        Assertions.assertEquals(2, flightGraph.getDeparturesBetween(start, end, "MAD", 1).size());
+        Assertions.assertEquals(1, flightGraph.getDeparturesBetween(start, end - 1, "MAD", 1).size());
+        Assertions.assertEquals(0, flightGraph.getDeparturesBetween(start, end, "BER", 0).size());
+    }
+
+    @Test
+    void getRouteFlights() {
+        Assertions.assertEquals(3, flightGraph.getRouteFlights("TLV", "MAD", 1).size());
+        Assertions.assertEquals(2, flightGraph.getRouteFlights("MAD", "TLV", 1).size());
+        Assertions.assertEquals(0, flightGraph.getRouteFlights("MAD", "BER", 0).size());
+    }
+
+    private long getMinute(String dateTime) {
+        return OffsetDateTime.parse(dateTime, DATE_TIME_FORMATTER).toEpochSecond() / 60;
+    }
+
+    private Flight getFlight(String date, String fromAirport, String toAirport, String departureDate, int availableSeats) {
+        Flight flight = new Flight();
+        flightNumber += 1;
+        flight.flightNumber = String.valueOf(flightNumber);
+        flight.date = date;
+        flight.fromAirport = fromAirport;
+        flight.toAirport = toAirport;
+        flight.departureDate = departureDate;
+        flight.duration = 300;
+        flight.price = 1;
+        flight.availableSeats = availableSeats;
+        flight.dateTimeUTC = Date.from(OffsetDateTime
+                .parse(flight.date + "T" + flight.departureDate, DATE_TIME_FORMATTER)
+                .withOffsetSameInstant(ZoneOffset.UTC).toInstant());
+        return flight;
+    }
+}
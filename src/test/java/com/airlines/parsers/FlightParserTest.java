@@ -0,0 +1,82 @@
+package com.airlines.parsers;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.Flight;
+import com.airlines.model.Price;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class FlightParserTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void parseFlightSource(boolean parallelCsvParsing) throws IOException {
+        FlightInventoryConfiguration configuration = getConfiguration(parallelCsvParsing);
+        List<String[]> lines = readLines("flights.csv");
+
+        List<Flight> flights = new FlightParser(configuration).parseFlightSource();
+
+        Assertions.assertEquals(lines.size(), flights.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String[] line = lines.get(i);
+            Flight flight = flights.get(i);
+            Assertions.assertEquals(line[0], flight.date);
+            Assertions.assertEquals(line[1], flight.flightNumber);
+            Assertions.assertEquals(line[2], flight.fromAirport);
+            Assertions.assertEquals(line[3], flight.toAirport);
+            Assertions.assertEquals(line[4], flight.departureDate);
+            Assertions.assertEquals(Integer.parseInt(line[5]), flight.duration);
+            Assertions.assertEquals(OffsetDateTime.parse(line[0] + "T" + line[4]).toInstant().toEpochMilli(),
+                    flight.dateTimeUTC.getTime());
+            Assertions.assertEquals(flight.dateTimeUTC.getTime() / 60_000L, flight.getDepartureEpochMinute());
+            Assertions.assertEquals(flight.getDepartureEpochMinute() + flight.duration, flight.getArrivalEpochMinute());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void parsePriceSource(boolean parallelCsvParsing) throws IOException {
+        FlightInventoryConfiguration configuration = getConfiguration(parallelCsvParsing);
+        List<String[]> lines = readLines("prices.csv");
+
+        List<Price> prices = new PricesParser(configuration).parseFlightSource();
+
+        Assertions.assertEquals(lines.size(), prices.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String[] line = lines.get(i);
+            Price price = prices.get(i);
+            Assertions.assertEquals(line[0], price.date);
+            Assertions.assertEquals(line[1], price.flightNumber);
+            Assertions.assertEquals(Integer.parseInt(line[2]), price.availableSeats);
+            Assertions.assertEquals(Double.parseDouble(line[3]), price.price);
+        }
+    }
+
+    private FlightInventoryConfiguration getConfiguration(boolean parallelCsvParsing) {
+        FlightInventoryConfiguration configuration = Mockito.mock(FlightInventoryConfiguration.class);
+        Mockito.when(configuration.getFlightResourcePath()).thenReturn("flights.csv");
+        Mockito.when(configuration.getPriceResourcePath()).thenReturn("prices.csv");
+        Mockito.when(configuration.isParallelCsvParsing()).thenReturn(parallelCsvParsing);
+        return configuration;
+    }
+
+    private List<String[]> readLines(String resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getClassLoader().getResourceAsStream(resource), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .map(line -> line.split(","))
+                    .collect(Collectors.toList());
+        }
+    }
+}
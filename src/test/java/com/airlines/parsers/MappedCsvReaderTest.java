@@ -0,0 +1,136 @@
+package com.airlines.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+class MappedCsvReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 64})
+    void readKeepsLineOrderForAnyChunkCount(int chunks) {
+        String csv = "a,1\r\nb,2\n\n  \nc,3\nd,4\r\ne,5";
+
+        List<String> records = MappedCsvReader.read(toBuffer(csv),
+                record -> record.getString(0) + record.getInt(1), chunks);
+
+        Assertions.assertEquals(List.of("a1", "b2", "c3", "d4", "e5"), records);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "2022-01-01 | 08:31+02:00",
+                    "2022-01-01 | 00:10+03:00",
+                    "2022-12-31 | 23:59-05:30",
+                    "2024-02-29 | 12:00Z",
+                    "1969-12-31 | 23:00+00:00",
+                    "2100-03-01 | 01:15+14:00",
+                    "2000-02-29 | 06:00Z",
+                    "2022-04-30 | 18:45+01:00"})
+    void getEpochMinute(String date, String time) {
+        long expected = OffsetDateTime.parse(date + "T" + time).toEpochSecond() / 60;
+
+        long epochMinute = MappedCsvReader.read(toBuffer(date + "," + time),
+                record -> record.getEpochMinute(0, 1), 1).get(0);
+
+        Assertions.assertEquals(expected, epochMinute);
+        Assertions.assertEquals(LocalDate.parse(date).toEpochDay(),
+                MappedCsvReader.read(toBuffer(date), record -> record.getEpochDay(0), 1).get(0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"565.0", "0", "-12.5", "0.125", "1234567.89", "1e3", "12345678901234567.5"})
+    void getDouble(String value) {
+        double parsed = MappedCsvReader.read(toBuffer(value), record -> record.getDouble(0), 1).get(0);
+
+        Assertions.assertEquals(Double.parseDouble(value), parsed);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "'2022-01-01,abc'   | 1",
+                    "'2022-01-01,'      | 1",
+                    "'2022-01-01'       | 1",
+                    "'2022-01-01,99999999999' | 1",
+                    "'2022-1-01,1'      | 2",
+                    "'2022-13-01,1'     | 2",
+                    "'2023-02-31,1'     | 2",
+                    "'2023-02-29,1'     | 2",
+                    "'1900-02-29,1'     | 2",
+                    "'2022-04-31,1'     | 2",
+                    "'2022-01-32,1'     | 2",
+                    "'2022-01-01,08:31' | 3",
+                    "'2022-01-01,25:00+02:00' | 3",
+                    "'2022-01-01,08:31+02' | 3"})
+    void readInvalidField(String line, int parsedField) {
+        CsvRecordMapper<Object> mapper = record -> {
+            switch (parsedField) {
+                case 1: return record.getInt(1);
+                case 2: return record.getEpochDay(0);
+                default: return record.getEpochMinute(0, 1);
+            }
+        };
+
+        IllegalArgumentException ex = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MappedCsvReader.read(toBuffer(line), mapper, 1));
+        Assertions.assertTrue(ex.getMessage().endsWith(line));
+    }
+
+    @Test
+    void getStringReturnsInternedValues() {
+        List<String> airports = MappedCsvReader.read(toBuffer("TLV\nMAD\nTLV\n"), record -> record.getString(0), 1);
+
+        Assertions.assertEquals(List.of("TLV", "MAD", "TLV"), airports);
+        Assertions.assertSame(airports.get(0), airports.get(2));
+    }
+
+    @Test
+    void readFromFileAndJarResources(@TempDir Path directory) throws IOException {
+        String csv = "2022-01-01,1010,TLV,MAD,08:31+02:00,330\n2022-01-01,1011,TLV,MAD,16:31+02:00,330\n";
+        Path file = Files.writeString(directory.resolve("flights.csv"), csv);
+        Path jar = directory.resolve("flights.jar");
+        try (OutputStream outputStream = Files.newOutputStream(jar);
+             JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            jarOutputStream.putNextEntry(new JarEntry("flights.csv"));
+            jarOutputStream.write(csv.getBytes(StandardCharsets.UTF_8));
+            jarOutputStream.closeEntry();
+        }
+
+        List<String> fromFile = MappedCsvReader.read(file.toUri().toURL(), record -> record.getString(1), false);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            URL resource = classLoader.getResource("flights.csv");
+            Assertions.assertEquals("jar", resource.getProtocol());
+            List<String> fromJar = MappedCsvReader.read(resource, record -> record.getString(1), true);
+
+            Assertions.assertEquals(List.of("1010", "1011"), fromFile);
+            Assertions.assertEquals(fromFile, fromJar);
+        }
+    }
+
+    @Test
+    void readMissingResource() {
+        Assertions.assertThrows(IOException.class, () -> MappedCsvReader.read(null, record -> record, false));
+    }
+
+    private ByteBuffer toBuffer(String csv) {
+        return ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
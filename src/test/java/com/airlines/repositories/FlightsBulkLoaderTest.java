@@ -0,0 +1,95 @@
+package com.airlines.repositories;
+
+import com.airlines.model.Flight;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+@DataJpaTest
+@Import(FlightsBulkLoader.class)
+class FlightsBulkLoaderTest {
+
+    @Autowired
+    private FlightsBulkLoader flightsBulkLoader;
+
+    @Autowired
+    private FlightsRepository flightsRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 7, 1000})
+    void insertAll(int batchSize) {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            flights.add(getFlight(String.valueOf(1010 + i), "2022-01-0" + (i % 3 + 1), i));
+        }
+
+        int inserted = flightsBulkLoader.insertAll(flights, batchSize);
+
+        List<Flight> savedFlights = flightsRepository.findAll();
+        savedFlights.sort(Comparator.comparing(flight -> flight.flightNumber));
+        Assertions.assertEquals(flights.size(), inserted);
+        Assertions.assertEquals(flights.size(), savedFlights.size());
+        for (int i = 0; i < flights.size(); i++) {
+            Flight expected = flights.get(i);
+            Flight saved = savedFlights.get(i);
+            Assertions.assertEquals(expected.flightNumber, saved.flightNumber);
+            Assertions.assertEquals(expected.date, saved.date);
+            Assertions.assertEquals(expected.fromAirport, saved.fromAirport);
+            Assertions.assertEquals(expected.toAirport, saved.toAirport);
+            Assertions.assertEquals(expected.departureDate, saved.departureDate);
+            Assertions.assertEquals(expected.duration, saved.duration);
+            Assertions.assertEquals(expected.price, saved.price);
+            Assertions.assertEquals(expected.availableSeats, saved.availableSeats);
+            Assertions.assertEquals(expected.dateTimeUTC.getTime(), saved.dateTimeUTC.getTime());
+            Assertions.assertEquals(expected.dateTimeUTC.getTime() / 60_000L, saved.getDepartureEpochMinute());
+            Assertions.assertEquals(saved.getDepartureEpochMinute() + expected.duration, saved.getArrivalEpochMinute());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 1000})
+    void updateInventory(int batchSize) {
+        flightsBulkLoader.insertAll(List.of(getFlight("1010", "2022-01-01", 0), getFlight("1011", "2022-01-01", 1)), 1);
+        Flight changed = getFlight("1011", "2022-01-01", 1);
+        changed.availableSeats = 9;
+        changed.price = 600.25;
+
+        int updated = flightsBulkLoader.updateInventory(List.of(changed, getFlight("1012", "2022-01-01", 2)), batchSize);
+
+        List<Flight> savedFlights = flightsRepository.findAll();
+        savedFlights.sort(Comparator.comparing(flight -> flight.flightNumber));
+        Assertions.assertEquals(1, updated);
+        Assertions.assertEquals(0, savedFlights.get(0).availableSeats);
+        Assertions.assertEquals(9, savedFlights.get(1).availableSeats);
+        Assertions.assertEquals(600.25, savedFlights.get(1).price);
+        Assertions.assertEquals(changed.duration, savedFlights.get(1).duration);
+    }
+
+    @Test
+    void insertAllWithInvalidBatchSize() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> flightsBulkLoader.insertAll(List.of(getFlight("1010", "2022-01-01", 0)), 0));
+    }
+
+    private Flight getFlight(String flightNumber, String date, int index) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.date = date;
+        flight.fromAirport = "TLV";
+        flight.toAirport = "MAD";
+        flight.departureDate = "08:31+02:00";
+        flight.duration = 330 + index;
+        flight.price = 565.5 + index;
+        flight.availableSeats = index;
+        flight.dateTimeUTC = new Date(1640932260000L + index * 3_600_000L);
+        return flight;
+    }
+}
@@ -0,0 +1,62 @@
+package com.airlines.repositories;
+
+import com.airlines.model.Flight;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The projected repository queries return detached flights; {@code FlightsRepositoryBenchmark} compares what they
+ * allocate with a query loading managed entities.
+ */
+@DataJpaTest
+@Import(FlightsBulkLoader.class)
+class FlightsRepositoryProjectionTest {
+
+    @Autowired
+    private FlightsRepository flightsRepository;
+
+    @Autowired
+    private FlightsBulkLoader flightsBulkLoader;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    public void setUp() {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Flight flight = new Flight();
+            flight.flightNumber = String.valueOf(1000 + i);
+            flight.date = "2022-01-01";
+            flight.fromAirport = "TLV";
+            flight.toAirport = i % 2 == 0 ? "MAD" : "BER";
+            flight.departureDate = "08:31+02:00";
+            flight.duration = 300;
+            flight.price = 500.0 + i;
+            flight.availableSeats = 3;
+            flight.dateTimeUTC = new Date(1640932260000L + i * 60_000L);
+            flights.add(flight);
+        }
+        flightsBulkLoader.insertAll(flights, 100);
+    }
+
+    @Test
+    void projectedFinderReturnsDetachedFlights() {
+        List<Flight> flights = flightsRepository.findByFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqualOrderByDate(
+                new String[]{"TLV", "MAD"}, new String[]{"TLV", "MAD"}, 1);
+
+        Assertions.assertEquals(250, flights.size());
+        Assertions.assertTrue(flights.stream().noneMatch(entityManager::contains));
+        Assertions.assertEquals("MAD", flights.get(0).toAirport);
+        Assertions.assertEquals(500.0, flights.get(0).price);
+        Assertions.assertEquals(1640932260000L, flights.get(0).dateTimeUTC.getTime());
+    }
+}
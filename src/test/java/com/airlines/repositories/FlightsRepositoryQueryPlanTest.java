@@ -0,0 +1,123 @@
+package com.airlines.repositories;
+
+import com.airlines.model.Flight;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.airlines.repositories.FlightsRepositoryQueryPlanTest$SqlCapture")
+@Import(FlightsBulkLoader.class)
+class FlightsRepositoryQueryPlanTest {
+
+    private static final Date START = new Date(1641016800000L);
+    private static final Date END = new Date(1641103200000L);
+
+    @Autowired
+    private FlightsRepository flightsRepository;
+
+    @Autowired
+    private FlightsBulkLoader flightsBulkLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        String[] airports = {"TLV", "MAD", "BER", "JFK", "ROM", "MEX"};
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Flight flight = new Flight();
+            flight.flightNumber = String.valueOf(1000 + i % 100);
+            flight.date = String.format("2022-01-%02d", i / 100 + 1);
+            flight.fromAirport = airports[i % airports.length];
+            flight.toAirport = airports[(i / airports.length + 1 + i) % airports.length];
+            flight.departureDate = "08:31+02:00";
+            flight.duration = 300;
+            flight.availableSeats = i % 5;
+            flight.dateTimeUTC = new Date(START.getTime() + i * 600_000L);
+            flights.add(flight);
+        }
+        flightsBulkLoader.insertAll(flights, 500);
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                Arguments.of("findByDateAndFromAirportAndAvailableSeatsGreaterThanEqual",
+                        new Object[]{"2022-01-02", "TLV", 1}),
+                Arguments.of("findByDateInAndFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqual",
+                        new Object[]{new String[]{"2022-01-02"}, new String[]{"TLV"}, new String[]{"MAD"}, 1}),
+                Arguments.of("findByFromAirportInAndToAirportInAndAvailableSeatsGreaterThanEqualOrderByDate",
+                        new Object[]{new String[]{"TLV"}, new String[]{"MAD"}, 1}),
+                Arguments.of("findByDateTimeUTCBetweenAndToAirportAndAvailableSeatsGreaterThanEqual",
+                        new Object[]{START, END, "MAD", 1}),
+                Arguments.of("findByDateTimeUTCBetweenAndAvailableSeatsGreaterThanEqual",
+                        new Object[]{START, END, 1}));
+    }
+
+    @ParameterizedTest
+    @MethodSource("finders")
+    void finderUsesIndex(String finder, Object[] arguments) throws Exception {
+        Method method = Arrays.stream(FlightsRepository.class.getDeclaredMethods())
+                .filter(declaredMethod -> declaredMethod.getName().equals(finder))
+                .findFirst()
+                .orElseThrow();
+
+        method.invoke(flightsRepository, arguments);
+
+        String sql = SqlCapture.STATEMENTS.stream()
+                .filter(statement -> statement.startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, getParameters(arguments));
+
+        Assertions.assertFalse(plan.contains("tableScan"), () -> finder + " scans the flight table:\n" + plan);
+        Assertions.assertTrue(plan.contains("IDX_FLIGHT_") || plan.contains("PRIMARY_KEY"),
+                () -> finder + " does not use an index:\n" + plan);
+    }
+
+    @Test
+    void everyFinderHasQueryPlan() {
+        Set<String> finders = finders()
+                .map(arguments -> (String) arguments.get()[0])
+                .collect(Collectors.toSet());
+        Set<String> declaredFinders = Arrays.stream(FlightsRepository.class.getDeclaredMethods())
+                .map(Method::getName)
+                .filter(name -> name.startsWith("find"))
+                .collect(Collectors.toSet());
+
+        Assertions.assertEquals(declaredFinders, finders);
+    }
+
+    private Object[] getParameters(Object[] arguments) {
+        return Arrays.stream(arguments)
+                .flatMap(argument -> argument instanceof Object[] ? Arrays.stream((Object[]) argument) : Stream.of(argument))
+                .map(argument -> argument instanceof Date ? new Timestamp(((Date) argument).getTime()) : argument)
+                .toArray();
+    }
+
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package com.airlines.services;
 
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.AirlineMetrics;
+import com.airlines.dataHandlers.FareCalendarProvider;
 import com.airlines.dataHandlers.FlightsAnalysis;
+import com.airlines.dataHandlers.RoundTripItineraries;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.BatchItineraries;
+import com.airlines.model.BatchItineraryRequest;
+import com.airlines.model.Flight;
 import com.airlines.model.Itinerary;
+import com.airlines.model.ItinerarySort;
+import com.airlines.model.RoundTripRequest;
+import com.airlines.model.SearchBudget;
+import com.airlines.model.WithConnectionsRequest;
 import com.airlines.validators.DateValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -26,9 +47,17 @@ class FlightItineraryServiceTest {
     @MockBean
     private DateValidator dateValidator;
 
+    @MockBean
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+
+    private final SearchBudget searchBudget = SearchBudget.unlimited();
+
     @BeforeAll
     public void setUp() {
-        flightItineraryService = new FlightItineraryService(flightsAnalysis, dateValidator);
+        flightItineraryService = new FlightItineraryService(flightsAnalysis, dateValidator,
+                new ItineraryCache(flightInventoryConfiguration), new FareCalendarProvider(flightInventoryConfiguration),
+                new SearchCoalescer(flightInventoryConfiguration,
+                        new AirlineMetrics(new SimpleMeterRegistry(), new FlightGraphProvider())));
     }
 
     @ParameterizedTest
@@ -37,15 +66,32 @@ class FlightItineraryServiceTest {
     void getPriceRoundTripHappyPath(String departureDate, String fromAirport, String returnDate, String toAirport)  {
 
         Mockito.when(flightsAnalysis
-                        .getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport))
+                        .getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, searchBudget))
                 .thenReturn(new Itinerary[0]);
 
-        flightItineraryService.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport);
+        flightItineraryService.getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, searchBudget);
 
         verify(dateValidator, times(1))
                 .validateDateRange(departureDate, returnDate);
         verify(flightsAnalysis, times(1))
-                .getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport);
+                .getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, searchBudget);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-01-12| JFK| 2022-01-14| MEX| 20"})
+    void streamPriceRoundTrip(String departureDate, String fromAirport, String returnDate, String toAirport, long offset) {
+        Mockito.when(flightsAnalysis
+                        .streamPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, offset, searchBudget))
+                .thenReturn(Stream.empty());
+
+        Assertions.assertEquals(0, flightItineraryService
+                .streamPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, offset, searchBudget).count());
+
+        verify(dateValidator, times(1))
+                .validateDateRange(departureDate, returnDate);
+        verify(flightsAnalysis, times(0))
+                .getPriceRoundTrip(departureDate, fromAirport, returnDate, toAirport, searchBudget);
     }
 
 
@@ -54,15 +100,15 @@ class FlightItineraryServiceTest {
             {"2022-08-14| TLV| MEX"})
     void getPriceWithConnections(String departureDate, String fromAirport, String toAirport) {
         Mockito.when(flightsAnalysis
-                        .getPriceWithConnections(departureDate, fromAirport, toAirport))
+                        .getPriceWithConnections(departureDate, fromAirport, toAirport, searchBudget))
                 .thenReturn(new Itinerary[0]);
 
-        flightItineraryService.getPriceWithConnections(departureDate, fromAirport, toAirport);
+        flightItineraryService.getPriceWithConnections(departureDate, fromAirport, toAirport, searchBudget);
 
         verify(dateValidator, times(1))
                 .validateDepartureDate(departureDate);
         verify(flightsAnalysis, times(1))
-                .getPriceWithConnections(departureDate, fromAirport, toAirport);
+                .getPriceWithConnections(departureDate, fromAirport, toAirport, searchBudget);
     }
 
     @ParameterizedTest
@@ -70,12 +116,136 @@ class FlightItineraryServiceTest {
             {"JFK| MEX"})
     void getPriceAllRoundTrip(String fromAirport, String toAirport) {
         Mockito.when(flightsAnalysis
-                        .getPriceAllRoundTrip(fromAirport, toAirport))
+                        .getPriceAllRoundTrip(fromAirport, toAirport, searchBudget))
                 .thenReturn(new Itinerary[0]);
 
-        flightItineraryService.getPriceAllRoundTrip(fromAirport, toAirport);
+        flightItineraryService.getPriceAllRoundTrip(fromAirport, toAirport, searchBudget);
+
+        verify(flightsAnalysis, times(1))
+                .getPriceAllRoundTrip(fromAirport, toAirport, searchBudget);
+    }
 
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"JFK| MEX| 20"})
+    void streamPriceAllRoundTrip(String fromAirport, String toAirport, long offset) {
+        RoundTripItineraries roundTripItineraries = new RoundTripItineraries(new ArrayList<>(), new ArrayList<>(), 1);
+        Mockito.when(flightsAnalysis
+                        .getAllRoundTripItineraries(fromAirport, toAirport))
+                .thenReturn(roundTripItineraries);
+        Mockito.when(flightsAnalysis
+                        .streamPriceAllRoundTrip(fromAirport, toAirport, roundTripItineraries, offset, searchBudget))
+                .thenReturn(roundTripItineraries.stream(offset));
+
+        Assertions.assertEquals(0, flightItineraryService
+                .streamPriceAllRoundTrip(fromAirport, toAirport, offset, searchBudget).count());
+
+        verify(flightsAnalysis, times(1))
+                .getAllRoundTripItineraries(fromAirport, toAirport);
         verify(flightsAnalysis, times(1))
-                .getPriceAllRoundTrip(fromAirport, toAirport);
+                .streamPriceAllRoundTrip(fromAirport, toAirport, roundTripItineraries, offset, searchBudget);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {"2022-08-14| TLV| MEX| 0| 3| 3",
+                    "2022-08-14| TLV| MEX| 4| 3| 7",
+                    "2022-08-14| TLV| MEX| 6| 3| 9"})
+    void streamPriceWithConnectionsSorted(String departureDate, String fromAirport, String toAirport,
+                                          long offset, int count, int rankedCount) {
+        Mockito.when(flightsAnalysis
+                        .getPriceWithConnections(departureDate, fromAirport, toAirport, ItinerarySort.PRICE, rankedCount, searchBudget))
+                .thenReturn(IntStream.range(0, Math.min(rankedCount, 8)).mapToObj(index -> {
+                    Flight flight = new Flight();
+                    flight.flightNumber = String.valueOf(index);
+                    return new Itinerary(flight);
+                }).toArray(Itinerary[]::new));
+
+        String flightNumbers = flightItineraryService
+                .streamPriceWithConnections(departureDate, fromAirport, toAirport, ItinerarySort.PRICE, offset, count, searchBudget)
+                .map(itinerary -> itinerary.flightsItinerary[0].flightNumber)
+                .collect(Collectors.joining(","));
+
+        Assertions.assertEquals(IntStream.range((int) offset, Math.min(rankedCount, 8))
+                .mapToObj(String::valueOf).collect(Collectors.joining(",")), flightNumbers);
+        verify(flightsAnalysis, times(1))
+                .getPriceWithConnections(departureDate, fromAirport, toAirport, ItinerarySort.PRICE, rankedCount, searchBudget);
+    }
+
+    @Test
+    void getPriceBatch() {
+        BatchItineraryRequest batchItineraryRequest = new BatchItineraryRequest();
+        batchItineraryRequest.roundTrips.put("back", getRoundTrip("2022-01-14", "MEX", "2022-01-20", "JFK"));
+        batchItineraryRequest.roundTrips.put("there", getRoundTrip("2022-01-12", "JFK", "2022-01-14", "MEX"));
+        batchItineraryRequest.withConnections.put("onward", getWithConnections("2022-01-12", "JFK", "TLV"));
+        Mockito.when(flightsAnalysis.getPriceRoundTrip(Mockito.anyString(), Mockito.anyString(), Mockito.anyString(),
+                        Mockito.anyString(), Mockito.eq(searchBudget), Mockito.any()))
+                .thenReturn(new Itinerary[0]);
+        Mockito.when(flightsAnalysis.getPriceWithConnections(Mockito.anyString(), Mockito.anyString(),
+                        Mockito.anyString(), Mockito.eq(searchBudget), Mockito.any()))
+                .thenReturn(new Itinerary[0]);
+
+        BatchItineraries batchItineraries = flightItineraryService.getPriceBatch(batchItineraryRequest, searchBudget);
+
+        Assertions.assertEquals(List.of("there", "back"), new ArrayList<>(batchItineraries.roundTrips.keySet()));
+        Assertions.assertEquals(List.of("onward"), new ArrayList<>(batchItineraries.withConnections.keySet()));
+        Assertions.assertTrue(batchItineraries.partialRoundTrips.isEmpty());
+        verify(flightsAnalysis, times(1)).newOriginFlights();
+        InOrder inOrder = Mockito.inOrder(flightsAnalysis);
+        inOrder.verify(flightsAnalysis).getPriceRoundTrip(Mockito.eq("2022-01-12"), Mockito.eq("JFK"),
+                Mockito.eq("2022-01-14"), Mockito.eq("MEX"), Mockito.eq(searchBudget), Mockito.any());
+        inOrder.verify(flightsAnalysis).getPriceRoundTrip(Mockito.eq("2022-01-14"), Mockito.eq("MEX"),
+                Mockito.eq("2022-01-20"), Mockito.eq("JFK"), Mockito.eq(searchBudget), Mockito.any());
+        inOrder.verify(flightsAnalysis).getPriceWithConnections(Mockito.eq("2022-01-12"), Mockito.eq("JFK"),
+                Mockito.eq("TLV"), Mockito.eq(searchBudget), Mockito.any());
+    }
+
+    @Test
+    void getPriceBatchAfterBudgetRanOut() {
+        BatchItineraryRequest batchItineraryRequest = new BatchItineraryRequest();
+        batchItineraryRequest.roundTrips.put("there", getRoundTrip("2022-01-12", "JFK", "2022-01-14", "MEX"));
+        batchItineraryRequest.withConnections.put("onward", getWithConnections("2022-01-12", "JFK", "TLV"));
+        SearchBudget budget = SearchBudget.unlimited();
+        budget.exceed(SearchBudget.Limit.DEADLINE);
+
+        BatchItineraries batchItineraries = flightItineraryService.getPriceBatch(batchItineraryRequest, budget);
+
+        Assertions.assertEquals(0, batchItineraries.roundTrips.get("there").length);
+        Assertions.assertEquals(List.of("there"), batchItineraries.partialRoundTrips);
+        Assertions.assertEquals(List.of("onward"), batchItineraries.partialWithConnections);
+        verify(flightsAnalysis, times(0)).getPriceRoundTrip(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getPriceBatchRejectsInvalidDates() {
+        BatchItineraryRequest batchItineraryRequest = new BatchItineraryRequest();
+        batchItineraryRequest.roundTrips.put("there", getRoundTrip("2022-01-14", "JFK", "2022-01-12", "MEX"));
+        Mockito.doThrow(new IllegalArgumentException("Return date is before departure date"))
+                .when(dateValidator).validateDateRange("2022-01-14", "2022-01-12");
+
+        IllegalArgumentException ex = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> flightItineraryService.getPriceBatch(batchItineraryRequest, searchBudget));
+
+        Assertions.assertEquals("there: Return date is before departure date", ex.getMessage());
+        verify(flightsAnalysis, times(0)).newOriginFlights();
+    }
+
+    private static RoundTripRequest getRoundTrip(String departureDate, String fromAirport, String returnDate,
+                                                 String toAirport) {
+        RoundTripRequest roundTripRequest = new RoundTripRequest();
+        roundTripRequest.departureDate = departureDate;
+        roundTripRequest.fromAirport = fromAirport;
+        roundTripRequest.returnDate = returnDate;
+        roundTripRequest.toAirport = toAirport;
+        return roundTripRequest;
+    }
+
+    private static WithConnectionsRequest getWithConnections(String date, String fromAirport, String toAirport) {
+        WithConnectionsRequest withConnectionsRequest = new WithConnectionsRequest();
+        withConnectionsRequest.date = date;
+        withConnectionsRequest.fromAirport = fromAirport;
+        withConnectionsRequest.toAirport = toAirport;
+        return withConnectionsRequest;
     }
-}
\ No newline at end of file
+}
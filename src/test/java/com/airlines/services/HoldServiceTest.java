@@ -0,0 +1,202 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.FareCalendarProvider;
+import com.airlines.dataHandlers.InventoryStore;
+import com.airlines.model.Flight;
+import com.airlines.model.FlightLeg;
+import com.airlines.model.Hold;
+import com.airlines.model.HoldRequest;
+import com.airlines.repositories.FlightsBulkLoader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class HoldServiceTest {
+
+    private static final String DATE = "2022-01-01";
+
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+    private List<Flight> flights;
+    private HoldService holdService;
+
+    @BeforeEach
+    public void setUp() {
+        flightInventoryConfiguration = Mockito.mock(FlightInventoryConfiguration.class);
+        Mockito.when(flightInventoryConfiguration.getHoldExpiryMillis()).thenReturn(60_000L);
+        Mockito.when(flightInventoryConfiguration.getMinimumAvailableSeats()).thenReturn(1);
+        Mockito.when(flightInventoryConfiguration.isFlightGraphEnabled()).thenReturn(true);
+        holdService = getHoldService(2, 3, 1);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1010       | 1 | 1 | 3 | 1",
+                    "1010,1011  | 2 | 0 | 1 | 1",
+                    "1011,1012  | 1 | 2 | 2 | 0",
+                    "1010,1010  | 1 | 0 | 3 | 1"})
+    void hold(String flightNumbers, int seats, int seats1010, int seats1011, int seats1012) {
+        Hold hold = holdService.hold(getRequest(seats, flightNumbers.split(",")));
+
+        Assertions.assertEquals(Hold.Status.HELD, hold.status);
+        Assertions.assertNotNull(hold.holdId);
+        Assertions.assertNotNull(hold.expiresAt);
+        assertSeats(seats1010, seats1011, seats1012);
+        Assertions.assertEquals(1, holdService.getActiveHoldCount());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1010,1011,1012 | 2",
+                    "1010,1011      | 3",
+                    "1010,9999      | 1"})
+    void holdIsAllOrNothing(String flightNumbers, int seats) {
+        Assertions.assertThrows(RuntimeException.class,
+                () -> holdService.hold(getRequest(seats, flightNumbers.split(","))));
+
+        assertSeats(2, 3, 1);
+        Assertions.assertEquals(0, holdService.getActiveHoldCount());
+    }
+
+    @Test
+    void confirmKeepsSeats() {
+        Hold hold = holdService.hold(getRequest(1, "1010", "1011"));
+
+        Assertions.assertEquals(Hold.Status.CONFIRMED, holdService.confirm(hold.holdId).status);
+        assertSeats(1, 2, 1);
+        Assertions.assertThrows(NoSuchElementException.class, () -> holdService.confirm(hold.holdId));
+        Assertions.assertThrows(NoSuchElementException.class, () -> holdService.release(hold.holdId));
+        assertSeats(1, 2, 1);
+    }
+
+    @Test
+    void releaseGivesSeatsBack() {
+        Hold hold = holdService.hold(getRequest(2, "1010", "1011"));
+
+        Assertions.assertEquals(Hold.Status.RELEASED, holdService.release(hold.holdId).status);
+        assertSeats(2, 3, 1);
+        Assertions.assertThrows(NoSuchElementException.class, () -> holdService.release(hold.holdId));
+        Assertions.assertThrows(NoSuchElementException.class, () -> holdService.confirm(hold.holdId));
+        assertSeats(2, 3, 1);
+    }
+
+    @Test
+    void expiredHoldGivesSeatsBack() throws InterruptedException {
+        Mockito.when(flightInventoryConfiguration.getHoldExpiryMillis()).thenReturn(50L);
+        Hold hold = holdService.hold(getRequest(2, "1010", "1011"));
+        assertSeats(0, 1, 1);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flights.get(1).availableSeats != 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertSeats(2, 3, 1);
+        Assertions.assertEquals(0, holdService.getActiveHoldCount());
+        Assertions.assertThrows(NoSuchElementException.class, () -> holdService.confirm(hold.holdId));
+    }
+
+    @Test
+    void concurrentHoldsNeverOverbook() throws Exception {
+        int seats = 500;
+        int threads = 16;
+        int attemptsPerThread = 500;
+        holdService = getHoldService(seats, seats, seats);
+        String[][] itineraries = {{"1010", "1011"}, {"1011", "1012"}, {"1012", "1010"}, {"1010", "1011", "1012"}};
+
+        int[] confirmedSeats = new int[3];
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    int[] threadConfirmedSeats = new int[3];
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    start.await();
+                    for (int attempt = 0; attempt < attemptsPerThread; attempt++) {
+                        String[] itinerary = itineraries[(threadIndex + attempt) % itineraries.length];
+                        try {
+                            Hold hold = holdService.hold(getRequest(1 + random.nextInt(2), itinerary));
+                            if (random.nextInt(3) == 0) {
+                                holdService.release(hold.holdId);
+                            } else {
+                                holdService.confirm(hold.holdId);
+                                for (String flightNumber : itinerary) {
+                                    threadConfirmedSeats[Integer.parseInt(flightNumber) - 1010] += hold.seats;
+                                }
+                            }
+                        } catch (IllegalStateException ex) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return threadConfirmedSeats;
+                }));
+            }
+            start.countDown();
+            for (Future<int[]> future : futures) {
+                int[] threadConfirmedSeats = future.get(60, TimeUnit.SECONDS);
+                for (int flight = 0; flight < 3; flight++) {
+                    confirmedSeats[flight] += threadConfirmedSeats[flight];
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertTrue(rejected.get() > 0);
+        for (int flight = 0; flight < 3; flight++) {
+            Assertions.assertTrue(confirmedSeats[flight] <= seats);
+            Assertions.assertEquals(seats - confirmedSeats[flight], flights.get(flight).availableSeats);
+        }
+        Assertions.assertEquals(0, holdService.getActiveHoldCount());
+    }
+
+    private HoldService getHoldService(int seats1010, int seats1011, int seats1012) {
+        flights = List.of(getFlight("1010", seats1010), getFlight("1011", seats1011), getFlight("1012", seats1012));
+        InventoryStore inventoryStore = new InventoryStore();
+        inventoryStore.load(flights);
+        InventoryService inventoryService = new InventoryService(inventoryStore, Mockito.mock(FlightsBulkLoader.class),
+                Mockito.mock(ItineraryCache.class), Mockito.mock(FareCalendarProvider.class), flightInventoryConfiguration);
+        return new HoldService(inventoryService, flightInventoryConfiguration);
+    }
+
+    private void assertSeats(int seats1010, int seats1011, int seats1012) {
+        Assertions.assertEquals(seats1010, flights.get(0).availableSeats);
+        Assertions.assertEquals(seats1011, flights.get(1).availableSeats);
+        Assertions.assertEquals(seats1012, flights.get(2).availableSeats);
+    }
+
+    private static HoldRequest getRequest(int seats, String... flightNumbers) {
+        HoldRequest request = new HoldRequest();
+        request.seats = seats;
+        request.flightsItinerary = new FlightLeg[flightNumbers.length];
+        for (int i = 0; i < flightNumbers.length; i++) {
+            request.flightsItinerary[i] = new FlightLeg(flightNumbers[i], DATE);
+        }
+        return request;
+    }
+
+    private static Flight getFlight(String flightNumber, int availableSeats) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.date = DATE;
+        flight.fromAirport = "TLV";
+        flight.toAirport = "MAD";
+        flight.availableSeats = availableSeats;
+        flight.price = 100.0;
+        return flight;
+    }
+}
@@ -0,0 +1,130 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.FareCalendarProvider;
+import com.airlines.dataHandlers.InventoryStore;
+import com.airlines.model.Flight;
+import com.airlines.model.InventoryUpdateRequest;
+import com.airlines.model.InventoryUpdateResult;
+import com.airlines.repositories.FlightsBulkLoader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import java.util.List;
+
+class InventoryServiceTest {
+
+    private InventoryStore inventoryStore;
+    private FlightsBulkLoader flightsBulkLoader;
+    private ItineraryCache itineraryCache;
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    public void setUp() {
+        inventoryStore = new InventoryStore();
+        inventoryStore.load(List.of(getFlight("1010", 1), getFlight("1011", 5)));
+        flightsBulkLoader = Mockito.mock(FlightsBulkLoader.class);
+        itineraryCache = Mockito.mock(ItineraryCache.class);
+        flightInventoryConfiguration = Mockito.mock(FlightInventoryConfiguration.class);
+        Mockito.when(flightInventoryConfiguration.getMinimumAvailableSeats()).thenReturn(1);
+        Mockito.when(flightInventoryConfiguration.getBulkLoadBatchSize()).thenReturn(100);
+        Mockito.when(flightInventoryConfiguration.isFlightGraphEnabled()).thenReturn(true);
+        inventoryService = new InventoryService(inventoryStore, flightsBulkLoader, itineraryCache,
+                Mockito.mock(FareCalendarProvider.class), flightInventoryConfiguration);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1010 | -1 | 0 | true",
+                    "1010 | 2  | 3 | false",
+                    "1011 | -4 | 1 | false",
+                    "1011 | -5 | 0 | true"})
+    void updateInvalidatesCache(String flightNumber, int seatsDelta, int availableSeats, boolean availabilityChanged) {
+        InventoryUpdateResult result = inventoryService.update(getRequest(flightNumber, seatsDelta, 0));
+
+        Assertions.assertTrue(result.applied);
+        Assertions.assertEquals(availableSeats, result.availableSeats);
+        Mockito.verify(itineraryCache).invalidateFlight(
+                ArgumentMatchers.argThat(flight -> flight.flightNumber.equals(flightNumber)),
+                ArgumentMatchers.eq(availabilityChanged));
+    }
+
+    @Test
+    void updateAllReportsRejectedUpdates() {
+        List<InventoryUpdateResult> results = inventoryService.updateAll(List.of(
+                getRequest("1010", -2, 0),
+                getRequest("1011", -2, 0),
+                getRequest("9999", -1, 0)));
+
+        Assertions.assertFalse(results.get(0).applied);
+        Assertions.assertNotNull(results.get(0).error);
+        Assertions.assertTrue(results.get(1).applied);
+        Assertions.assertEquals(3, results.get(1).availableSeats);
+        Assertions.assertFalse(results.get(2).applied);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeBehind() {
+        Mockito.when(flightsBulkLoader.updateInventory(ArgumentMatchers.anyList(), ArgumentMatchers.eq(100)))
+                .thenAnswer(invocation -> ((List<Flight>) invocation.getArgument(0)).size());
+        inventoryService.update(getRequest("1011", -2, 10.0));
+
+        Assertions.assertEquals(1, inventoryService.writeBehind());
+        Assertions.assertEquals(0, inventoryService.writeBehind());
+
+        ArgumentCaptor<List<Flight>> written = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(flightsBulkLoader).updateInventory(written.capture(), ArgumentMatchers.eq(100));
+        Assertions.assertEquals(3, written.getValue().get(0).availableSeats);
+        Assertions.assertEquals(110.0, written.getValue().get(0).price);
+    }
+
+    @Test
+    void writeBehindFailureKeepsFlightsDirty() {
+        Mockito.when(flightsBulkLoader.updateInventory(ArgumentMatchers.anyList(), ArgumentMatchers.anyInt()))
+                .thenThrow(new IllegalStateException("Database is not available"));
+        inventoryService.update(getRequest("1011", -2, 0));
+
+        Assertions.assertEquals(0, inventoryService.writeBehind());
+        Assertions.assertEquals(1, inventoryStore.getDirtyCount());
+    }
+
+    @Test
+    void writeBehindInvalidatesCacheWithoutFlightGraph() {
+        Mockito.when(flightInventoryConfiguration.isFlightGraphEnabled()).thenReturn(false);
+        inventoryService.update(getRequest("1011", -2, 0));
+        Mockito.verifyNoInteractions(itineraryCache);
+
+        inventoryService.writeBehind();
+
+        Mockito.verify(itineraryCache).invalidateFlight(
+                ArgumentMatchers.argThat(flight -> flight.flightNumber.equals("1011")), ArgumentMatchers.eq(true));
+    }
+
+    private InventoryUpdateRequest getRequest(String flightNumber, int seatsDelta, double priceDelta) {
+        InventoryUpdateRequest request = new InventoryUpdateRequest();
+        request.flightNumber = flightNumber;
+        request.date = "2022-01-01";
+        request.seatsDelta = seatsDelta;
+        request.priceDelta = priceDelta;
+        return request;
+    }
+
+    private Flight getFlight(String flightNumber, int availableSeats) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.date = "2022-01-01";
+        flight.fromAirport = "TLV";
+        flight.toAirport = "MAD";
+        flight.availableSeats = availableSeats;
+        flight.price = 100.0;
+        return flight;
+    }
+}
@@ -0,0 +1,217 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.model.ItineraryCacheStats;
+import com.airlines.model.ItinerarySort;
+import com.airlines.model.SearchBudget;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+class ItineraryCacheTest {
+
+    private FlightInventoryConfiguration flightInventoryConfiguration;
+    private ItineraryCache itineraryCache;
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        flightInventoryConfiguration = getConfiguration(true, 1000, 1);
+        itineraryCache = new ItineraryCache(flightInventoryConfiguration);
+        searches.set(0);
+    }
+
+    @Test
+    void getCachesResult() {
+        Itinerary[] first = getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        Itinerary[] second = getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        getRoundTrip("2022-01-02", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+
+        ItineraryCacheStats stats = itineraryCache.getStats();
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(2, searches.get());
+        Assertions.assertEquals(1, stats.hitCount);
+        Assertions.assertEquals(2, stats.missCount);
+        Assertions.assertEquals(2, stats.estimatedSize);
+        Assertions.assertEquals(4, stats.weightedSize);
+    }
+
+    @Test
+    void getKeysOnConfiguration() {
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        Mockito.when(flightInventoryConfiguration.getWaitingTimeBetweenFlights()).thenReturn(120);
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        Mockito.when(flightInventoryConfiguration.getWaitingTimeBetweenFlights()).thenReturn(360);
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+
+        Assertions.assertEquals(2, searches.get());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "1010 | 2022-01-01 | TLV | MAD | false | 1",
+                    "1010 | 2022-01-02 | TLV | MAD | false | 0",
+                    "1011 | 2022-01-01 | TLV | MAD | false | 0",
+                    "1011 | 2022-01-01 | TLV | MAD | true  | 1",
+                    "1011 | 2022-01-01 | BER | ROM | true  | 0",
+                    "1011 | 2022-01-01 | BER | MAD | true  | 1"})
+    void invalidateFlight(String flightNumber, String date, String fromAirport, String toAirport,
+                          boolean availabilityChanged, long invalidated) {
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        Flight changedFlight = getFlight(flightNumber, fromAirport, toAirport);
+        changedFlight.date = date;
+
+        itineraryCache.invalidateFlight(changedFlight, availabilityChanged);
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+
+        Assertions.assertEquals(invalidated, itineraryCache.getStats().invalidationCount);
+        Assertions.assertEquals(1 + invalidated, searches.get());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "TLV | MAD | 1",
+                    "MAD | TLV | 1",
+                    "BER | MAD | 1",
+                    "BER | ROM | 0"})
+    void invalidateFlightOutsideSortedResult(String fromAirport, String toAirport, long invalidated) {
+        getSortedRoundTrip(ItineraryQuery.Type.ROUND_TRIP, "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        Flight cheaperFlight = getFlight("1011", fromAirport, toAirport);
+        cheaperFlight.price = 1;
+
+        itineraryCache.invalidateFlight(cheaperFlight, false);
+
+        Assertions.assertEquals(invalidated, itineraryCache.getStats().invalidationCount);
+    }
+
+    @Test
+    void invalidateFlightOutsideSortedResultWithMultipleConnections() {
+        itineraryCache = new ItineraryCache(getConfiguration(true, 1000, 2));
+        getSortedRoundTrip(ItineraryQuery.Type.WITH_CONNECTIONS, "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        getSortedRoundTrip(ItineraryQuery.Type.ROUND_TRIP, "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+
+        itineraryCache.invalidateFlight(getFlight("1030", "BER", "ROM"), false);
+
+        Assertions.assertEquals(1, itineraryCache.getStats().invalidationCount);
+        Assertions.assertEquals(1, itineraryCache.getStats().estimatedSize);
+    }
+
+    @Test
+    void invalidateFlightWithMultipleConnections() {
+        itineraryCache = new ItineraryCache(getConfiguration(true, 1000, 2));
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        getRoundTrip("2022-01-01", "JFK", "MEX", getFlight("1020", "JFK", "MEX"));
+
+        itineraryCache.invalidateFlight(getFlight("1030", "BER", "ROM"), true);
+
+        Assertions.assertEquals(2, itineraryCache.getStats().invalidationCount);
+        Assertions.assertEquals(0, itineraryCache.getStats().estimatedSize);
+    }
+
+    @Test
+    void getDoesNotCacheResultComputedDuringInvalidation() {
+        ItineraryQuery query = itineraryCache.getQuery(ItineraryQuery.Type.ROUND_TRIP, "2022-01-01", "TLV", null, "MAD");
+        Flight flight = getFlight("1010", "TLV", "MAD");
+
+        itineraryCache.get(query, () -> {
+            itineraryCache.invalidateFlight(flight, false);
+            return new Itinerary[]{new Itinerary(flight)};
+        }, this::getFlights);
+        itineraryCache.get(query, () -> new Itinerary[]{new Itinerary(flight)}, this::getFlights);
+
+        Assertions.assertEquals(2, itineraryCache.getStats().missCount);
+    }
+
+    @Test
+    void getDoesNotCacheTruncatedResult() {
+        ItineraryQuery query = itineraryCache.getQuery(ItineraryQuery.Type.ROUND_TRIP, "2022-01-01", "TLV", null, "MAD");
+        Flight flight = getFlight("1010", "TLV", "MAD");
+        SearchBudget budget = new SearchBudget(0, Long.MAX_VALUE, 0);
+
+        itineraryCache.get(query, () -> {
+            budget.tryExamine(1);
+            return new Itinerary[0];
+        }, this::getFlights, budget);
+        itineraryCache.get(query, () -> new Itinerary[]{new Itinerary(flight)}, this::getFlights, SearchBudget.unlimited());
+
+        Assertions.assertEquals(2, itineraryCache.getStats().missCount);
+        Assertions.assertEquals(1, itineraryCache.getStats().estimatedSize);
+    }
+
+    @Test
+    void getEvictsByWeight() {
+        itineraryCache = new ItineraryCache(getConfiguration(true, 10, 1));
+        for (int i = 0; i < 20; i++) {
+            getRoundTrip("2022-01-" + (10 + i), "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        }
+
+        ItineraryCacheStats stats = itineraryCache.getStats();
+        Assertions.assertTrue(stats.weightedSize <= 10);
+        Assertions.assertTrue(stats.evictionCount >= 15);
+    }
+
+    @Test
+    void getWithCacheDisabled() {
+        itineraryCache = new ItineraryCache(getConfiguration(false, 1000, 1));
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        getRoundTrip("2022-01-01", "TLV", "MAD", getFlight("1010", "TLV", "MAD"));
+        itineraryCache.invalidateFlight(getFlight("1010", "TLV", "MAD"), true);
+
+        Assertions.assertEquals(2, searches.get());
+        Assertions.assertEquals(0, itineraryCache.getStats().hitCount);
+    }
+
+    private Itinerary[] getRoundTrip(String date, String fromAirport, String toAirport, Flight flight) {
+        flight.date = date;
+        return itineraryCache.get(
+                itineraryCache.getQuery(ItineraryQuery.Type.ROUND_TRIP, date, fromAirport, null, toAirport),
+                () -> {
+                    searches.incrementAndGet();
+                    return new Itinerary[]{new Itinerary(flight)};
+                },
+                this::getFlights);
+    }
+
+    private Itinerary[] getSortedRoundTrip(ItineraryQuery.Type type, String fromAirport, String toAirport,
+                                           Flight flight) {
+        return itineraryCache.get(
+                itineraryCache.getQuery(type, flight.date, fromAirport, null, toAirport, ItinerarySort.PRICE, 1),
+                () -> {
+                    searches.incrementAndGet();
+                    return new Itinerary[]{new Itinerary(flight)};
+                },
+                this::getFlights);
+    }
+
+    private Stream<Flight> getFlights(Itinerary[] itineraries) {
+        return Arrays.stream(itineraries).flatMap(itinerary -> Arrays.stream(itinerary.flightsItinerary));
+    }
+
+    private Flight getFlight(String flightNumber, String fromAirport, String toAirport) {
+        Flight flight = new Flight();
+        flight.flightNumber = flightNumber;
+        flight.date = "2022-01-01";
+        flight.fromAirport = fromAirport;
+        flight.toAirport = toAirport;
+        return flight;
+    }
+
+    private FlightInventoryConfiguration getConfiguration(boolean enabled, long maximumWeight, int maximumConnections) {
+        FlightInventoryConfiguration configuration = Mockito.mock(FlightInventoryConfiguration.class);
+        Mockito.when(configuration.isItineraryCacheEnabled()).thenReturn(enabled);
+        Mockito.when(configuration.getItineraryCacheMaximumWeight()).thenReturn(maximumWeight);
+        Mockito.when(configuration.getMaximumConnections()).thenReturn(maximumConnections);
+        Mockito.when(configuration.getWaitingTimeBetweenFlights()).thenReturn(360);
+        return configuration;
+    }
+}
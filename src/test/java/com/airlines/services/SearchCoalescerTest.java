@@ -0,0 +1,195 @@
+package com.airlines.services;
+
+import com.airlines.configuration.FlightInventoryConfiguration;
+import com.airlines.dataHandlers.AirlineMetrics;
+import com.airlines.graph.FlightGraphProvider;
+import com.airlines.model.Flight;
+import com.airlines.model.Itinerary;
+import com.airlines.model.SearchBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mockito;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class SearchCoalescerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger searches = new AtomicInteger();
+    private MeterRegistry meterRegistry;
+    private SearchCoalescer searchCoalescer;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchCoalescer = new SearchCoalescer(getConfiguration(true), new AirlineMetrics(meterRegistry, new FlightGraphProvider()));
+        searches.set(0);
+    }
+
+    @Test
+    void getSharesSearchInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Itinerary[] result = new Itinerary[0];
+
+        Future<Itinerary[]> leader = executor.submit(() -> get("TLV", SearchBudget.unlimited(), blockingSearch(release, result)));
+        waitFor(() -> searchCoalescer.getSearchesInFlight() == 1);
+        Future<Itinerary[]> follower = executor.submit(() -> get("TLV", SearchBudget.unlimited(), blockingSearch(release, result)));
+        waitFor(() -> getCount(true) == 1);
+        release.countDown();
+
+        Assertions.assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, searches.get());
+        Assertions.assertEquals(1, getCount(false));
+        Assertions.assertEquals(0, searchCoalescer.getSearchesInFlight());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value =
+            {
+                    "true  | TLV | TLV | 2",
+                    "true  | TLV | MAD | 2",
+                    "false | TLV | TLV | 2"})
+    void getRunsSearchesNotInFlight(boolean enabled, String firstAirport, String secondAirport, int expectedSearches) {
+        searchCoalescer = new SearchCoalescer(getConfiguration(enabled), new AirlineMetrics(meterRegistry, new FlightGraphProvider()));
+
+        get(firstAirport, SearchBudget.unlimited(), blockingSearch(new CountDownLatch(0), new Itinerary[0]));
+        get(secondAirport, SearchBudget.unlimited(), blockingSearch(new CountDownLatch(0), new Itinerary[0]));
+
+        Assertions.assertEquals(expectedSearches, searches.get());
+        Assertions.assertEquals(0, getCount(true));
+        Assertions.assertEquals(2, getCount(false));
+    }
+
+    @Test
+    void getSharesExceededLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SearchBudget leaderBudget = new SearchBudget(Long.MAX_VALUE, 0, 0);
+        SearchBudget followerBudget = SearchBudget.unlimited();
+
+        Future<Itinerary[]> leader = executor.submit(() -> get("TLV", leaderBudget, () -> {
+            leaderBudget.tryEmit();
+            return blockingSearch(release, new Itinerary[0]).get();
+        }));
+        waitFor(() -> searchCoalescer.getSearchesInFlight() == 1);
+        Future<Itinerary[]> follower = executor.submit(() -> get("TLV", followerBudget, () -> new Itinerary[0]));
+        waitFor(() -> getCount(true) == 1);
+        release.countDown();
+        leader.get(5, TimeUnit.SECONDS);
+        follower.get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(SearchBudget.Limit.ITINERARIES, followerBudget.getExceededLimit());
+    }
+
+    @Test
+    void getSharesException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Itinerary[]> leader = executor.submit(() -> get("TLV", SearchBudget.unlimited(), () -> {
+            blockingSearch(release, null).get();
+            throw new IllegalStateException("search failed");
+        }));
+        waitFor(() -> searchCoalescer.getSearchesInFlight() == 1);
+        Future<Itinerary[]> follower = executor.submit(() -> get("TLV", SearchBudget.unlimited(), () -> new Itinerary[0]));
+        waitFor(() -> getCount(true) == 1);
+        release.countDown();
+
+        ExecutionException leaderException = Assertions.assertThrows(ExecutionException.class,
+                () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerException = Assertions.assertThrows(ExecutionException.class,
+                () -> follower.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(leaderException.getCause(), followerException.getCause());
+        Assertions.assertEquals(0, searchCoalescer.getSearchesInFlight());
+    }
+
+    @Test
+    void getDoesNotShareSearchStartedBeforeInvalidation() throws Exception {
+        ItineraryCache itineraryCache = new ItineraryCache(getConfiguration(true));
+        CountDownLatch release = new CountDownLatch(1);
+        Itinerary[] staleResult = new Itinerary[0];
+        Itinerary[] freshResult = new Itinerary[0];
+
+        Future<Itinerary[]> leader = executor.submit(() -> getCached(itineraryCache, blockingSearch(release, staleResult)));
+        waitFor(() -> searchCoalescer.getSearchesInFlight() == 1);
+        itineraryCache.invalidateFlight(getFlight(), false);
+        Itinerary[] follower = getCached(itineraryCache, blockingSearch(new CountDownLatch(0), freshResult));
+        release.countDown();
+
+        Assertions.assertSame(freshResult, follower);
+        Assertions.assertSame(staleResult, leader.get(5, TimeUnit.SECONDS));
+        Assertions.assertSame(freshResult, getCached(itineraryCache, blockingSearch(new CountDownLatch(0), staleResult)));
+        Assertions.assertEquals(2, searches.get());
+        Assertions.assertEquals(0, getCount(true));
+        Assertions.assertEquals(0, searchCoalescer.getSearchesInFlight());
+    }
+
+    private Itinerary[] get(String fromAirport, SearchBudget budget, Supplier<Itinerary[]> search) {
+        return searchCoalescer.get(getQuery(fromAirport), 0, budget, search);
+    }
+
+    private Itinerary[] getCached(ItineraryCache itineraryCache, Supplier<Itinerary[]> search) {
+        ItineraryQuery query = getQuery("TLV");
+        SearchBudget budget = SearchBudget.unlimited();
+        return itineraryCache.get(query, generation -> searchCoalescer.get(query, generation, budget, search),
+                itineraries -> Arrays.stream(itineraries).flatMap(itinerary -> Arrays.stream(itinerary.flightsItinerary)),
+                budget);
+    }
+
+    private static ItineraryQuery getQuery(String fromAirport) {
+        return new ItineraryQuery(ItineraryQuery.Type.ROUND_TRIP, "2022-01-01", fromAirport,
+                "2022-01-05", "BER", null, 0, getConfiguration(true));
+    }
+
+    private static Flight getFlight() {
+        Flight flight = new Flight();
+        flight.flightNumber = "1010";
+        flight.date = "2022-01-01";
+        flight.fromAirport = "TLV";
+        flight.toAirport = "BER";
+        return flight;
+    }
+
+    private Supplier<Itinerary[]> blockingSearch(CountDownLatch release, Itinerary[] result) {
+        return () -> {
+            searches.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        };
+    }
+
+    private double getCount(boolean coalesced) {
+        Counter counter = meterRegistry.find(AirlineMetrics.SEARCH_REQUESTS)
+                .tags("coalesced", String.valueOf(coalesced))
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void waitFor(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out waiting for the searches");
+            Thread.sleep(1);
+        }
+    }
+
+    private static FlightInventoryConfiguration getConfiguration(boolean enabled) {
+        FlightInventoryConfiguration configuration = Mockito.mock(FlightInventoryConfiguration.class);
+        Mockito.when(configuration.isSearchCoalescingEnabled()).thenReturn(enabled);
+        Mockito.when(configuration.isItineraryCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getItineraryCacheMaximumWeight()).thenReturn(1000L);
+        Mockito.when(configuration.getWaitingTimeBetweenFlights()).thenReturn(360);
+        return configuration;
+    }
+}